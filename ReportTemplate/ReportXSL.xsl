@@ -9,6 +9,19 @@
 
 	<xsl:param name="testcaserid"/>
 	<xsl:param name="loadAll" /> 
+	<!-- TestCaseDetail or TestModuleDetail, for the processors which cannot set the start mode -->
+	<xsl:param name="detailMode"/>
+
+	<!-- Report ids are looked up through this key instead of scanning the document -->
+	<xsl:key name="activityByRid" match="activity" use="@rid"/>
+
+	<xsl:template match="/">
+		<xsl:choose>
+			<xsl:when test="$detailMode = 'TestCaseDetail'"><xsl:apply-templates select="." mode="TestCaseDetail"/></xsl:when>
+			<xsl:when test="$detailMode = 'TestModuleDetail'"><xsl:apply-templates select="." mode="TestModuleDetail"/></xsl:when>
+			<xsl:otherwise><xsl:apply-templates/></xsl:otherwise>
+		</xsl:choose>
+	</xsl:template>
 
 
     <!-- Report Root Content -->
@@ -702,14 +715,14 @@
 </xsl:template> 
 
 <xsl:template match="/" mode="TestCaseDetail">
-  <xsl:apply-templates select="//activity[@rid = $testcaserid]/activity" >
+  <xsl:apply-templates select="key('activityByRid', $testcaserid)/activity" >
     <xsl:with-param name="itemCount" select="$maxItems" />
   </xsl:apply-templates>
 </xsl:template>
 
 
 <xsl:template match="/" mode="TestModuleDetail">
-  <xsl:apply-templates select="//activity[@rid = $testcaserid]/item" >
+  <xsl:apply-templates select="key('activityByRid', $testcaserid)/item" >
     <xsl:with-param name="itemCount" select="$maxItems" />
   </xsl:apply-templates>
 </xsl:template>
@@ -0,0 +1,442 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.datastore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.virtusa.isq.rft.utils.RuntimeConfiguration;
+import com.virtusa.isq.rft.utils.Utils;
+
+/**
+ * The store behind the <code>store</code> and <code>retrieve</code> commands.
+ * The values are kept in memory by key, so retrieving a value is a map
+ * lookup, and storing a value appends one record to a write-ahead log,
+ * <code>&lt;file&gt;.wal</code>, instead of rewriting the whole file. The
+ * log records are binary: the length of the record, the key, then the
+ * {@link DataValue} in its native form, so reading the log back does not
+ * parse any text.<br>
+ * <br>
+ * The log is compacted into the data file every DATA_STORE_COMPACT_RECORDS
+ * records (1000 by default) and when the JVM exits. The data file keeps the
+ * <code>&lt;key&gt;_Val</code> / <code>&lt;key&gt;_Type</code> properties
+ * format, so it can still be read and edited as before.<br>
+ * <br>
+ * Several scripts and processes can share the files: the changes are made
+ * under a lock of <code>&lt;file&gt;.lock</code>, and the records appended by
+ * other processes are read before a value is stored or retrieved. That check
+ * only compares the file sizes and times when nothing has changed.
+ */
+public final class DataStore {
+
+    /** The default data file. */
+    public static final String DEFAULT_FILE = "project_data.properties";
+
+    /** The default number of log records compacted into the data file. */
+    public static final int DEFAULT_COMPACT_RECORDS = 1000;
+
+    /** The suffix of the value properties. */
+    private static final String VALUE_SUFFIX = "_Val";
+
+    /** The suffix of the type properties. */
+    private static final String TYPE_SUFFIX = "_Type";
+
+    /** The comment of the data file. */
+    private static final String COMMENT = "project settings";
+
+    /** The length of the record length field of the log. */
+    private static final int LENGTH_SIZE = 4;
+
+    /** The stores by file. */
+    private static final Map<String, DataStore> STORES =
+            new HashMap<String, DataStore>();
+
+    /** The data file. */
+    private final File file;
+
+    /** The log file. */
+    private final File logFile;
+
+    /** The lock file. */
+    private final RandomAccessFile lockFile;
+
+    /** The number of log records compacted into the data file. */
+    private final int compactRecords;
+
+    /** The values by key. */
+    private final Map<String, DataValue> values =
+            new HashMap<String, DataValue>();
+
+    /** The properties of the data file which are not values. */
+    private final Properties otherProperties = new Properties();
+
+    /** The length of the log read so far. */
+    private long logOffset;
+
+    /** The number of records in the log. */
+    private int logRecords;
+
+    /** The time of the data file when it was read. */
+    private long fileTime = -1;
+
+    /** The length of the data file when it was read. */
+    private long fileLength = -1;
+
+    /**
+     * Instantiates a new data store.
+     * 
+     * @param dataFile
+     *            the data file
+     * @param compactAfter
+     *            the number of log records compacted into the data file
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    DataStore(final File dataFile, final int compactAfter) throws IOException {
+        this.file = dataFile.getAbsoluteFile();
+        this.logFile = new File(file.getPath() + ".wal");
+        this.compactRecords = Math.max(1, compactAfter);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory()) {
+            parent.mkdirs();
+        }
+        this.lockFile = new RandomAccessFile(file.getPath() + ".lock", "rw");
+    }
+
+    /**
+     * Gets the store of the default data file.
+     * 
+     * @return the data store
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public static DataStore getInstance() throws IOException {
+        return getInstance(new File(DEFAULT_FILE));
+    }
+
+    /**
+     * Gets the store of a data file. The stores are shared by all the scripts
+     * of the JVM, and write the log back into the data file when the JVM
+     * exits.
+     * 
+     * @param dataFile
+     *            the data file
+     * @return the data store
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public static DataStore getInstance(final File dataFile)
+            throws IOException {
+        String path = dataFile.getCanonicalPath();
+        synchronized (STORES) {
+            DataStore store = STORES.get(path);
+            if (store == null) {
+                int compactAfter =
+                        RuntimeConfiguration.getInstance().getInt(
+                                "DATA_STORE_COMPACT_RECORDS",
+                                DEFAULT_COMPACT_RECORDS);
+                final DataStore created =
+                        new DataStore(new File(path), compactAfter);
+                Runtime.getRuntime().addShutdownHook(new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            created.compact();
+                        } catch (IOException e) {
+                            System.err.println("Cannot compact "
+                                    + created.logFile.getPath() + " : "
+                                    + e.getMessage());
+                        }
+                    }
+                });
+                store = created;
+                STORES.put(path, store);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Checks whether anything has been stored, in the data file or in the
+     * log.
+     * 
+     * @return true, if the data file or the log exists
+     */
+    public boolean exists() {
+        return file.exists() || logFile.exists();
+    }
+
+    /**
+     * Gets a value.
+     * 
+     * @param key
+     *            the key
+     * @return the value, or null if the key is not stored
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public synchronized DataValue get(final String key) throws IOException {
+        if (isChanged()) {
+            FileLock lock = lockFile.getChannel().lock();
+            try {
+                refresh();
+            } finally {
+                lock.release();
+            }
+        }
+        return values.get(key);
+    }
+
+    /**
+     * Stores a value, replacing the value of the same key.
+     * 
+     * @param key
+     *            the key
+     * @param type
+     *            the type name: Int, Float, Boolean or String
+     * @param text
+     *            the value as text
+     * @return the stored value
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws IllegalArgumentException
+     *             if the text is not a value of the type
+     */
+    public DataValue put(final String key, final String type,
+            final String text) throws IOException {
+        return put(key, DataValue.parse(type, text));
+    }
+
+    /**
+     * Stores a typed value, replacing the value of the same key.
+     * 
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @return the stored value
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public synchronized DataValue put(final String key, final DataValue value)
+            throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeInt(0);
+        DataValue.writeString(out, key);
+        value.write(out);
+        out.flush();
+        byte[] bytes = record.toByteArray();
+        int length = bytes.length - LENGTH_SIZE;
+        bytes[0] = (byte) (length >>> 24);
+        bytes[1] = (byte) (length >>> 16);
+        bytes[2] = (byte) (length >>> 8);
+        bytes[3] = (byte) length;
+        FileLock lock = lockFile.getChannel().lock();
+        try {
+            refresh();
+            RandomAccessFile log = new RandomAccessFile(logFile, "rw");
+            try {
+                if (log.length() != logOffset) {
+                    // drops the incomplete record of a killed writer
+                    log.setLength(logOffset);
+                }
+                log.seek(logOffset);
+                log.write(bytes);
+                logOffset = log.getFilePointer();
+            } finally {
+                log.close();
+            }
+            values.put(key, value);
+            logRecords++;
+            if (logRecords >= compactRecords) {
+                writeDataFile();
+            }
+        } finally {
+            lock.release();
+        }
+        return value;
+    }
+
+    /**
+     * Writes all the values into the data file and empties the log.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public synchronized void compact() throws IOException {
+        FileLock lock = lockFile.getChannel().lock();
+        try {
+            refresh();
+            if (logRecords > 0) {
+                writeDataFile();
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Checks whether the files have changed since they were read.
+     * 
+     * @return true, if the data file was rewritten or the log has grown
+     */
+    private boolean isChanged() {
+        return file.lastModified() != fileTime || file.length() != fileLength
+                || logFile.length() != logOffset;
+    }
+
+    /**
+     * Reads the changes of the files. The data file is read again when it has
+     * been rewritten; otherwise only the records added to the log are read.
+     * Must be called under the file lock.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void refresh() throws IOException {
+        long logLength = logFile.length();
+        if (file.lastModified() != fileTime || file.length() != fileLength
+                || logLength < logOffset) {
+            readDataFile();
+        }
+        if (logFile.length() > logOffset) {
+            readLog();
+        }
+    }
+
+    /**
+     * Reads the data file, and the whole log after it.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void readDataFile() throws IOException {
+        Properties properties = new Properties();
+        fileTime = file.lastModified();
+        fileLength = file.length();
+        if (file.exists()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        values.clear();
+        otherProperties.clear();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.endsWith(VALUE_SUFFIX)) {
+                String key =
+                        name.substring(0, name.length()
+                                - VALUE_SUFFIX.length());
+                String type = properties.getProperty(key + TYPE_SUFFIX);
+                if (type != null) {
+                    values.put(key, DataValue.load(type, properties
+                            .getProperty(name)));
+                    continue;
+                }
+            } else if (name.endsWith(TYPE_SUFFIX)
+                    && properties.getProperty(name.substring(0, name.length()
+                            - TYPE_SUFFIX.length())
+                            + VALUE_SUFFIX) != null) {
+                continue;
+            }
+            otherProperties.setProperty(name, properties.getProperty(name));
+        }
+        logOffset = 0;
+        logRecords = 0;
+    }
+
+    /**
+     * Reads the records added to the log since it was last read. An
+     * incomplete last record, shorter than its length field, is left for the
+     * next read.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void readLog() throws IOException {
+        byte[] records;
+        RandomAccessFile log = new RandomAccessFile(logFile, "r");
+        try {
+            records = new byte[(int) (log.length() - logOffset)];
+            log.seek(logOffset);
+            log.readFully(records);
+        } finally {
+            log.close();
+        }
+        DataInputStream in =
+                new DataInputStream(new ByteArrayInputStream(records));
+        int start = 0;
+        while (records.length - start >= LENGTH_SIZE) {
+            int length = in.readInt();
+            if (length < 0 || records.length - start - LENGTH_SIZE < length) {
+                break;
+            }
+            values.put(DataValue.readString(in), DataValue.read(in));
+            logRecords++;
+            start += LENGTH_SIZE + length;
+        }
+        logOffset += start;
+    }
+
+    /**
+     * Writes all the values into the data file, replacing it, and empties
+     * the log. Must be called under the file lock, after the log is read.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void writeDataFile() throws IOException {
+        Properties properties = new Properties();
+        properties.putAll(otherProperties);
+        for (Map.Entry<String, DataValue> entry : values.entrySet()) {
+            properties.setProperty(entry.getKey() + VALUE_SUFFIX, entry
+                    .getValue().getText());
+            properties.setProperty(entry.getKey() + TYPE_SUFFIX, entry
+                    .getValue().getType());
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            properties.store(out, COMMENT);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        Utils.replaceFile(temp, file);
+        RandomAccessFile log = new RandomAccessFile(logFile, "rw");
+        try {
+            log.setLength(0);
+        } finally {
+            log.close();
+        }
+        fileTime = file.lastModified();
+        fileLength = file.length();
+        logOffset = 0;
+        logRecords = 0;
+    }
+}
@@ -0,0 +1,534 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.datastore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A typed value of the {@link DataStore}. The value is kept in its native
+ * form: ints, floats and booleans as primitives, strings and lists of strings
+ * as they are. The type is checked once, when the value is stored, so
+ * retrieving it neither parses it nor allocates.
+ */
+public final class DataValue {
+
+    /** The type name of the int values. */
+    public static final String INT = "Int";
+
+    /** The type name of the float values. */
+    public static final String FLOAT = "Float";
+
+    /** The type name of the boolean values. */
+    public static final String BOOLEAN = "Boolean";
+
+    /** The type name of the string values. */
+    public static final String STRING = "String";
+
+    /** The type name of the list values, such as the rows of a table. */
+    public static final String LIST = "List";
+
+    /** The kind of the values of other types, kept as text. */
+    public static final byte KIND_TEXT = 0;
+
+    /** The kind of the int values. */
+    public static final byte KIND_INT = 1;
+
+    /** The kind of the float values. */
+    public static final byte KIND_FLOAT = 2;
+
+    /** The kind of the boolean values. */
+    public static final byte KIND_BOOLEAN = 3;
+
+    /** The kind of the string values. */
+    public static final byte KIND_STRING = 4;
+
+    /** The kind of the list values. */
+    public static final byte KIND_LIST = 5;
+
+    /** The separator of the list items in the text form. */
+    private static final char LIST_SEPARATOR = ',';
+
+    /** The escape character of the list items in the text form. */
+    private static final char LIST_ESCAPE = '\\';
+
+    /** The type name, as given when the value was stored. */
+    private final String type;
+
+    /** The kind of the value. */
+    private final byte kind;
+
+    /** The value as text, or null until it is first needed. */
+    private String text;
+
+    /** The int value. */
+    private final int intValue;
+
+    /** The float value. */
+    private final float floatValue;
+
+    /** The boolean value. */
+    private final boolean booleanValue;
+
+    /** The list items. */
+    private final List<String> items;
+
+    /**
+     * Instantiates a new data value.
+     * 
+     * @param valueType
+     *            the type name
+     * @param valueKind
+     *            the kind of the value
+     * @param valueText
+     *            the value as text, or null to format it when needed
+     * @param intVal
+     *            the int value
+     * @param floatVal
+     *            the float value
+     * @param booleanVal
+     *            the boolean value
+     * @param listItems
+     *            the list items
+     */
+    private DataValue(final String valueType, final byte valueKind,
+            final String valueText, final int intVal, final float floatVal,
+            final boolean booleanVal, final List<String> listItems) {
+        this.type = valueType;
+        this.kind = valueKind;
+        this.text = valueText;
+        this.intValue = intVal;
+        this.floatValue = floatVal;
+        this.booleanValue = booleanVal;
+        this.items = listItems;
+    }
+
+    /**
+     * Creates an int value.
+     * 
+     * @param value
+     *            the value
+     * @return the typed value
+     */
+    public static DataValue of(final int value) {
+        return new DataValue(INT, KIND_INT, null, value, value, false, null);
+    }
+
+    /**
+     * Creates a float value.
+     * 
+     * @param value
+     *            the value
+     * @return the typed value
+     */
+    public static DataValue of(final float value) {
+        return new DataValue(FLOAT, KIND_FLOAT, null, 0, value, false, null);
+    }
+
+    /**
+     * Creates a boolean value.
+     * 
+     * @param value
+     *            the value
+     * @return the typed value
+     */
+    public static DataValue of(final boolean value) {
+        return new DataValue(BOOLEAN, KIND_BOOLEAN, null, 0, 0, value, null);
+    }
+
+    /**
+     * Creates a string value.
+     * 
+     * @param value
+     *            the value
+     * @return the typed value
+     */
+    public static DataValue of(final String value) {
+        return new DataValue(STRING, KIND_STRING, value, 0, 0, false, null);
+    }
+
+    /**
+     * Creates a list value. The items are copied.
+     * 
+     * @param value
+     *            the items
+     * @return the typed value
+     */
+    public static DataValue of(final List<String> value) {
+        return new DataValue(LIST, KIND_LIST, null, 0, 0, false,
+                Collections.unmodifiableList(new ArrayList<String>(value)));
+    }
+
+    /**
+     * Gets the kind of the given type name.
+     * 
+     * @param type
+     *            the type name, ignoring the case
+     * @return the kind, {@link #KIND_TEXT} for the unknown types
+     */
+    public static byte kindOf(final String type) {
+        if (INT.equalsIgnoreCase(type)) {
+            return KIND_INT;
+        } else if (FLOAT.equalsIgnoreCase(type)) {
+            return KIND_FLOAT;
+        } else if (BOOLEAN.equalsIgnoreCase(type)) {
+            return KIND_BOOLEAN;
+        } else if (STRING.equalsIgnoreCase(type)) {
+            return KIND_STRING;
+        } else if (LIST.equalsIgnoreCase(type)) {
+            return KIND_LIST;
+        }
+        return KIND_TEXT;
+    }
+
+    /**
+     * Parses a value of the given type.
+     * 
+     * @param type
+     *            the type name: Int, Float, Boolean, List or any other type
+     *            for strings
+     * @param text
+     *            the value as text; the items of a list are separated by
+     *            commas, and commas within the items are escaped with a
+     *            backslash
+     * @return the typed value
+     * @throws IllegalArgumentException
+     *             if the text is not a value of the type
+     */
+    public static DataValue parse(final String type, final String text) {
+        byte kind = kindOf(type);
+        try {
+            if (kind == KIND_INT) {
+                int value = Integer.parseInt(text);
+                return new DataValue(type, kind, text, value, value, false,
+                        null);
+            } else if (kind == KIND_FLOAT) {
+                return new DataValue(type, kind, text, 0,
+                        Float.parseFloat(text), false, null);
+            } else if (kind == KIND_BOOLEAN) {
+                if ("true".equalsIgnoreCase(text)
+                        || "false".equalsIgnoreCase(text)) {
+                    return new DataValue(type, kind, text, 0, 0,
+                            Boolean.parseBoolean(text), null);
+                }
+                throw new IllegalArgumentException(
+                        "Cannot convert to boolean value " + text);
+            } else if (kind == KIND_LIST) {
+                return new DataValue(type, kind, text, 0, 0, false,
+                        splitList(text));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return new DataValue(type, kind, text, 0, 0, false, null);
+    }
+
+    /**
+     * Parses a value read from the data file, keeping values which do not
+     * match their type as text.
+     * 
+     * @param type
+     *            the type name
+     * @param text
+     *            the value as text
+     * @return the typed value
+     */
+    static DataValue load(final String type, final String text) {
+        try {
+            return parse(type, text);
+        } catch (IllegalArgumentException e) {
+            return new DataValue(type, KIND_TEXT, text, 0, 0, false, null);
+        }
+    }
+
+    /**
+     * Writes the value in the binary form of the log: the kind, the type name
+     * as given, then the value. Ints, floats and booleans are followed by
+     * their text, so they read back exactly as they were stored.
+     * 
+     * @param out
+     *            the output
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void write(final DataOutput out) throws IOException {
+        out.writeByte(kind);
+        writeString(out, type);
+        switch (kind) {
+        case KIND_INT:
+            out.writeInt(intValue);
+            writeString(out, getText());
+            break;
+        case KIND_FLOAT:
+            out.writeFloat(floatValue);
+            writeString(out, getText());
+            break;
+        case KIND_BOOLEAN:
+            out.writeBoolean(booleanValue);
+            writeString(out, getText());
+            break;
+        case KIND_LIST:
+            out.writeInt(items.size());
+            for (String item : items) {
+                writeString(out, item);
+            }
+            break;
+        default:
+            writeString(out, text);
+            break;
+        }
+    }
+
+    /**
+     * Reads a value written by {@link #write(DataOutput)}.
+     * 
+     * @param in
+     *            the input
+     * @return the value
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    static DataValue read(final DataInput in) throws IOException {
+        byte kind = in.readByte();
+        if (kind < KIND_TEXT || kind > KIND_LIST) {
+            throw new IOException("Unknown value kind " + kind);
+        }
+        String valueType = readString(in);
+        switch (kind) {
+        case KIND_INT:
+            int intVal = in.readInt();
+            return new DataValue(valueType, kind, readString(in), intVal,
+                    intVal, false, null);
+        case KIND_FLOAT:
+            float floatVal = in.readFloat();
+            return new DataValue(valueType, kind, readString(in), 0,
+                    floatVal, false, null);
+        case KIND_BOOLEAN:
+            boolean booleanVal = in.readBoolean();
+            return new DataValue(valueType, kind, readString(in), 0, 0,
+                    booleanVal, null);
+        case KIND_LIST:
+            String[] listItems = new String[in.readInt()];
+            for (int i = 0; i < listItems.length; i++) {
+                listItems[i] = readString(in);
+            }
+            return new DataValue(valueType, kind, null, 0, 0, false,
+                    Collections.unmodifiableList(Arrays.asList(listItems)));
+        default:
+            return new DataValue(valueType, kind, readString(in), 0, 0,
+                    false, null);
+        }
+    }
+
+    /**
+     * Writes a string of any length as its UTF-8 length and bytes.
+     * 
+     * @param out
+     *            the output
+     * @param value
+     *            the string
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    static void writeString(final DataOutput out, final String value)
+            throws IOException {
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.
+     * 
+     * @param in
+     *            the input
+     * @return the string
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    static String readString(final DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /**
+     * Gets the type name.
+     * 
+     * @return the type name
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the kind of the value.
+     * 
+     * @return the kind
+     */
+    public byte getKind() {
+        return kind;
+    }
+
+    /**
+     * Checks whether the value is of the given type.
+     * 
+     * @param expectedType
+     *            the type name
+     * @return true, if the type names match ignoring the case
+     */
+    public boolean isType(final String expectedType) {
+        return type != null && type.equalsIgnoreCase(expectedType);
+    }
+
+    /**
+     * Gets the value as text. Lists are formatted as their comma separated
+     * items.
+     * 
+     * @return the text
+     */
+    public String getText() {
+        if (text == null) {
+            if (kind == KIND_INT) {
+                text = String.valueOf(intValue);
+            } else if (kind == KIND_FLOAT) {
+                text = String.valueOf(floatValue);
+            } else if (kind == KIND_BOOLEAN) {
+                text = String.valueOf(booleanValue);
+            } else if (kind == KIND_LIST) {
+                text = joinList(items);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Gets the int value.
+     * 
+     * @return the value
+     * @throws IllegalStateException
+     *             if the value is not an int
+     */
+    public int getInt() {
+        checkKind(KIND_INT);
+        return intValue;
+    }
+
+    /**
+     * Gets the float value. Int values are widened.
+     * 
+     * @return the value
+     * @throws IllegalStateException
+     *             if the value is not a float or an int
+     */
+    public float getFloat() {
+        if (kind != KIND_INT) {
+            checkKind(KIND_FLOAT);
+        }
+        return floatValue;
+    }
+
+    /**
+     * Gets the boolean value.
+     * 
+     * @return the value
+     * @throws IllegalStateException
+     *             if the value is not a boolean
+     */
+    public boolean getBoolean() {
+        checkKind(KIND_BOOLEAN);
+        return booleanValue;
+    }
+
+    /**
+     * Gets the items of a list value.
+     * 
+     * @return the unmodifiable items
+     * @throws IllegalStateException
+     *             if the value is not a list
+     */
+    public List<String> getList() {
+        checkKind(KIND_LIST);
+        return items;
+    }
+
+    /**
+     * Checks the kind of the value.
+     * 
+     * @param expectedKind
+     *            the expected kind
+     */
+    private void checkKind(final byte expectedKind) {
+        if (kind != expectedKind) {
+            throw new IllegalStateException("The value " + getText()
+                    + " is of type " + type);
+        }
+    }
+
+    /**
+     * Splits the text form of a list into its items.
+     * 
+     * @param text
+     *            the comma separated items
+     * @return the unmodifiable items
+     */
+    private static List<String> splitList(final String text) {
+        List<String> listItems = new ArrayList<String>();
+        if (text.length() > 0) {
+            StringBuilder item = new StringBuilder();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == LIST_ESCAPE && i + 1 < text.length()) {
+                    item.append(text.charAt(++i));
+                } else if (c == LIST_SEPARATOR) {
+                    listItems.add(item.toString());
+                    item.setLength(0);
+                } else {
+                    item.append(c);
+                }
+            }
+            listItems.add(item.toString());
+        }
+        return Collections.unmodifiableList(listItems);
+    }
+
+    /**
+     * Joins the items of a list into its text form.
+     * 
+     * @param listItems
+     *            the items
+     * @return the comma separated items
+     */
+    private static String joinList(final List<String> listItems) {
+        StringBuilder joined = new StringBuilder();
+        for (int index = 0; index < listItems.size(); index++) {
+            String item = listItems.get(index);
+            if (index > 0) {
+                joined.append(LIST_SEPARATOR);
+            }
+            for (int i = 0; i < item.length(); i++) {
+                char c = item.charAt(i);
+                if (c == LIST_SEPARATOR || c == LIST_ESCAPE) {
+                    joined.append(LIST_ESCAPE);
+                }
+                joined.append(c);
+            }
+        }
+        return joined.toString();
+    }
+}
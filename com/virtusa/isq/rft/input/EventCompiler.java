@@ -0,0 +1,224 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.input;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.virtusa.isq.rft.utils.KeyCodes;
+
+/**
+ * Compiles the <code>fireEvent</code> event strings into {@link EventProgram}s.
+ * <ul>
+ * <li>KEY%type=text|Key=key|wait=ms : pastes a text, types a key combination
+ * of {@link KeyCodes} or waits</li>
+ * <li>MOUSE%MOVE=width,height,x,y|SCROLL=notches|wait=ms : moves the mouse to
+ * a position recorded on a screen of the given size, rotates the wheel or
+ * waits</li>
+ * <li>VERIFY%value : copies the selected text and compares it with the
+ * value</li>
+ * </ul>
+ * The whole string is checked when it is compiled, so an invalid command fails
+ * before any event is played. The programs are cached by event string, the
+ * least recently used program being dropped when the cache is full.
+ */
+public final class EventCompiler {
+
+    /** The maximum number of cached programs. */
+    private static final int CACHE_SIZE = 256;
+
+    /** The initial capacity of the cache. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The load factor of the cache. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** The separator between the type and the commands. */
+    private static final char TYPE_SEPARATOR = '%';
+
+    /** The separator between the commands. */
+    private static final char COMMAND_SEPARATOR = '|';
+
+    /** The separator between a command and its input. */
+    private static final char INPUT_SEPARATOR = '=';
+
+    /** The number of MOVE arguments. */
+    private static final int MOVE_ARGUMENTS = 4;
+
+    /** The compiled programs in access order. */
+    private static final Map<String, EventProgram> CACHE =
+            new LinkedHashMap<String, EventProgram>(INITIAL_CAPACITY,
+                    LOAD_FACTOR, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<String, EventProgram> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Instantiates a new event compiler.
+     */
+    private EventCompiler() {
+    }
+
+    /**
+     * Gets the compiled program of an event string, compiling it on the
+     * first use.
+     * 
+     * @param event
+     *            the event string
+     * @return the program
+     * @throws IllegalArgumentException
+     *             if the event string is invalid
+     */
+    public static EventProgram compile(final String event) {
+        synchronized (CACHE) {
+            EventProgram program = CACHE.get(event);
+            if (program != null) {
+                return program;
+            }
+        }
+        EventProgram program = parse(event);
+        synchronized (CACHE) {
+            CACHE.put(event, program);
+        }
+        return program;
+    }
+
+    /**
+     * Parses an event string.
+     * 
+     * @param event
+     *            the event string
+     * @return the program
+     */
+    private static EventProgram parse(final String event) {
+        int typeEnd = event.indexOf(TYPE_SEPARATOR);
+        if (typeEnd < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid event type passed " + event);
+        }
+        EventProgram.Type type;
+        try {
+            type = EventProgram.Type.valueOf(event.substring(0, typeEnd));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Invalid event type passed " + event);
+        }
+        String body = event.substring(typeEnd + 1);
+        if (type == EventProgram.Type.VERIFY) {
+            return new EventProgram(type,
+                    new ArrayList<EventProgram.Instruction>(0), body);
+        }
+
+        List<EventProgram.Instruction> instructions =
+                new ArrayList<EventProgram.Instruction>();
+        int start = 0;
+        while (start <= body.length()) {
+            int end = body.indexOf(COMMAND_SEPARATOR, start);
+            if (end < 0) {
+                end = body.length();
+            }
+            String command = body.substring(start, end);
+            if (!command.isEmpty()) {
+                instructions.add(parseCommand(type, command));
+            }
+            start = end + 1;
+        }
+        return new EventProgram(type, instructions, null);
+    }
+
+    /**
+     * Parses one command of a KEY or MOUSE event string.
+     * 
+     * @param type
+     *            the event type
+     * @param fullCommand
+     *            the command and its input, such as Key=a
+     * @return the instruction
+     */
+    private static EventProgram.Instruction parseCommand(
+            final EventProgram.Type type, final String fullCommand) {
+        int inputIndex = fullCommand.indexOf(INPUT_SEPARATOR);
+        if (inputIndex < 0) {
+            throw new IllegalArgumentException("Command " + fullCommand
+                    + " has no input");
+        }
+        String command = fullCommand.substring(0, inputIndex);
+        String input = fullCommand.substring(inputIndex + 1);
+
+        if ("wait".equalsIgnoreCase(command)) {
+            return new EventProgram.Instruction(
+                    EventProgram.Instruction.WAIT, new int[] {parseInt(
+                            fullCommand, input) }, null);
+        } else if (type == EventProgram.Type.KEY) {
+            if ("type".equalsIgnoreCase(command)) {
+                return new EventProgram.Instruction(
+                        EventProgram.Instruction.PASTE, new int[0], input);
+            } else if ("Key".equalsIgnoreCase(command)) {
+                int[] keyCodes = KeyCodes.lookup(input);
+                if (keyCodes == null) {
+                    throw new IllegalArgumentException("Command "
+                            + fullCommand + " has an unknown key");
+                }
+                return new EventProgram.Instruction(
+                        EventProgram.Instruction.KEY, keyCodes, null);
+            }
+        } else if ("MOVE".equalsIgnoreCase(command)) {
+            String[] coords = input.split(",");
+            if (coords.length != MOVE_ARGUMENTS) {
+                throw new IllegalArgumentException("Command " + fullCommand
+                        + " needs the width, height, x and y");
+            }
+            int[] arguments = new int[MOVE_ARGUMENTS];
+            for (int i = 0; i < MOVE_ARGUMENTS; i++) {
+                arguments[i] = parseInt(fullCommand, coords[i].trim());
+            }
+            if (arguments[0] <= 0 || arguments[1] <= 0) {
+                throw new IllegalArgumentException("Command " + fullCommand
+                        + " has an empty screen size");
+            }
+            return new EventProgram.Instruction(
+                    EventProgram.Instruction.MOVE, arguments, null);
+        } else if ("SCROLL".equalsIgnoreCase(command)) {
+            return new EventProgram.Instruction(
+                    EventProgram.Instruction.SCROLL, new int[] {parseInt(
+                            fullCommand, input) }, null);
+        }
+        throw new IllegalArgumentException("Command " + command);
+    }
+
+    /**
+     * Parses a numeric input.
+     * 
+     * @param fullCommand
+     *            the command, for the error message
+     * @param input
+     *            the input
+     * @return the number
+     */
+    private static int parseInt(final String fullCommand, final String input) {
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Command " + fullCommand
+                    + " has an invalid number " + input, e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.input;
+
+import java.awt.Dimension;
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+
+import com.virtusa.isq.rft.utils.LayeredConfiguration;
+
+/**
+ * Plays {@link EventProgram}s through the {@link InputDriver}. A program is
+ * turned into one {@link InputSequence} with the current timing settings and
+ * screen size, and played in one call.
+ */
+public final class EventExecutor {
+
+    /** The setting of the extra time before each key event. */
+    public static final String KEY_EVENT_INTERVAL = "KEY_EVENT_INTERVAL";
+
+    /**
+     * The default extra time before each key event in milliseconds. The key
+     * events already wait for the previous events to be processed.
+     */
+    public static final int DEFAULT_KEY_EVENT_INTERVAL = 0;
+
+    /** The setting of the time around each mouse event. */
+    public static final String MOUSE_EVENT_INTERVAL = "MOUSE_EVENT_INTERVAL";
+
+    /** The default time around each mouse event in milliseconds. */
+    public static final int DEFAULT_MOUSE_EVENT_INTERVAL = 1000;
+
+    /** The setting of the time given to the copy to reach the clipboard. */
+    public static final String CLIPBOARD_WAIT = "CLIPBOARD_WAIT";
+
+    /** The default time given to the clipboard in milliseconds. */
+    public static final int DEFAULT_CLIPBOARD_WAIT = 1000;
+
+    /** The setting of the time between a key press and its release. */
+    public static final String KEY_COMBINATION_DELAY = "KEY_COMBINATION_DELAY";
+
+    /** The default time between a key press and release in milliseconds. */
+    public static final int DEFAULT_KEY_COMBINATION_DELAY = 10;
+
+    /** The input driver. */
+    private final InputDriver driver;
+
+    /**
+     * Instantiates a new event executor.
+     * 
+     * @param inputDriver
+     *            the input driver
+     */
+    public EventExecutor(final InputDriver inputDriver) {
+        this.driver = inputDriver;
+    }
+
+    /**
+     * Plays a program.
+     * 
+     * @param program
+     *            the program
+     * @return the text copied to the clipboard for VERIFY, or null
+     */
+    public String execute(final EventProgram program) {
+        switch (program.getType()) {
+        case KEY:
+            driver.play(toKeySequence(program));
+            return null;
+        case MOUSE:
+            driver.play(toMouseSequence(program));
+            return null;
+        default:
+            driver.play(new InputSequence().type(KeyEvent.VK_CONTROL,
+                    KeyEvent.VK_C).delay(
+                    LayeredConfiguration.getInt(CLIPBOARD_WAIT,
+                            DEFAULT_CLIPBOARD_WAIT)));
+            return readClipboard();
+        }
+    }
+
+    /**
+     * Builds the input sequence of a KEY program. Each command waits for the
+     * events of the previous one to be processed.
+     * 
+     * @param program
+     *            the program
+     * @return the input sequence
+     */
+    private InputSequence toKeySequence(final EventProgram program) {
+        InputSequence sequence = new InputSequence();
+        int keyEventInterval =
+                LayeredConfiguration.getInt(KEY_EVENT_INTERVAL,
+                        DEFAULT_KEY_EVENT_INTERVAL);
+        for (EventProgram.Instruction instruction : program.getInstructions()) {
+            sequence.waitForIdle().delay(keyEventInterval);
+            switch (instruction.getOperation()) {
+            case EventProgram.Instruction.PASTE:
+                sequence.paste(instruction.getText());
+                break;
+            case EventProgram.Instruction.KEY:
+                instruction.typeKeys(sequence);
+                break;
+            default:
+                sequence.delay(instruction.getArgument(0));
+                break;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Builds the input sequence of a MOUSE program. The mouse is moved in
+     * full screen mode, toggled with F11 around the move.
+     * 
+     * @param program
+     *            the program
+     * @return the input sequence
+     */
+    private InputSequence toMouseSequence(final EventProgram program) {
+        InputSequence sequence = new InputSequence();
+        int combinationDelay =
+                LayeredConfiguration.getInt(KEY_COMBINATION_DELAY,
+                        DEFAULT_KEY_COMBINATION_DELAY);
+        int mouseEventInterval =
+                LayeredConfiguration.getInt(MOUSE_EVENT_INTERVAL,
+                        DEFAULT_MOUSE_EVENT_INTERVAL);
+        Dimension screen = null;
+        for (EventProgram.Instruction instruction : program.getInstructions()) {
+            sequence.delay(mouseEventInterval);
+            switch (instruction.getOperation()) {
+            case EventProgram.Instruction.MOVE:
+                if (screen == null) {
+                    screen = Toolkit.getDefaultToolkit().getScreenSize();
+                }
+                int x =
+                        (int) ((double) instruction.getArgument(2)
+                                / instruction.getArgument(0) * screen.width);
+                int y =
+                        (int) ((double) instruction.getArgument(3)
+                                / instruction.getArgument(1) * screen.height);
+                sequence.press(KeyEvent.VK_F11).delay(combinationDelay)
+                        .release(KeyEvent.VK_F11).waitForIdle()
+                        .delay(mouseEventInterval).mouseMove(x, y)
+                        .press(KeyEvent.VK_F11).delay(combinationDelay)
+                        .release(KeyEvent.VK_F11);
+                break;
+            case EventProgram.Instruction.SCROLL:
+                sequence.mouseWheel(instruction.getArgument(0));
+                break;
+            default:
+                sequence.delay(instruction.getArgument(0));
+                break;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Reads the text of the system clipboard.
+     * 
+     * @return the text, or an empty string if the clipboard holds no text
+     */
+    private static String readClipboard() {
+        Transferable trans =
+                Toolkit.getDefaultToolkit().getSystemClipboard()
+                        .getContents(null);
+        try {
+            if (trans != null) {
+                return (String) trans.getTransferData(DataFlavor.stringFlavor);
+            }
+        } catch (UnsupportedFlavorException e) {
+            e.printStackTrace();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return "";
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.input;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The compiled, immutable form of a <code>fireEvent</code> event string, such
+ * as <code>KEY%type=abc|Key=\t|wait=500</code>. The string is parsed and
+ * checked once by the {@link EventCompiler}; the {@link EventExecutor} then
+ * plays the instructions without parsing anything.
+ */
+public final class EventProgram {
+
+    /**
+     * The type of the event string, given by its prefix.
+     */
+    public enum Type {
+        /** KEY% : key events. */
+        KEY,
+        /** MOUSE% : mouse events. */
+        MOUSE,
+        /** VERIFY% : copies the selected text and compares it. */
+        VERIFY
+    }
+
+    /**
+     * One instruction of a program.
+     */
+    public static final class Instruction {
+
+        /** Pastes the text through the clipboard (type=). */
+        public static final int PASTE = 1;
+
+        /** Types the key combination of the key codes (Key=). */
+        public static final int KEY = 2;
+
+        /** Waits for the time of the first argument (wait=). */
+        public static final int WAIT = 3;
+
+        /**
+         * Moves the mouse to the x, y position of the recorded screen width
+         * and height, the four arguments (MOVE=).
+         */
+        public static final int MOVE = 4;
+
+        /** Rotates the mouse wheel by the first argument (SCROLL=). */
+        public static final int SCROLL = 5;
+
+        /** The operation. */
+        private final int operation;
+
+        /** The numeric arguments, or the key codes. */
+        private final int[] arguments;
+
+        /** The text of PASTE, or null. */
+        private final String text;
+
+        /**
+         * Instantiates a new instruction.
+         * 
+         * @param instructionOperation
+         *            the operation
+         * @param instructionArguments
+         *            the numeric arguments, owned by the instruction
+         * @param instructionText
+         *            the text, or null
+         */
+        Instruction(final int instructionOperation,
+                final int[] instructionArguments, final String instructionText) {
+            this.operation = instructionOperation;
+            this.arguments = instructionArguments;
+            this.text = instructionText;
+        }
+
+        /**
+         * Gets the operation.
+         * 
+         * @return the operation
+         */
+        public int getOperation() {
+            return operation;
+        }
+
+        /**
+         * Gets a numeric argument.
+         * 
+         * @param index
+         *            the index of the argument
+         * @return the argument
+         */
+        public int getArgument(final int index) {
+            return arguments[index];
+        }
+
+        /**
+         * Gets a copy of the numeric arguments, or the key codes of KEY.
+         * 
+         * @return the arguments
+         */
+        public int[] getArguments() {
+            return arguments.clone();
+        }
+
+        /**
+         * Gets the text of PASTE.
+         * 
+         * @return the text, or null
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Appends the key codes of KEY to an input sequence without copying
+         * them.
+         * 
+         * @param sequence
+         *            the input sequence
+         */
+        void typeKeys(final InputSequence sequence) {
+            sequence.type(arguments);
+        }
+    }
+
+    /** The type. */
+    private final Type type;
+
+    /** The instructions of KEY and MOUSE. */
+    private final List<Instruction> instructions;
+
+    /** The expected value of VERIFY, or null. */
+    private final String value;
+
+    /**
+     * Instantiates a new event program.
+     * 
+     * @param programType
+     *            the type
+     * @param programInstructions
+     *            the instructions, owned by the program
+     * @param verifyValue
+     *            the expected value of VERIFY, or null
+     */
+    EventProgram(final Type programType,
+            final List<Instruction> programInstructions,
+            final String verifyValue) {
+        this.type = programType;
+        this.instructions = Collections.unmodifiableList(programInstructions);
+        this.value = verifyValue;
+    }
+
+    /**
+     * Gets the type.
+     * 
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the instructions.
+     * 
+     * @return the unmodifiable instructions, empty for VERIFY
+     */
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Gets the expected value of VERIFY.
+     * 
+     * @return the value, or null for KEY and MOUSE
+     */
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.input;
+
+import java.awt.AWTException;
+import java.awt.Robot;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+
+import com.virtusa.isq.rft.utils.LayeredConfiguration;
+
+/**
+ * The native input driver shared by all the commands. It owns the one
+ * {@link Robot} of the JVM and plays back whole {@link InputSequence}s, one
+ * sequence at a time, so the events of two commands never interleave.<br>
+ * <br>
+ * The Robot waits INPUT_AUTO_DELAY milliseconds (0 by default) after every
+ * event it generates. The sequences use {@link InputSequence#waitForIdle()}
+ * where the events have to be processed before the next ones, instead of
+ * fixed sleeps.
+ */
+public final class InputDriver {
+
+    /** The setting of the time the Robot waits after every event. */
+    public static final String AUTO_DELAY = "INPUT_AUTO_DELAY";
+
+    /** The longest delay the Robot accepts in one call, in milliseconds. */
+    private static final int MAX_ROBOT_DELAY = 60000;
+
+    /** The shared driver. */
+    private static InputDriver instance;
+
+    /** The robot. */
+    private final Robot robot;
+
+    /**
+     * Instantiates a new input driver.
+     * 
+     * @param inputRobot
+     *            the robot
+     */
+    private InputDriver(final Robot inputRobot) {
+        this.robot = inputRobot;
+    }
+
+    /**
+     * Gets the shared driver, creating its Robot on the first call.
+     * 
+     * @return the input driver
+     * @throws AWTException
+     *             if the platform does not allow native input, such as in a
+     *             headless environment
+     */
+    public static synchronized InputDriver getInstance() throws AWTException {
+        if (instance == null) {
+            instance = new InputDriver(new Robot());
+        }
+        return instance;
+    }
+
+    /**
+     * Plays back a sequence, then waits until its events have been
+     * processed.
+     * 
+     * @param sequence
+     *            the sequence
+     */
+    public synchronized void play(final InputSequence sequence) {
+        robot.setAutoDelay(Math.max(0, Math.min(MAX_ROBOT_DELAY,
+                LayeredConfiguration.getInt(AUTO_DELAY, 0))));
+        int[] events = sequence.getEvents();
+        int i = 0;
+        while (i < events.length) {
+            switch (events[i]) {
+            case InputSequence.KEY_PRESS:
+                robot.keyPress(events[i + 1]);
+                i += 2;
+                break;
+            case InputSequence.KEY_RELEASE:
+                robot.keyRelease(events[i + 1]);
+                i += 2;
+                break;
+            case InputSequence.MOUSE_MOVE:
+                robot.mouseMove(events[i + 1], events[i + 2]);
+                i += 3;
+                break;
+            case InputSequence.MOUSE_PRESS:
+                robot.mousePress(events[i + 1]);
+                i += 2;
+                break;
+            case InputSequence.MOUSE_RELEASE:
+                robot.mouseRelease(events[i + 1]);
+                i += 2;
+                break;
+            case InputSequence.MOUSE_WHEEL:
+                robot.mouseWheel(events[i + 1]);
+                i += 2;
+                break;
+            case InputSequence.DELAY:
+                delay(events[i + 1]);
+                i += 2;
+                break;
+            case InputSequence.WAIT_FOR_IDLE:
+                robot.waitForIdle();
+                i++;
+                break;
+            case InputSequence.CLIPBOARD:
+                Toolkit.getDefaultToolkit().getSystemClipboard().setContents(
+                        new StringSelection(sequence.getText(events[i + 1])),
+                        null);
+                i += 2;
+                break;
+            default:
+                throw new IllegalStateException("Unknown input event "
+                        + events[i]);
+            }
+        }
+        robot.waitForIdle();
+    }
+
+    /**
+     * Waits for the given time, in steps the Robot accepts.
+     * 
+     * @param milliseconds
+     *            the time to wait
+     */
+    private void delay(final int milliseconds) {
+        int remaining = milliseconds;
+        while (remaining > 0) {
+            int step = Math.min(remaining, MAX_ROBOT_DELAY);
+            robot.delay(step);
+            remaining -= step;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.input;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A sequence of native key and mouse events, played back by the
+ * {@link InputDriver} in one call. The events are appended in order; each
+ * event is an operation code followed by its arguments in a flat int array,
+ * so a long sequence of keystrokes costs no object per event.
+ */
+public class InputSequence {
+
+    /** Presses a key: the key code. */
+    static final int KEY_PRESS = 1;
+
+    /** Releases a key: the key code. */
+    static final int KEY_RELEASE = 2;
+
+    /** Moves the mouse: the x and y screen coordinates. */
+    static final int MOUSE_MOVE = 3;
+
+    /** Presses mouse buttons: the button mask. */
+    static final int MOUSE_PRESS = 4;
+
+    /** Releases mouse buttons: the button mask. */
+    static final int MOUSE_RELEASE = 5;
+
+    /** Rotates the mouse wheel: the number of notches. */
+    static final int MOUSE_WHEEL = 6;
+
+    /** Waits: the time in milliseconds. */
+    static final int DELAY = 7;
+
+    /** Waits until the events sent so far have been processed. */
+    static final int WAIT_FOR_IDLE = 8;
+
+    /** Puts a text on the system clipboard: the index of the text. */
+    static final int CLIPBOARD = 9;
+
+    /** The initial capacity of the event array. */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** The operation codes and their arguments. */
+    private int[] events = new int[INITIAL_CAPACITY];
+
+    /** The number of used slots of the event array. */
+    private int size;
+
+    /** The texts of the clipboard events. */
+    private final List<String> texts = new ArrayList<String>();
+
+    /**
+     * Presses a key.
+     * 
+     * @param keyCode
+     *            the key code, such as KeyEvent.VK_A
+     * @return this sequence
+     */
+    public final InputSequence press(final int keyCode) {
+        return add(KEY_PRESS, keyCode);
+    }
+
+    /**
+     * Releases a key.
+     * 
+     * @param keyCode
+     *            the key code
+     * @return this sequence
+     */
+    public final InputSequence release(final int keyCode) {
+        return add(KEY_RELEASE, keyCode);
+    }
+
+    /**
+     * Types a key combination: presses the keys in order and releases them in
+     * the reverse order, such as ctrl, o, then o and ctrl.
+     * 
+     * @param keyCodes
+     *            the key codes of the combination
+     * @return this sequence
+     */
+    public final InputSequence type(final int... keyCodes) {
+        for (int keyCode : keyCodes) {
+            press(keyCode);
+        }
+        for (int i = keyCodes.length - 1; i >= 0; i--) {
+            release(keyCodes[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Pastes a text through the system clipboard with ctrl+V.
+     * 
+     * @param text
+     *            the text
+     * @return this sequence
+     */
+    public final InputSequence paste(final String text) {
+        texts.add(text);
+        add(CLIPBOARD, texts.size() - 1);
+        return type(KeyEvent.VK_CONTROL, KeyEvent.VK_V);
+    }
+
+    /**
+     * Moves the mouse.
+     * 
+     * @param x
+     *            the x screen coordinate
+     * @param y
+     *            the y screen coordinate
+     * @return this sequence
+     */
+    public final InputSequence mouseMove(final int x, final int y) {
+        ensureCapacity(3);
+        events[size++] = MOUSE_MOVE;
+        events[size++] = x;
+        events[size++] = y;
+        return this;
+    }
+
+    /**
+     * Presses mouse buttons.
+     * 
+     * @param buttons
+     *            the button mask, such as InputEvent.BUTTON1_MASK
+     * @return this sequence
+     */
+    public final InputSequence mousePress(final int buttons) {
+        return add(MOUSE_PRESS, buttons);
+    }
+
+    /**
+     * Releases mouse buttons.
+     * 
+     * @param buttons
+     *            the button mask
+     * @return this sequence
+     */
+    public final InputSequence mouseRelease(final int buttons) {
+        return add(MOUSE_RELEASE, buttons);
+    }
+
+    /**
+     * Rotates the mouse wheel.
+     * 
+     * @param notches
+     *            the number of notches, negative to scroll up
+     * @return this sequence
+     */
+    public final InputSequence mouseWheel(final int notches) {
+        return add(MOUSE_WHEEL, notches);
+    }
+
+    /**
+     * Waits between two events.
+     * 
+     * @param milliseconds
+     *            the time to wait
+     * @return this sequence
+     */
+    public final InputSequence delay(final int milliseconds) {
+        if (milliseconds > 0) {
+            add(DELAY, milliseconds);
+        }
+        return this;
+    }
+
+    /**
+     * Waits until the events sent so far have been processed, instead of a
+     * fixed delay.
+     * 
+     * @return this sequence
+     */
+    public final InputSequence waitForIdle() {
+        ensureCapacity(1);
+        events[size++] = WAIT_FOR_IDLE;
+        return this;
+    }
+
+    /**
+     * Checks whether the sequence has no event.
+     * 
+     * @return true, if the sequence is empty
+     */
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the operation codes and arguments of the events.
+     * 
+     * @return a copy of the used part of the event array
+     */
+    final int[] getEvents() {
+        return Arrays.copyOf(events, size);
+    }
+
+    /**
+     * Gets the text of a clipboard event.
+     * 
+     * @param index
+     *            the index of the text
+     * @return the text
+     */
+    final String getText(final int index) {
+        return texts.get(index);
+    }
+
+    /**
+     * Appends an event with one argument.
+     * 
+     * @param operation
+     *            the operation code
+     * @param argument
+     *            the argument
+     * @return this sequence
+     */
+    private InputSequence add(final int operation, final int argument) {
+        ensureCapacity(2);
+        events[size++] = operation;
+        events[size++] = argument;
+        return this;
+    }
+
+    /**
+     * Grows the event array to hold the given number of more slots.
+     * 
+     * @param slots
+     *            the number of slots to add
+     */
+    private void ensureCapacity(final int slots) {
+        if (size + slots > events.length) {
+            events = Arrays.copyOf(events, Math.max(events.length * 2,
+                    size + slots));
+        }
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.virtusa.isq.rft.utils.PropertyHandler;
+
+/**
+ * Latency metrics of the commands. The time of each stage of a command is
+ * recorded in a {@link LatencyHistogram} per command, logical object and
+ * phase, and exported as CSV and JSON at the end of the test. The metrics are
+ * collected unless the runtime property METRICS is false; METRICS_DIR sets the
+ * export directory, Metrics by default.
+ */
+public final class CommandMetrics {
+
+    /**
+     * The Enum Phase.
+     */
+    public static enum Phase {
+
+        /** The object map resolution. */
+        RESOLVE,
+        /** One find attempt. */
+        FIND,
+        /** The waits between the find attempts. */
+        WAIT,
+        /** One attempt of the action. */
+        ACT,
+        /** The reporting of a result. */
+        REPORT
+    };
+
+    /** The default export directory. */
+    public static final String DEFAULT_METRICS_DIR = "Metrics";
+
+    /** The name of the exported files. */
+    private static final String FILE_NAME = "command-metrics";
+
+    /** The command name used outside of any command. */
+    private static final String NO_COMMAND = "other";
+
+    /** The number of slowest entries listed in the summary. */
+    private static final int SUMMARY_SIZE = 10;
+
+    /** The percentiles exported. */
+    private static final double[] PERCENTILES = {50, 90, 99 };
+
+    /** The instance. */
+    private static final CommandMetrics INSTANCE = new CommandMetrics();
+
+    /** The histograms by command, object and phase. */
+    private final Map<String, Entry> entries =
+            new LinkedHashMap<String, Entry>();
+
+    /** The command and object currently run by each thread. */
+    private final ThreadLocal<String[]> currentCommand =
+            new ThreadLocal<String[]>();
+
+    /** Whether the metrics are collected. */
+    private final boolean enabled;
+
+    /** The export directory. */
+    private final String metricsDir;
+
+    /**
+     * Instantiates the command metrics from the runtime properties.
+     */
+    private CommandMetrics() {
+        PropertyHandler propfile = new PropertyHandler("RUNTIME.properties");
+        enabled = !"false".equalsIgnoreCase(propfile
+                .getRuntimeProperty("METRICS"));
+        String dir = propfile.getRuntimeProperty("METRICS_DIR");
+        metricsDir =
+                dir == null || "".equals(dir.trim()) ? DEFAULT_METRICS_DIR
+                        : dir.trim();
+    }
+
+    /**
+     * Gets the command metrics.
+     * 
+     * @return the instance
+     */
+    public static CommandMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks if the metrics are collected.
+     * 
+     * @return true, if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the command the following measures of the current thread belong
+     * to.
+     * 
+     * @param command
+     *            the command name
+     * @param objectName
+     *            the logical object name, empty if the command has none
+     */
+    public void beginCommand(final String command, final String objectName) {
+        currentCommand.set(new String[] {command, objectName });
+    }
+
+    /**
+     * Ends the command of the current thread.
+     */
+    public void endCommand() {
+        currentCommand.remove();
+    }
+
+    /**
+     * Records the time of a phase of the current command.
+     * 
+     * @param phase
+     *            the phase
+     * @param startNanos
+     *            the start time of the phase from {@link System#nanoTime()}
+     */
+    public void record(final Phase phase, final long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        String[] command = currentCommand.get();
+        if (command == null) {
+            record(NO_COMMAND, "", phase, startNanos);
+        } else {
+            record(command[0], command[1], phase, startNanos);
+        }
+    }
+
+    /**
+     * Records the time of a phase of the given command.
+     * 
+     * @param command
+     *            the command name
+     * @param objectName
+     *            the logical object name
+     * @param phase
+     *            the phase
+     * @param startNanos
+     *            the start time of the phase from {@link System#nanoTime()}
+     */
+    public void record(final String command, final String objectName,
+            final Phase phase, final long startNanos) {
+        if (enabled) {
+            recordValue(command, objectName, phase, TimeUnit.NANOSECONDS
+                    .toMicros(System.nanoTime() - startNanos));
+        }
+    }
+
+    /**
+     * Records a measured time.
+     * 
+     * @param command
+     *            the command name
+     * @param objectName
+     *            the logical object name
+     * @param phase
+     *            the phase
+     * @param micros
+     *            the time in microseconds
+     */
+    public void recordValue(final String command, final String objectName,
+            final Phase phase, final long micros) {
+        if (!enabled) {
+            return;
+        }
+        String object = objectName == null ? "" : objectName;
+        String key = command + "|" + object;
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(command, object);
+                entries.put(key, entry);
+            }
+        }
+        entry.getHistogram(phase).record(micros);
+    }
+
+    /**
+     * Checks if nothing is recorded.
+     * 
+     * @return true, if empty
+     */
+    public boolean isEmpty() {
+        synchronized (entries) {
+            return entries.isEmpty();
+        }
+    }
+
+    /**
+     * Removes all the recorded values.
+     */
+    public void reset() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets a copy of the recorded entries.
+     * 
+     * @return the entries
+     */
+    private List<Entry> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<Entry>(entries.values());
+        }
+    }
+
+    /**
+     * Exports the metrics as CSV and JSON files to the export directory.
+     * 
+     * @return the export directory
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public File export() throws IOException {
+        File dir = new File(metricsDir);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create the metrics directory "
+                    + dir.getAbsolutePath());
+        }
+        List<Entry> snapshot = getEntries();
+        PrintWriter writer =
+                new PrintWriter(new OutputStreamWriter(new FileOutputStream(
+                        new File(dir, FILE_NAME + ".csv")), "UTF-8"));
+        try {
+            writeCsv(snapshot, writer);
+        } finally {
+            writer.close();
+        }
+        writer =
+                new PrintWriter(new OutputStreamWriter(new FileOutputStream(
+                        new File(dir, FILE_NAME + ".json")), "UTF-8"));
+        try {
+            writeJson(snapshot, writer);
+        } finally {
+            writer.close();
+        }
+        return dir;
+    }
+
+    /**
+     * Writes the metrics as CSV, one line per command, object and phase.
+     * 
+     * @param snapshot
+     *            the entries
+     * @param writer
+     *            the writer
+     */
+    private static void writeCsv(final List<Entry> snapshot,
+            final PrintWriter writer) {
+        writer.print("command,object,phase,count,total_ms,min_ms,mean_ms");
+        for (double percentile : PERCENTILES) {
+            writer.print(",p" + (int) percentile + "_ms");
+        }
+        writer.println(",max_ms");
+        for (Entry entry : snapshot) {
+            for (Map.Entry<Phase, LatencyHistogram> phase : entry
+                    .getHistograms().entrySet()) {
+                LatencyHistogram histogram = phase.getValue();
+                writer.print(quoteCsv(entry.command) + ","
+                        + quoteCsv(entry.objectName) + "," + phase.getKey()
+                        + "," + histogram.getCount() + ","
+                        + formatMillis(histogram.getTotal()) + ","
+                        + formatMillis(histogram.getMin()) + ","
+                        + formatMillis(histogram.getMean()));
+                for (double percentile : PERCENTILES) {
+                    writer.print(","
+                            + formatMillis(histogram
+                                    .getValueAtPercentile(percentile)));
+                }
+                writer.println("," + formatMillis(histogram.getMax()));
+            }
+        }
+    }
+
+    /**
+     * Writes the metrics as a JSON array, one object per command and object.
+     * 
+     * @param snapshot
+     *            the entries
+     * @param writer
+     *            the writer
+     */
+    private static void writeJson(final List<Entry> snapshot,
+            final PrintWriter writer) {
+        writer.println("[");
+        for (int i = 0; i < snapshot.size(); i++) {
+            Entry entry = snapshot.get(i);
+            writer.print("  {\"command\": " + quoteJson(entry.command)
+                    + ", \"object\": " + quoteJson(entry.objectName)
+                    + ", \"phases\": {");
+            boolean first = true;
+            for (Map.Entry<Phase, LatencyHistogram> phase : entry
+                    .getHistograms().entrySet()) {
+                LatencyHistogram histogram = phase.getValue();
+                writer.print((first ? "" : ", ") + "\"" + phase.getKey()
+                        + "\": {\"count\": " + histogram.getCount()
+                        + ", \"totalMs\": " + formatMillis(histogram.getTotal())
+                        + ", \"minMs\": " + formatMillis(histogram.getMin())
+                        + ", \"meanMs\": " + formatMillis(histogram.getMean()));
+                for (double percentile : PERCENTILES) {
+                    writer.print(", \"p"
+                            + (int) percentile
+                            + "Ms\": "
+                            + formatMillis(histogram
+                                    .getValueAtPercentile(percentile)));
+                }
+                writer.print(", \"maxMs\": " + formatMillis(histogram.getMax())
+                        + "}");
+                first = false;
+            }
+            writer.println("}}" + (i < snapshot.size() - 1 ? "," : ""));
+        }
+        writer.println("]");
+    }
+
+    /**
+     * Gets a summary of the metrics for the test report: the total time of
+     * each phase and the commands with the highest total time.
+     * 
+     * @return the summary
+     */
+    public String getSummary() {
+        List<Entry> snapshot = getEntries();
+        Map<Phase, Long> phaseTotals = new EnumMap<Phase, Long>(Phase.class);
+        for (Entry entry : snapshot) {
+            for (Map.Entry<Phase, LatencyHistogram> phase : entry
+                    .getHistograms().entrySet()) {
+                Long total = phaseTotals.get(phase.getKey());
+                phaseTotals.put(phase.getKey(), (total == null ? 0 : total)
+                        + phase.getValue().getTotal());
+            }
+        }
+        StringBuilder summary = new StringBuilder("Total time :");
+        for (Map.Entry<Phase, Long> total : phaseTotals.entrySet()) {
+            summary.append(' ').append(total.getKey()).append(' ')
+                    .append(formatMillis(total.getValue())).append(" ms");
+        }
+        Collections.sort(snapshot, new Comparator<Entry>() {
+            @Override
+            public int compare(final Entry first, final Entry second) {
+                long difference = second.getTotal() - first.getTotal();
+                return difference > 0 ? 1 : (difference < 0 ? -1 : 0);
+            }
+        });
+        summary.append(" ::: Slowest :");
+        for (int i = 0; i < Math.min(SUMMARY_SIZE, snapshot.size()); i++) {
+            Entry entry = snapshot.get(i);
+            summary.append(' ').append(entry.command);
+            if (!"".equals(entry.objectName)) {
+                summary.append('(').append(entry.objectName).append(')');
+            }
+            summary.append(' ').append(formatMillis(entry.getTotal()))
+                    .append(" ms");
+            LatencyHistogram find = entry.getHistograms().get(Phase.FIND);
+            if (find != null) {
+                summary.append(" [find p90 ")
+                        .append(formatMillis(find.getValueAtPercentile(90)))
+                        .append(" ms]");
+            }
+            summary.append(i < Math.min(SUMMARY_SIZE, snapshot.size()) - 1 ? ","
+                    : "");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Formats a value in microseconds as milliseconds.
+     * 
+     * @param micros
+     *            the value in microseconds
+     * @return the formatted value
+     */
+    private static String formatMillis(final double micros) {
+        return String.format(Locale.US, "%.3f",
+                LatencyHistogram.toMillis(micros));
+    }
+
+    /**
+     * Quotes a CSV field if needed.
+     * 
+     * @param value
+     *            the value
+     * @return the field
+     */
+    private static String quoteCsv(final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Quotes a JSON string.
+     * 
+     * @param value
+     *            the value
+     * @return the JSON string
+     */
+    private static String quoteJson(final String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < ' ') {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * The histograms of one command and object.
+     */
+    private static final class Entry {
+
+        /** The command name. */
+        private final String command;
+
+        /** The logical object name. */
+        private final String objectName;
+
+        /** The histograms by phase. */
+        private final Map<Phase, LatencyHistogram> histograms =
+                new EnumMap<Phase, LatencyHistogram>(Phase.class);
+
+        /**
+         * Instantiates a new entry.
+         * 
+         * @param entryCommand
+         *            the command name
+         * @param entryObjectName
+         *            the logical object name
+         */
+        private Entry(final String entryCommand, final String entryObjectName) {
+            this.command = entryCommand;
+            this.objectName = entryObjectName;
+        }
+
+        /**
+         * Gets the histogram of the given phase, creating it on first use.
+         * 
+         * @param phase
+         *            the phase
+         * @return the histogram
+         */
+        private synchronized LatencyHistogram getHistogram(final Phase phase) {
+            LatencyHistogram histogram = histograms.get(phase);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                histograms.put(phase, histogram);
+            }
+            return histogram;
+        }
+
+        /**
+         * Gets a copy of the histograms.
+         * 
+         * @return the histograms by phase
+         */
+        private synchronized Map<Phase, LatencyHistogram> getHistograms() {
+            return new EnumMap<Phase, LatencyHistogram>(histograms);
+        }
+
+        /**
+         * Gets the total time of all the phases.
+         * 
+         * @return the total in microseconds
+         */
+        private long getTotal() {
+            long total = 0;
+            for (LatencyHistogram histogram : getHistograms().values()) {
+                total += histogram.getTotal();
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.metrics;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram. The values below
+ * 64 microseconds have a bucket each; above that every power of two range is
+ * split into 32 buckets, so a recorded value is known within about 3% while
+ * the histogram keeps a fixed size whatever the number of samples.
+ */
+public class LatencyHistogram {
+
+    /** The number of bits resolved exactly. */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /** The number of exact buckets. */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** The number of buckets of each power of two range. */
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    /** The bit length of the highest trackable value, about 12 days. */
+    private static final int MAX_BITS = 40;
+
+    /** The highest trackable value in microseconds. */
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+    /** The number of microseconds of a millisecond. */
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    /** The bucket counts. */
+    private final long[] counts = new long[SUB_BUCKET_COUNT
+            + (MAX_BITS - SUB_BUCKET_BITS) * SUB_BUCKET_HALF];
+
+    /** The number of recorded values. */
+    private long totalCount;
+
+    /** The sum of the recorded values in microseconds. */
+    private long totalValue;
+
+    /** The lowest recorded value in microseconds. */
+    private long minValue = Long.MAX_VALUE;
+
+    /** The highest recorded value in microseconds. */
+    private long maxValue;
+
+    /**
+     * Records a value.
+     * 
+     * @param micros
+     *            the value in microseconds
+     */
+    public final synchronized void record(final long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+        counts[getIndex(value)]++;
+        totalCount++;
+        totalValue += value;
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * Gets the bucket of the given value.
+     * 
+     * @param value
+     *            the value
+     * @return the bucket index
+     */
+    private static int getIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_HALF;
+        return SUB_BUCKET_COUNT + (highestBit - SUB_BUCKET_BITS)
+                * SUB_BUCKET_HALF + subBucket;
+    }
+
+    /**
+     * Gets the highest value counted in the given bucket.
+     * 
+     * @param index
+     *            the bucket index
+     * @return the highest value of the bucket
+     */
+    private static long getHighestValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF + 1;
+        long subBucket = SUB_BUCKET_HALF + offset % SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Gets the value at the given percentile.
+     * 
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the value in microseconds, 0 if nothing is recorded
+     */
+    public final synchronized long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target =
+                Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(Math.max(getHighestValue(i), minValue),
+                        maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     * 
+     * @return the count
+     */
+    public final synchronized long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the sum of the recorded values.
+     * 
+     * @return the total in microseconds
+     */
+    public final synchronized long getTotal() {
+        return totalValue;
+    }
+
+    /**
+     * Gets the lowest recorded value.
+     * 
+     * @return the minimum in microseconds, 0 if nothing is recorded
+     */
+    public final synchronized long getMin() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    /**
+     * Gets the highest recorded value.
+     * 
+     * @return the maximum in microseconds
+     */
+    public final synchronized long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     * 
+     * @return the mean in microseconds, 0 if nothing is recorded
+     */
+    public final synchronized double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * Converts a value in microseconds to milliseconds.
+     * 
+     * @param micros
+     *            the value in microseconds
+     * @return the value in milliseconds
+     */
+    public static double toMillis(final double micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.objectmap;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.rational.test.ft.script.Property;
+
+/**
+ * Base class of the object maps. Resolves the logical object names of the form
+ * <code>page.object</code> through the compiled locators supplied by the
+ * concrete object map.
+ */
+public abstract class AbstractObjectMap implements IGetObjectMap {
+
+    /** The directory holding the page object map files. */
+    public static final String PAGES_DIRECTORY = "Pages";
+
+    /** The page file extension. */
+    public static final String PAGE_FILE_EXTENSION = ".properties";
+
+    /** The maximum depth of the parent locators of an object. */
+    private static final int MAX_PARENT_DEPTH = 8;
+
+    /** The properties of the objects that cannot be found in the object map. */
+    private static final Property[] NO_PROPERTIES = new Property[0];
+
+    /**
+     * Override ObjectLocator.
+     * 
+     * @param unresolvedObject
+     *            the unresolved object
+     * @param identifier
+     *            the identifier
+     * @return the resolved object search path
+     * @see com.virtusa.isq.rft.objectmap.IGetObjectMap#getResolvedObjectSearchPath(java.lang.String,
+     *      java.lang.String)
+     */
+    @Override
+    public final ObjectLocator getResolvedObjectSearchPath(
+            final String unresolvedObject, final String identifier) {
+
+        return resolve(unresolvedObject, identifier, 0);
+    }
+
+    /**
+     * Resolves the given object and its parents. A parent name without a page
+     * refers to an object of the same page. An object missing from the object
+     * map resolves to a locator without properties, which finds no element.
+     * 
+     * @param unresolvedObject
+     *            the unresolved object
+     * @param identifier
+     *            the identifier
+     * @param depth
+     *            the number of parents resolved so far
+     * @return the resolved object search path
+     */
+    private ObjectLocator resolve(final String unresolvedObject,
+            final String identifier, final int depth) {
+
+        ObjectLocator locator = new ObjectLocator(unresolvedObject, identifier);
+        LocatorTemplate template = getLocatorTemplate(unresolvedObject);
+        if (template == null) {
+            System.err.println("Cannot find the object " + unresolvedObject
+                    + " in the object map");
+            locator.setSharedPropertyArray(NO_PROPERTIES);
+            return locator;
+        }
+        locator.setSharedPropertyArray(template.resolve(identifier));
+        locator.setSettings(getSettings(unresolvedObject, template));
+
+        String parentName = template.getParentName();
+        if (parentName != null) {
+            if (depth >= MAX_PARENT_DEPTH) {
+                throw new IllegalArgumentException("Too many parent objects "
+                        + "for " + unresolvedObject
+                        + ". Check the object map for a parent cycle.");
+            }
+            if (parentName.indexOf('.') < 0) {
+                parentName =
+                        unresolvedObject.substring(0,
+                                unresolvedObject.indexOf('.') + 1)
+                                + parentName;
+            }
+            locator.setParentLocator(resolve(parentName, identifier, depth + 1));
+        }
+        return locator;
+    }
+
+    /**
+     * Gets the settings overridden for the given object: the settings of its
+     * page, overridden in turn by the settings of the object.
+     * 
+     * @param objectName
+     *            the object name in the form page.object
+     * @param template
+     *            the compiled locator of the object
+     * @return the unmodifiable settings
+     */
+    private Map<String, String> getSettings(final String objectName,
+            final LocatorTemplate template) {
+        LocatorTemplate pageTemplate =
+                getLocatorTemplate(objectName.substring(0,
+                        objectName.indexOf('.')),
+                        LocatorTemplate.PAGE_SETTINGS);
+        if (pageTemplate == null || pageTemplate.getSettings().isEmpty()) {
+            return template.getSettings();
+        } else if (template.getSettings().isEmpty()) {
+            return pageTemplate.getSettings();
+        }
+        Map<String, String> settings =
+                new HashMap<String, String>(pageTemplate.getSettings());
+        settings.putAll(template.getSettings());
+        return Collections.unmodifiableMap(settings);
+    }
+
+    /**
+     * Gets the compiled locator of the given object.
+     * 
+     * @param objectName
+     *            the object name in the form page.object
+     * @return the compiled locator, or null if the object cannot be found
+     */
+    private LocatorTemplate getLocatorTemplate(final String objectName) {
+        LocatorTemplate template = null;
+        try {
+            String[] objectDataArr = objectName.split("\\.");
+            String page = objectDataArr[0];
+            String object = objectDataArr[1];
+
+            template = getLocatorTemplate(page, object);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return template;
+    }
+
+    /**
+     * Gets the compiled locator of the given object of the given page.
+     * 
+     * @param page
+     *            the page name
+     * @param object
+     *            the object name
+     * @return the compiled locator, or null if the object cannot be found
+     */
+    abstract LocatorTemplate getLocatorTemplate(String page, String object);
+
+    /**
+     * Gets the page file of the given page.
+     * 
+     * @param page
+     *            the page name
+     * @return the page file
+     */
+    static File getPageFile(final String page) {
+        return new File(PAGES_DIRECTORY + File.separator + page
+                + PAGE_FILE_EXTENSION);
+    }
+
+    /**
+     * Gets the page name of the given page file name.
+     * 
+     * @param fileName
+     *            the page file name
+     * @return the page name, or null if the file is not a page file
+     */
+    static String getPageName(final String fileName) {
+        if (fileName.endsWith(PAGE_FILE_EXTENSION)) {
+            return fileName.substring(0, fileName.length()
+                    - PAGE_FILE_EXTENSION.length());
+        }
+        return null;
+    }
+
+    /**
+     * Parses the given page file and compiles its locators.
+     * 
+     * @param pageFile
+     *            the page file
+     * @return the compiled locators of the page, or null if the file cannot be
+     *         read
+     */
+    static Map<String, LocatorTemplate> loadPage(final File pageFile) {
+        FileInputStream pageFileStream = null;
+        try {
+            pageFileStream = new FileInputStream(pageFile);
+            Properties propPage = new Properties();
+            propPage.load(pageFileStream);
+
+            Map<String, LocatorTemplate> objects =
+                    new HashMap<String, LocatorTemplate>(propPage.size() * 2);
+            for (String object : propPage.stringPropertyNames()) {
+                objects.put(object,
+                        LocatorTemplate.compile(propPage.getProperty(object)));
+            }
+            return Collections.unmodifiableMap(objects);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (pageFileStream != null) {
+                try {
+                    pageFileStream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.objectmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Object map backed by the repository file written by
+ * {@link ObjectMapCompiler}. The file is memory mapped and the
+ * <code>page.object</code> keys are resolved with a binary search over its
+ * sorted index. A locator string is only decoded and compiled the first time
+ * its object is used.
+ */
+public class CompiledObjectMap extends AbstractObjectMap {
+
+    /** The default repository file. */
+    public static final String DEFAULT_REPOSITORY_FILE = "Pages.bin";
+
+    /** The unsigned byte mask. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** The mapped repository file. */
+    private final ByteBuffer repository;
+
+    /** The number of objects in the repository. */
+    private final int entryCount;
+
+    /** The marker of the keys found missing from the repository. */
+    private static final LocatorTemplate MISSING = LocatorTemplate.compile("");
+
+    /** The locators compiled so far, and the missing keys, by key. */
+    private final ConcurrentMap<String, LocatorTemplate> templates =
+            new ConcurrentHashMap<String, LocatorTemplate>();
+
+    /**
+     * Instantiates a new compiled object map.
+     * 
+     * @param repositoryFile
+     *            the repository file
+     * @throws IOException
+     *             if the file cannot be mapped or is not a repository file
+     */
+    public CompiledObjectMap(final File repositoryFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(repositoryFile, "r");
+        MappedByteBuffer mapped;
+        try {
+            FileChannel channel = file.getChannel();
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        } finally {
+            file.close();
+        }
+        if (mapped.capacity() < ObjectMapCompiler.HEADER_SIZE
+                || mapped.getInt(0) != ObjectMapCompiler.MAGIC) {
+            throw new IOException(repositoryFile.getPath()
+                    + " is not an object map repository file");
+        }
+        if (mapped.getInt(4) != ObjectMapCompiler.VERSION) {
+            throw new IOException("Unsupported object map repository version "
+                    + mapped.getInt(4) + " in " + repositoryFile.getPath());
+        }
+        this.entryCount = mapped.getInt(8);
+        this.repository = mapped;
+    }
+
+    /**
+     * Gets the compiled locator of the given object of the given page.
+     * 
+     * @param page
+     *            the page name
+     * @param object
+     *            the object name
+     * @return the compiled locator, or null if the object cannot be found
+     */
+    @Override
+    final LocatorTemplate getLocatorTemplate(final String page,
+            final String object) {
+        String key = page + "." + object;
+        LocatorTemplate template = templates.get(key);
+        if (template == null) {
+            String locatorString = findLocatorString(key);
+            if (locatorString == null) {
+                template = MISSING;
+            } else {
+                template = LocatorTemplate.compile(locatorString);
+            }
+            templates.putIfAbsent(key, template);
+        }
+        return template == MISSING ? null : template;
+    }
+
+    /**
+     * Finds the locator string of the given key with a binary search over
+     * the index.
+     * 
+     * @param key
+     *            the page.object key
+     * @return the locator string, or null if the key cannot be found
+     */
+    private String findLocatorString(final String key) {
+        byte[] keyBytes = key.getBytes(ObjectMapCompiler.UTF_8);
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry =
+                    ObjectMapCompiler.HEADER_SIZE + mid
+                            * ObjectMapCompiler.ENTRY_SIZE;
+            int cmp =
+                    compareKey(repository.getInt(entry),
+                            repository.getInt(entry + 4), keyBytes);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return decode(repository.getInt(entry + 8),
+                        repository.getInt(entry + 12));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares the mapped key at the given position with the given key as
+     * unsigned bytes.
+     * 
+     * @param offset
+     *            the offset of the mapped key
+     * @param length
+     *            the length of the mapped key
+     * @param keyBytes
+     *            the key
+     * @return the comparison result
+     */
+    private int compareKey(final int offset, final int length,
+            final byte[] keyBytes) {
+        int common = Math.min(length, keyBytes.length);
+        for (int i = 0; i < common; i++) {
+            int diff =
+                    (repository.get(offset + i) & BYTE_MASK)
+                            - (keyBytes[i] & BYTE_MASK);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - keyBytes.length;
+    }
+
+    /**
+     * Decodes the UTF-8 string at the given position.
+     * 
+     * @param offset
+     *            the offset of the string
+     * @param length
+     *            the length of the string
+     * @return the string
+     */
+    private String decode(final int offset, final int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = repository.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, ObjectMapCompiler.UTF_8);
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.objectmap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.rational.test.ft.script.Property;
+
+/**
+ * Immutable, precompiled form of an object map locator string. The locator is
+ * split into its properties once, and every <code>&lt;param&gt;</code>
+ * placeholder in a property value is recorded as a slot, so resolving the
+ * locator for an identifier does not parse the locator string again.<br>
+ * <br>
+ * A locator may name the container the object is searched in with a
+ * <code>parent=page.object</code> attribute, for example
+ * <code>.class:=Html.INPUT.text|.name:=user|parent=Login.form</code>.<br>
+ * <br>
+ * The other <code>KEY=value</code> attributes override the runtime settings,
+ * such as the timings, for the commands on the object, for example
+ * <code>.class:=Html.TABLE|WAIT_INTERVAL=3000</code>. The settings of the
+ * object named {@link #PAGE_SETTINGS} apply to all the objects of its page.
+ */
+final class LocatorTemplate {
+
+    /** The name of the object holding the settings of its whole page. */
+    static final String PAGE_SETTINGS = "_page";
+
+    /** The property separator of the locator string. */
+    private static final char PROPERTY_SEPARATOR = '|';
+
+    /** The separator between a property name and its value. */
+    private static final String VALUE_SEPARATOR = ":=";
+
+    /** The prefix of the parent attribute. */
+    private static final String PARENT_PREFIX = "parent=";
+
+    /** The separator between a setting key and its value. */
+    private static final char SETTING_SEPARATOR = '=';
+
+    /** The separator between the parameters of an identifier. */
+    private static final String PARAM_SEPARATOR = "_PARAM,";
+
+    /** The separator between a parameter name and its value. */
+    private static final String PARAM_VALUE_SEPARATOR = "_PARAM:";
+
+    /** The resolved properties shared by all the lookups. */
+    private final Property[] properties;
+
+    /**
+     * The literal segments of each property value, or null for the properties
+     * without placeholders. A value with n slots has n + 1 segments.
+     */
+    private final String[][] segments;
+
+    /** The parameter names of the slots of each property value. */
+    private final String[][] slots;
+
+    /** Whether any of the property values has a placeholder. */
+    private final boolean parameterised;
+
+    /** The logical name of the parent object, or null. */
+    private final String parentName;
+
+    /** The settings overridden for the object. */
+    private final Map<String, String> settings;
+
+    /**
+     * Instantiates a new locator template.
+     *
+     * @param templateProperties
+     *            the properties with the unresolved values
+     * @param valueSegments
+     *            the literal segments of each property value
+     * @param valueSlots
+     *            the slot names of each property value
+     * @param hasSlots
+     *            whether any of the values has a placeholder
+     * @param parent
+     *            the logical name of the parent object, or null
+     * @param objectSettings
+     *            the settings overridden for the object
+     */
+    private LocatorTemplate(final Property[] templateProperties,
+            final String[][] valueSegments, final String[][] valueSlots,
+            final boolean hasSlots, final String parent,
+            final Map<String, String> objectSettings) {
+        this.properties = templateProperties;
+        this.segments = valueSegments;
+        this.slots = valueSlots;
+        this.parameterised = hasSlots;
+        this.parentName = parent;
+        this.settings = objectSettings;
+    }
+
+    /**
+     * Compiles the given locator string.
+     *
+     * @param locatorString
+     *            the locator string, such as
+     *            <code>.class:=Html.A|.text:=&lt;p1&gt;</code>
+     * @return the compiled template
+     */
+    static LocatorTemplate compile(final String locatorString) {
+        List<String> attributes = splitAttributes(locatorString);
+        String parent = null;
+        Map<String, String> objectSettings = null;
+        for (int i = attributes.size() - 1; i >= 0; i--) {
+            String attribute = attributes.get(i).trim();
+            if (attribute.startsWith(PARENT_PREFIX)) {
+                parent = attribute.substring(PARENT_PREFIX.length()).trim();
+                attributes.remove(i);
+            } else if (attribute.indexOf(VALUE_SEPARATOR) < 0
+                    && attribute.indexOf(SETTING_SEPARATOR) > 0) {
+                if (objectSettings == null) {
+                    objectSettings = new HashMap<String, String>();
+                }
+                int separator = attribute.indexOf(SETTING_SEPARATOR);
+                String key = attribute.substring(0, separator).trim();
+                if (!objectSettings.containsKey(key)) {
+                    objectSettings.put(key, attribute.substring(separator + 1)
+                            .trim());
+                }
+                attributes.remove(i);
+            }
+        }
+        int size = attributes.size();
+        Property[] templateProperties = new Property[size];
+        String[][] valueSegments = new String[size][];
+        String[][] valueSlots = new String[size][];
+        boolean hasSlots = false;
+
+        for (int i = 0; i < size; i++) {
+            String attribute = attributes.get(i);
+            int valueIndex = attribute.indexOf(VALUE_SEPARATOR);
+            if (valueIndex < 0) {
+                templateProperties[i] = new Property("", "");
+                continue;
+            }
+            String name = attribute.substring(0, valueIndex);
+            int valueEnd =
+                    attribute.indexOf(VALUE_SEPARATOR, valueIndex
+                            + VALUE_SEPARATOR.length());
+            String value =
+                    attribute.substring(valueIndex + VALUE_SEPARATOR.length(),
+                            valueEnd < 0 ? attribute.length() : valueEnd);
+            templateProperties[i] = new Property(name, value);
+
+            List<String> literals = new ArrayList<String>();
+            List<String> names = new ArrayList<String>();
+            int start = 0;
+            int open = value.indexOf('<');
+            while (open >= 0) {
+                int close = value.indexOf('>', open + 1);
+                if (close < 0) {
+                    break;
+                }
+                literals.add(value.substring(start, open));
+                names.add(value.substring(open + 1, close));
+                start = close + 1;
+                open = value.indexOf('<', start);
+            }
+            if (!names.isEmpty()) {
+                literals.add(value.substring(start));
+                valueSegments[i] = literals.toArray(new String[literals.size()]);
+                valueSlots[i] = names.toArray(new String[names.size()]);
+                hasSlots = true;
+            }
+        }
+        return new LocatorTemplate(templateProperties, valueSegments,
+                valueSlots, hasSlots, "".equals(parent) ? null : parent,
+                objectSettings == null ? Collections.<String, String> emptyMap()
+                        : Collections.unmodifiableMap(objectSettings));
+    }
+
+    /**
+     * Splits the locator string into its attributes the same way as
+     * <code>String.split("\\|")</code>, dropping the trailing empty attributes.
+     *
+     * @param locatorString
+     *            the locator string
+     * @return the attributes
+     */
+    private static List<String> splitAttributes(final String locatorString) {
+        List<String> attributes = new ArrayList<String>();
+        int start = 0;
+        int separator = locatorString.indexOf(PROPERTY_SEPARATOR);
+        while (separator >= 0) {
+            attributes.add(locatorString.substring(start, separator));
+            start = separator + 1;
+            separator = locatorString.indexOf(PROPERTY_SEPARATOR, start);
+        }
+        attributes.add(locatorString.substring(start));
+        int last = attributes.size() - 1;
+        while (last > 0 && attributes.get(last).isEmpty()) {
+            attributes.remove(last--);
+        }
+        return attributes;
+    }
+
+    /**
+     * Checks whether the template has parameter slots.
+     *
+     * @return true, if the template is parameterised
+     */
+    boolean isParameterised() {
+        return parameterised;
+    }
+
+    /**
+     * Gets the logical name of the parent object the object is searched in.
+     *
+     * @return the parent object name, or null if the object is searched from
+     *         the root
+     */
+    String getParentName() {
+        return parentName;
+    }
+
+    /**
+     * Gets the settings overridden for the object.
+     *
+     * @return the unmodifiable settings, empty if there is none
+     */
+    Map<String, String> getSettings() {
+        return settings;
+    }
+
+    /**
+     * Resolves the template for the given identifier. When there is no
+     * identifier or no slot, the shared property array is returned without
+     * any allocation; callers must not modify it.
+     *
+     * @param identifier
+     *            the identifier, such as
+     *            <code>p1_PARAM:value1_PARAM,p2_PARAM:value2</code>
+     * @return the resolved properties
+     */
+    Property[] resolve(final String identifier) {
+        if (!parameterised || identifier == null || "".equals(identifier)) {
+            return properties;
+        }
+        String[][] parameters = parseParameters(identifier);
+        Property[] resolved = new Property[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            if (slots[i] == null) {
+                resolved[i] = properties[i];
+            } else {
+                resolved[i] =
+                        new Property(properties[i].getPropertyName(), fill(
+                                segments[i], slots[i], parameters));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Fills the slots of one property value in a single pass. Slots without a
+     * matching parameter keep their <code>&lt;param&gt;</code> placeholder.
+     *
+     * @param valueSegments
+     *            the literal segments of the value
+     * @param valueSlots
+     *            the slot names of the value
+     * @param parameters
+     *            the parameter names and values
+     * @return the resolved value
+     */
+    private static String fill(final String[] valueSegments,
+            final String[] valueSlots, final String[][] parameters) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < valueSlots.length; i++) {
+            value.append(valueSegments[i]);
+            String parameter = findParameter(parameters, valueSlots[i]);
+            if (parameter == null) {
+                value.append('<').append(valueSlots[i]).append('>');
+            } else {
+                value.append(parameter);
+            }
+        }
+        return value.append(valueSegments[valueSlots.length]).toString();
+    }
+
+    /**
+     * Finds the value of the given parameter.
+     *
+     * @param parameters
+     *            the parameter names and values
+     * @param name
+     *            the parameter name
+     * @return the parameter value, or null if it is not given
+     */
+    private static String findParameter(final String[][] parameters,
+            final String name) {
+        for (String[] parameter : parameters) {
+            if (parameter[0].equals(name)) {
+                return parameter[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the identifier into parameter name and value pairs, scanning the
+     * identifier once.
+     *
+     * @param identifier
+     *            the identifier
+     * @return the parameter names and values
+     */
+    static String[][] parseParameters(final String identifier) {
+        List<String[]> parameters = new ArrayList<String[]>();
+        int start = 0;
+        while (start <= identifier.length()) {
+            int end = identifier.indexOf(PARAM_SEPARATOR, start);
+            if (end < 0) {
+                end = identifier.length();
+            }
+            int valueIndex = identifier.indexOf(PARAM_VALUE_SEPARATOR, start);
+            if (valueIndex >= 0 && valueIndex < end) {
+                parameters.add(new String[] {
+                        identifier.substring(start, valueIndex),
+                        identifier.substring(valueIndex
+                                + PARAM_VALUE_SEPARATOR.length(), end) });
+            }
+            start = end + PARAM_SEPARATOR.length();
+        }
+        return parameters.toArray(new String[parameters.size()][]);
+    }
+}
@@ -11,6 +11,9 @@
 
 package com.virtusa.isq.rft.objectmap;
 
+import java.util.Collections;
+import java.util.Map;
+
 import com.rational.test.ft.script.Property;
 
 /**
@@ -27,6 +30,12 @@ public class ObjectLocator {
     /** The property array. */
     private Property[] propertyArray = null;
 
+    /** The locator of the container the object is searched in. */
+    private ObjectLocator parentLocator = null;
+
+    /** The settings overridden for the object in the object map. */
+    private Map<String, String> settings = Collections.emptyMap();
+
     /**
      * Instantiates a new object locator.
      * 
@@ -88,6 +97,16 @@ public class ObjectLocator {
         return propertyArray.clone();
     }
 
+    /**
+     * Gets the property array without copying it. The returned array may be
+     * shared with other locators and must not be modified.
+     * 
+     * @return the property array
+     */
+    public final Property[] getSharedPropertyArray() {
+        return propertyArray;
+    }
+
     /**
      * Sets the property array.
      * 
@@ -98,4 +117,56 @@ public class ObjectLocator {
         this.propertyArray = newPropertyArray.clone();
     }
 
+    /**
+     * Sets the property array without copying it. Used by the object maps to
+     * hand out their cached, immutable property arrays.
+     * 
+     * @param sharedPropertyArray
+     *            the shared property array
+     */
+    final void setSharedPropertyArray(final Property[] sharedPropertyArray) {
+        this.propertyArray = sharedPropertyArray;
+    }
+
+    /**
+     * Gets the locator of the container the object is searched in.
+     * 
+     * @return the parent locator, or null if the object is searched from the
+     *         root
+     */
+    public final ObjectLocator getParentLocator() {
+        return parentLocator;
+    }
+
+    /**
+     * Sets the locator of the container the object is searched in.
+     * 
+     * @param newParentLocator
+     *            the new parent locator
+     */
+    public final void setParentLocator(final ObjectLocator newParentLocator) {
+        this.parentLocator = newParentLocator;
+    }
+
+    /**
+     * Gets the settings overridden for the object and its page in the object
+     * map, such as <code>WAIT_INTERVAL</code>.
+     * 
+     * @return the unmodifiable settings, empty if there is none
+     * @see com.virtusa.isq.rft.utils.LayeredConfiguration
+     */
+    public final Map<String, String> getSettings() {
+        return settings;
+    }
+
+    /**
+     * Sets the settings overridden for the object.
+     * 
+     * @param objectSettings
+     *            the unmodifiable settings
+     */
+    final void setSettings(final Map<String, String> objectSettings) {
+        this.settings = objectSettings;
+    }
+
 }
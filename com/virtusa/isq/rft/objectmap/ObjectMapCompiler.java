@@ -0,0 +1,257 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.objectmap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.virtusa.isq.rft.utils.Utils;
+
+/**
+ * Build time compiler of the object map. Turns all the page files of the
+ * <code>Pages</code> directory into a single indexed repository file which is
+ * loaded by {@link CompiledObjectMap}. Like {@link ObjectMapParser}, only the
+ * page files directly in the directory are read; sub directories are
+ * ignored.<br>
+ * <br>
+ * Usage : <code>ObjectMapCompiler [pagesDirectory] [repositoryFile]</code><br>
+ * <br>
+ * The repository file layout, all integers being big endian, is
+ * <ul>
+ * <li>the magic number and the format version</li>
+ * <li>the entry count</li>
+ * <li>the index, one entry per object holding the offset and length of the
+ * <code>page.object</code> key and of the locator string, sorted by the UTF-8
+ * bytes of the key</li>
+ * <li>the UTF-8 bytes of the keys and the locator strings</li>
+ * </ul>
+ */
+public final class ObjectMapCompiler {
+
+    /** The magic number of the repository file. */
+    static final int MAGIC = 0x564F4D42;
+
+    /** The format version of the repository file. */
+    static final int VERSION = 1;
+
+    /** The size of the file header in bytes. */
+    static final int HEADER_SIZE = 12;
+
+    /** The size of one index entry in bytes. */
+    static final int ENTRY_SIZE = 16;
+
+    /** The character set of the keys and locator strings. */
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** The unsigned byte mask. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Instantiates a new object map compiler.
+     */
+    private ObjectMapCompiler() {
+    }
+
+    /**
+     * Compiles the pages directory given as the first argument, or
+     * <code>Pages</code>, into the repository file given as the second
+     * argument, or <code>Pages.bin</code>.
+     * 
+     * @param args
+     *            the arguments
+     */
+    public static void main(final String[] args) {
+        File pagesDirectory =
+                new File(args.length > 0 ? args[0]
+                        : AbstractObjectMap.PAGES_DIRECTORY);
+        File repositoryFile =
+                new File(args.length > 1 ? args[1]
+                        : CompiledObjectMap.DEFAULT_REPOSITORY_FILE);
+        try {
+            int count = compile(pagesDirectory, repositoryFile);
+            System.out.println("INFO : Compiled " + count + " objects into "
+                    + repositoryFile.getAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Cannot compile the object map. Actual Error : "
+                    + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compiles the given pages directory into the given repository file.
+     * 
+     * @param pagesDirectory
+     *            the pages directory
+     * @param repositoryFile
+     *            the repository file
+     * @return the number of compiled objects
+     * @throws IOException
+     *             if a page file cannot be read, two page files have the
+     *             same page name or the repository file cannot be written
+     */
+    public static int compile(final File pagesDirectory,
+            final File repositoryFile) throws IOException {
+        if (!pagesDirectory.isDirectory()) {
+            throw new IOException("Cannot find the pages directory "
+                    + pagesDirectory.getAbsolutePath());
+        }
+        Map<String, File> pageFiles = new HashMap<String, File>();
+        collectPageFiles(pagesDirectory, pageFiles);
+
+        List<byte[][]> entries = new ArrayList<byte[][]>();
+        for (Map.Entry<String, File> pageFile : pageFiles.entrySet()) {
+            Properties propPage = readPage(pageFile.getValue());
+            for (String object : propPage.stringPropertyNames()) {
+                entries.add(new byte[][] {
+                        (pageFile.getKey() + "." + object).getBytes(UTF_8),
+                        propPage.getProperty(object).getBytes(UTF_8) });
+            }
+        }
+        Collections.sort(entries, new Comparator<byte[][]>() {
+            @Override
+            public int compare(final byte[][] first, final byte[][] second) {
+                return compareBytes(first[0], second[0]);
+            }
+        });
+        writeRepository(entries, repositoryFile);
+        return entries.size();
+    }
+
+    /**
+     * Collects the page files of the given directory. Sub directories are
+     * ignored, as they are by the object map parser.
+     * 
+     * @param directory
+     *            the directory
+     * @param pageFiles
+     *            the page files by page name
+     * @throws IOException
+     *             if two page files have the same page name
+     */
+    private static void collectPageFiles(final File directory,
+            final Map<String, File> pageFiles) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            String page = AbstractObjectMap.getPageName(file.getName());
+            if (page != null) {
+                File duplicate = pageFiles.put(page, file);
+                if (duplicate != null) {
+                    throw new IOException("Duplicate page " + page + " : "
+                            + duplicate.getPath() + " and " + file.getPath());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the given page file.
+     * 
+     * @param pageFile
+     *            the page file
+     * @return the page objects
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static Properties readPage(final File pageFile) throws IOException {
+        FileInputStream pageFileStream = new FileInputStream(pageFile);
+        try {
+            Properties propPage = new Properties();
+            propPage.load(pageFileStream);
+            return propPage;
+        } finally {
+            pageFileStream.close();
+        }
+    }
+
+    /**
+     * Writes the sorted entries into the repository file. The entries are
+     * written to a temporary file which then replaces the repository file, so
+     * the object maps never read a partly written repository.
+     * 
+     * @param entries
+     *            the key and locator bytes, sorted by key
+     * @param repositoryFile
+     *            the repository file
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static void writeRepository(final List<byte[][]> entries,
+            final File repositoryFile) throws IOException {
+        File temp = new File(repositoryFile.getPath() + ".tmp");
+        FileOutputStream fileOut = new FileOutputStream(temp);
+        DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(fileOut));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+
+            int offset = HEADER_SIZE + entries.size() * ENTRY_SIZE;
+            for (byte[][] entry : entries) {
+                out.writeInt(offset);
+                out.writeInt(entry[0].length);
+                offset += entry[0].length;
+                out.writeInt(offset);
+                out.writeInt(entry[1].length);
+                offset += entry[1].length;
+            }
+            for (byte[][] entry : entries) {
+                out.write(entry[0]);
+                out.write(entry[1]);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        } finally {
+            out.close();
+        }
+        Utils.replaceFile(temp, repositoryFile);
+    }
+
+    /**
+     * Compares two byte arrays as unsigned bytes.
+     * 
+     * @param first
+     *            the first array
+     * @param second
+     *            the second array
+     * @return the comparison result
+     */
+    static int compareBytes(final byte[] first, final byte[] second) {
+        int length = Math.min(first.length, second.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (first[i] & BYTE_MASK) - (second[i] & BYTE_MASK);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return first.length - second.length;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.objectmap;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.virtusa.isq.rft.utils.PropertyHandler;
+
+/**
+ * Creates the object map used by the runtime. The object map is shared by all
+ * the scripts of the run.<br>
+ * <br>
+ * Set the runtime property OBJECT_MAP_WATCH=true to reload the page files
+ * when they are edited during the run. Otherwise the repository file written
+ * by {@link ObjectMapCompiler} is used when it exists and is newer than the
+ * pages directory and all the page files, and the page files are parsed on
+ * demand when it is not.
+ */
+public final class ObjectMapFactory {
+
+    /** The shared object map. */
+    private static IGetObjectMap objectMap;
+
+    /**
+     * Instantiates a new object map factory.
+     */
+    private ObjectMapFactory() {
+    }
+
+    /**
+     * Gets the shared object map, creating it on the first call.
+     * 
+     * @return the object map
+     */
+    public static synchronized IGetObjectMap getObjectMap() {
+        if (objectMap == null) {
+            objectMap = createObjectMap();
+        }
+        return objectMap;
+    }
+
+    /**
+     * Creates the object map configured in the runtime properties.
+     * 
+     * @return the object map
+     */
+    private static IGetObjectMap createObjectMap() {
+        PropertyHandler propfile = new PropertyHandler("RUNTIME.properties");
+        if ("true".equalsIgnoreCase(propfile
+                .getRuntimeProperty("OBJECT_MAP_WATCH"))) {
+            try {
+                return new WatchingObjectMapRepository();
+            } catch (IOException e) {
+                System.err.println("Cannot watch the object map directory, "
+                        + "page changes will not be reloaded. Actual Error : "
+                        + e.getMessage());
+            }
+        }
+        File repositoryFile =
+                new File(CompiledObjectMap.DEFAULT_REPOSITORY_FILE);
+        if (repositoryFile.isFile()) {
+            if (isUpToDate(repositoryFile,
+                    new File(AbstractObjectMap.PAGES_DIRECTORY))) {
+                try {
+                    return new CompiledObjectMap(repositoryFile);
+                } catch (IOException e) {
+                    System.err.println("Cannot load the compiled object map "
+                            + repositoryFile.getAbsolutePath()
+                            + ". Actual Error : " + e.getMessage());
+                }
+            } else {
+                System.err.println("The compiled object map "
+                        + repositoryFile.getAbsolutePath()
+                        + " is older than the page files and is ignored.");
+            }
+        }
+        return new ObjectMapParser();
+    }
+
+    /**
+     * Checks whether the repository file is newer than the pages directory
+     * and all its page files. The directory is modified whenever a page file
+     * is added, deleted or renamed, so a removed page also makes the
+     * repository file out of date.
+     * 
+     * @param repositoryFile
+     *            the repository file
+     * @param directory
+     *            the pages directory
+     * @return true, if the repository file is up to date
+     */
+    private static boolean isUpToDate(final File repositoryFile,
+            final File directory) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return true;
+        }
+        long compiled = repositoryFile.lastModified();
+        if (directory.lastModified() > compiled) {
+            return false;
+        }
+        for (File file : files) {
+            if (file.isFile() && file.lastModified() > compiled) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -11,141 +11,59 @@
 
 package com.virtusa.isq.rft.objectmap;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
-import com.rational.test.ft.script.Property;
+import com.virtusa.isq.rft.utils.PropertyHandler;
 
 /**
  * The Class ObjectMapParser.
  */
-public class ObjectMapParser implements IGetObjectMap {
+public class ObjectMapParser extends AbstractObjectMap {
+
+    /** The page object maps shared by all the parsers. */
+    private static final PageObjectMapCache PAGE_CACHE =
+            new PageObjectMapCache(getPageCacheSize());
 
     /**
-     * Override ObjectLocator.
+     * Gets the compiled locator of the given object of the given page.
      * 
-     * @param unresolvedObject
-     *            the unresolved object
-     * @param identifier
-     *            the identifier
-     * @return the resolved object search path
-     * @see com.virtusa.isq.rft.objectmap.IGetObjectMap#getResolvedObjectSearchPath(java.lang.String,
-     *      java.lang.String)
+     * @param page
+     *            the page name
+     * @param object
+     *            the object name
+     * @return the compiled locator, or null if the object cannot be found
      */
     @Override
-    public final ObjectLocator getResolvedObjectSearchPath(
-            final String unresolvedObject, final String identifier) {
-
-        ObjectLocator locator = new ObjectLocator(unresolvedObject, identifier);
-        String locatorString = getActualLocatorString(unresolvedObject);
-        Property[] resolvedPropertyArray;
-
-        if ("".equals(identifier)) {
-            resolvedPropertyArray = getObjectPropertyArray(locatorString);
-
-        } else {
-            String resolvedLocatorString =
-                    getResolvedSearchPath(locatorString, identifier);
-            resolvedPropertyArray =
-                    getObjectPropertyArray(resolvedLocatorString);
-
+    final LocatorTemplate getLocatorTemplate(final String page,
+            final String object) {
+        Map<String, LocatorTemplate> pageObjects = PAGE_CACHE.getPage(page);
+        if (pageObjects == null) {
+            return null;
         }
-        locator.setPropertyArray(resolvedPropertyArray);
-        return locator;
+        return pageObjects.get(object);
     }
 
     /**
-     * Creates the property array based on the object locator String.
+     * Gets the maximum number of pages kept in the page cache. The value can
+     * be configured through the OBJECT_MAP_CACHE_SIZE runtime property.
      * 
-     * @param resolvedObjectLocatorStr
-     *            the resolved object locator str
-     * @return created Property array
+     * @return the page cache size
      */
-    private Property[] getObjectPropertyArray(
-            final String resolvedObjectLocatorStr) {
-        Property[] resolvedPropertyArray = null;
-        String locatorStr = resolvedObjectLocatorStr;
-        List<String> attributes = new ArrayList<String>();
-        ArrayList<Property> propertyList = new ArrayList<Property>();
+    private static int getPageCacheSize() {
         try {
-            if (locatorStr.contains("|")) {
-                attributes = Arrays.asList(locatorStr.split("\\|"));
-            } else {
-                attributes.add(locatorStr);
+            PropertyHandler propfile =
+                    new PropertyHandler("RUNTIME.properties");
+            String cacheSize =
+                    propfile.getRuntimeProperty("OBJECT_MAP_CACHE_SIZE");
+            if (cacheSize != null && !"".equals(cacheSize.trim())) {
+                return Integer.parseInt(cacheSize.trim());
             }
-            for (String attribute : attributes) {
-                try {
-                    int arrkey = 0;
-                    int arrval = 1;
-                    Property property = null;
-                    
-                    if (attribute.contains(":=")) {
-                        String[] attributeKeyValue =
-                                attribute.split(":=", Integer.MAX_VALUE);
-                        property =
-                                new Property(attributeKeyValue[arrkey],
-                                        attributeKeyValue[arrval]);
-                    }else {
-                        property =  new Property("", "");
-                    }
-                   propertyList.add(property);
-                } catch (Exception e) {
-                  e.printStackTrace();
-                }
-            }
-            resolvedPropertyArray =
-                    propertyList.toArray(new Property[propertyList.size()]);
-
-        } catch (Exception e) {
-           // e.printStackTrace();
-        }
-
-        return resolvedPropertyArray;
-    }
-
-
-    /**
-     * Gets the actual locator string.
-     * 
-     * @param objectName
-     *            the object name
-     * @return the actual locator string
-     */
-    private String getActualLocatorString(final String objectName) {
-        String actualLocatorPath = null;
-        FileInputStream pageFileStream = null;
-        try {
-            String[] objectDataArr = objectName.split("\\.");
-            String page = objectDataArr[0];
-            String object = objectDataArr[1];
-
-            pageFileStream =
-                    new FileInputStream("Pages" + File.separator + "" + page
-                            + ".properties");
-
-            java.util.Properties propPage = new java.util.Properties();
-            propPage.load(pageFileStream);
-            actualLocatorPath = propPage.get(object).toString();
-
-        } catch (IOException e) {
+        } catch (NumberFormatException e) {
             e.printStackTrace();
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            if (pageFileStream != null) {
-                try {
-                    pageFileStream.close();
-                } catch (IOException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
-            }
         }
-        return actualLocatorPath;
+        return PageObjectMapCache.DEFAULT_MAX_PAGES;
     }
 
     /**
@@ -182,18 +100,11 @@ public class ObjectMapParser implements IGetObjectMap {
             final String identifire) {
         String resolvedSearchPath = searchPath;
         if (!"".equals(identifire)) {
-            List<String> parameterValues = getParameterValues(identifire);
-            int splitindex0 = 0;
-            int splitindex1 = 1;
-            for (int i = 0; i < parameterValues.size(); i++) {
+            String[][] parameters = LocatorTemplate.parseParameters(identifire);
+            for (String[] parameter : parameters) {
                 resolvedSearchPath =
-                        resolvedSearchPath
-                                .replace(
-                                        "<"
-                                                + parameterValues.get(i).split(
-                                                        "_PARAM:")[splitindex0]
-                                                + ">", parameterValues.get(i)
-                                                .split("_PARAM:")[splitindex1]);
+                        resolvedSearchPath.replace("<" + parameter[0] + ">",
+                                parameter[1]);
             }
         }
         return resolvedSearchPath;
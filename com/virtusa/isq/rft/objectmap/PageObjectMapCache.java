@@ -0,0 +1,118 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.objectmap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of parsed page object maps, keyed by the page name. Each
+ * <code>Pages/&lt;page&gt;.properties</code> file is parsed once, its locators
+ * are compiled into {@link LocatorTemplate}s and kept in memory until it
+ * becomes the least recently used page and the cache is full.
+ */
+public class PageObjectMapCache {
+
+    /** The default maximum number of pages kept in memory. */
+    public static final int DEFAULT_MAX_PAGES = 256;
+
+    /** The initial capacity of the page map. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The load factor of the page map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** The cached pages in access order. */
+    private final Map<String, Map<String, LocatorTemplate>> pages;
+
+    /**
+     * Instantiates a new page object map cache.
+     *
+     * @param maxPages
+     *            the maximum number of pages kept in memory
+     */
+    public PageObjectMapCache(final int maxPages) {
+        final int limit = maxPages > 0 ? maxPages : DEFAULT_MAX_PAGES;
+        pages =
+                new LinkedHashMap<String, Map<String, LocatorTemplate>>(
+                        INITIAL_CAPACITY, LOAD_FACTOR, true) {
+
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(
+                            final Map.Entry<String, Map<String, LocatorTemplate>> eldest) {
+                        return size() > limit;
+                    }
+                };
+    }
+
+    /**
+     * Gets the objects of the given page, loading the page file on the first
+     * access.
+     *
+     * @param page
+     *            the page name
+     * @return the compiled locators of the page, or null if the page cannot be
+     *         loaded
+     */
+    final synchronized Map<String, LocatorTemplate> getPage(
+            final String page) {
+        Map<String, LocatorTemplate> objects = pages.get(page);
+        if (objects == null) {
+            objects = loadPage(page);
+            if (objects != null) {
+                pages.put(page, objects);
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * Removes the given page from the cache. The page file will be parsed
+     * again on the next access.
+     *
+     * @param page
+     *            the page name
+     */
+    public final synchronized void invalidate(final String page) {
+        pages.remove(page);
+    }
+
+    /**
+     * Removes all the pages from the cache.
+     */
+    public final synchronized void clear() {
+        pages.clear();
+    }
+
+    /**
+     * Gets the number of pages currently kept in memory.
+     *
+     * @return the page count
+     */
+    public final synchronized int size() {
+        return pages.size();
+    }
+
+    /**
+     * Parses the page file of the given page.
+     *
+     * @param page
+     *            the page name
+     * @return the compiled locators of the page, or null if the file cannot be
+     *         read
+     */
+    private Map<String, LocatorTemplate> loadPage(final String page) {
+        return AbstractObjectMap.loadPage(AbstractObjectMap.getPageFile(page));
+    }
+}
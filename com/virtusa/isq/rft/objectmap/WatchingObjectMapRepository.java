@@ -0,0 +1,222 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.objectmap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.virtusa.isq.rft.utils.Utils;
+
+/**
+ * Object map repository which parses all the page files at startup and keeps
+ * them up to date while the tests are running. A background thread watches
+ * the <code>Pages</code> directory and reloads only the page whose file was
+ * modified, created or deleted.<br>
+ * <br>
+ * The pages are held in an immutable snapshot which is replaced as a whole on
+ * every change, so the lookups never take a lock.
+ */
+public class WatchingObjectMapRepository extends AbstractObjectMap implements
+        Closeable {
+
+    /** The time to wait for the editors to finish writing a page file. */
+    private static final int RELOAD_DELAY = 200;
+
+    /** The pages directory. */
+    private final File pagesDirectory;
+
+    /** The watch service of the pages directory. */
+    private final WatchService watchService;
+
+    /** The current snapshot of the compiled pages. */
+    private volatile Map<String, Map<String, LocatorTemplate>> pages;
+
+    /**
+     * Instantiates a new watching object map repository over the default
+     * pages directory.
+     * 
+     * @throws IOException
+     *             if the pages directory cannot be watched
+     */
+    public WatchingObjectMapRepository() throws IOException {
+        this(new File(PAGES_DIRECTORY));
+    }
+
+    /**
+     * Instantiates a new watching object map repository.
+     * 
+     * @param pagesDir
+     *            the pages directory
+     * @throws IOException
+     *             if the pages directory cannot be watched
+     */
+    public WatchingObjectMapRepository(final File pagesDir) throws IOException {
+        this.pagesDirectory = pagesDir;
+
+        // watch before loading, so no change made during the load is missed
+        Path pagesPath = pagesDir.toPath();
+        watchService = FileSystems.getDefault().newWatchService();
+        pagesPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        this.pages = loadAllPages();
+
+        Thread watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watchPages();
+            }
+        }, "ObjectMapWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Gets the compiled locator of the given object of the given page.
+     * 
+     * @param page
+     *            the page name
+     * @param object
+     *            the object name
+     * @return the compiled locator, or null if the object cannot be found
+     */
+    @Override
+    final LocatorTemplate getLocatorTemplate(final String page,
+            final String object) {
+        Map<String, LocatorTemplate> pageObjects = pages.get(page);
+        if (pageObjects == null) {
+            System.err.println("Cannot find the page " + page + " in "
+                    + pagesDirectory.getAbsolutePath());
+            return null;
+        }
+        return pageObjects.get(object);
+    }
+
+    /**
+     * Stops watching the pages directory. The last loaded pages are still
+     * served after the repository is closed.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Override
+    public final void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Parses all the page files of the pages directory.
+     * 
+     * @return the snapshot of the compiled pages
+     */
+    private Map<String, Map<String, LocatorTemplate>> loadAllPages() {
+        Map<String, Map<String, LocatorTemplate>> allPages =
+                new HashMap<String, Map<String, LocatorTemplate>>();
+        File[] pageFiles = pagesDirectory.listFiles();
+        if (pageFiles != null) {
+            for (File pageFile : pageFiles) {
+                String page = getPageName(pageFile.getName());
+                if (page != null && pageFile.isFile()) {
+                    Map<String, LocatorTemplate> pageObjects =
+                            loadPage(pageFile);
+                    if (pageObjects != null) {
+                        allPages.put(page, pageObjects);
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableMap(allPages);
+    }
+
+    /**
+     * Waits for the changes of the pages directory and reloads the changed
+     * pages until the watch service is closed.
+     */
+    private void watchPages() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Utils.pause(RELOAD_DELAY);
+
+                boolean overflow = false;
+                Set<String> changedPages = new HashSet<String>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        String page =
+                                getPageName(event.context().toString());
+                        if (page != null) {
+                            changedPages.add(page);
+                        }
+                    }
+                }
+                if (overflow) {
+                    pages = loadAllPages();
+                } else if (!changedPages.isEmpty()) {
+                    reloadPages(changedPages);
+                }
+                if (!key.reset()) {
+                    System.err.println("Stopped watching the object map "
+                            + "directory " + pagesDirectory.getAbsolutePath());
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reloads the given pages and publishes a new snapshot. A page whose file
+     * was deleted is removed, and a page whose file cannot be parsed keeps its
+     * previous objects.
+     * 
+     * @param changedPages
+     *            the changed pages
+     */
+    private void reloadPages(final Set<String> changedPages) {
+        Map<String, Map<String, LocatorTemplate>> newPages =
+                new HashMap<String, Map<String, LocatorTemplate>>(pages);
+        for (String page : changedPages) {
+            File pageFile = new File(pagesDirectory, page + PAGE_FILE_EXTENSION);
+            if (!pageFile.exists()) {
+                newPages.remove(page);
+                System.out.println("INFO : Object map page " + page
+                        + " removed");
+                continue;
+            }
+            Map<String, LocatorTemplate> pageObjects = loadPage(pageFile);
+            if (pageObjects != null) {
+                newPages.put(page, pageObjects);
+                System.out.println("INFO : Object map page " + page
+                        + " reloaded");
+            }
+        }
+        pages = Collections.unmodifiableMap(newPages);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+
+package com.virtusa.isq.rft.report;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the step logs written by the
+ * {@link com.virtusa.isq.rft.runtime.JsonLinesReportSink}, one flat JSON object
+ * per line. Blank lines and lines which are not complete objects, such as the
+ * last line of a killed run, are skipped.
+ */
+final class JsonLineReader {
+
+    /** The reader. */
+    private final BufferedReader reader;
+
+    /** The number of the lines read. */
+    private int lineNumber;
+
+    /** The number of the lines skipped. */
+    private int skipped;
+
+    /**
+     * Opens a step log.
+     * 
+     * @param file
+     *            the step log
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    JsonLineReader(final File file) throws IOException {
+        this.reader =
+                new BufferedReader(new InputStreamReader(new FileInputStream(
+                        file), "UTF-8"));
+    }
+
+    /**
+     * Reads the next step.
+     * 
+     * @return the fields of the step, or null at the end of the log
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    Map<String, String> next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Map<String, String> fields = parse(line.trim());
+            if (fields != null) {
+                return fields;
+            }
+            skipped++;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of the lines read.
+     * 
+     * @return the line count
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Gets the number of the lines skipped.
+     * 
+     * @return the skipped line count
+     */
+    int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Closes the log.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses a flat JSON object. The values which are not strings are kept as
+     * their JSON text.
+     * 
+     * @param line
+     *            the line
+     * @return the fields, or null if the line is not a flat JSON object
+     */
+    static Map<String, String> parse(final String line) {
+        Map<String, String> fields = new HashMap<String, String>();
+        int[] position = {1 };
+        if (!line.startsWith("{") || !line.endsWith("}")) {
+            return null;
+        }
+        skipSpaces(line, position);
+        if (line.charAt(position[0]) == '}') {
+            return fields;
+        }
+        while (position[0] < line.length()) {
+            skipSpaces(line, position);
+            String name = readString(line, position);
+            skipSpaces(line, position);
+            if (name == null || position[0] >= line.length()
+                    || line.charAt(position[0]) != ':') {
+                return null;
+            }
+            position[0]++;
+            skipSpaces(line, position);
+            String value;
+            if (position[0] < line.length() && line.charAt(position[0]) == '"') {
+                value = readString(line, position);
+            } else {
+                int start = position[0];
+                while (position[0] < line.length()
+                        && ",}".indexOf(line.charAt(position[0])) < 0) {
+                    position[0]++;
+                }
+                value = line.substring(start, position[0]).trim();
+            }
+            if (value == null) {
+                return null;
+            }
+            fields.put(name, value);
+            skipSpaces(line, position);
+            if (position[0] >= line.length()) {
+                return null;
+            }
+            char separator = line.charAt(position[0]++);
+            if (separator == '}') {
+                return position[0] == line.length() ? fields : null;
+            } else if (separator != ',') {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a JSON string literal.
+     * 
+     * @param line
+     *            the line
+     * @param position
+     *            the position of the opening quote, moved after the closing
+     *            quote
+     * @return the string, or null if there is no complete string literal
+     */
+    private static String readString(final String line, final int[] position) {
+        final int hexRadix = 16;
+        final int hexDigits = 4;
+        if (position[0] >= line.length() || line.charAt(position[0]) != '"') {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        int i = position[0] + 1;
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c == '"') {
+                position[0] = i;
+                return value.toString();
+            } else if (c != '\\') {
+                value.append(c);
+            } else if (i < line.length()) {
+                char escaped = line.charAt(i++);
+                switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (i + hexDigits > line.length()) {
+                        return null;
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(
+                                line.substring(i, i + hexDigits), hexRadix));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    i += hexDigits;
+                    break;
+                default:
+                    value.append(escaped);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves the position over the white space.
+     * 
+     * @param line
+     *            the line
+     * @param position
+     *            the position
+     */
+    private static void skipSpaces(final String line, final int[] position) {
+        while (position[0] < line.length()
+                && Character.isWhitespace(line.charAt(position[0]))) {
+            position[0]++;
+        }
+    }
+}
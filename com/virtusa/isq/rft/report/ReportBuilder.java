@@ -0,0 +1,593 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+
+package com.virtusa.isq.rft.report;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import com.virtusa.isq.rft.runtime.XmlReportSink;
+
+/**
+ * Builds the VTAF HTML report offline from the step logs of the
+ * {@link com.virtusa.isq.rft.runtime.JsonLinesReportSink}. The logs of several
+ * machines can be merged into one report; the test cases are then labelled
+ * with their host.<br>
+ * <br>
+ * The steps are sharded by test case and host. The shards are transformed in
+ * parallel on a fork-join pool with the precompiled
+ * <code>ReportXSL.xsl</code>, while the calling thread renders the suites and
+ * test cases without their steps. The rendered shards are then stitched into
+ * the test cases of that page, and the page is written into the
+ * <code>report.html</code> shell with the <code>ReportCSS.css</code> and
+ * <code>ReportImg.png</code> assets. The written report needs neither the
+ * data file nor an XSLT capable browser.<br>
+ * <br>
+ * Usage:
+ * <code>ReportBuilder [-template dir] [-out dir] [-threads n] log.jsonl...</code>
+ */
+public final class ReportBuilder {
+
+    /** The default template directory. */
+    public static final String DEFAULT_TEMPLATE_DIR = "ReportTemplate";
+
+    /** The default output directory. */
+    public static final String DEFAULT_OUTPUT_DIR = "RFTReport";
+
+    /** The encoding of the report template and of the stylesheet output. */
+    private static final String HTML_ENCODING = "ISO-8859-1";
+
+    /** The element the rendered report is placed in. */
+    private static final String CONTENT_ELEMENT = "<div id='ReportContent'>";
+
+    /** The assets copied next to the report. */
+    private static final String[] ASSETS = {"ReportCSS.css", "ReportImg.png" };
+
+    /** The directory of the report template. */
+    private final File templateDir;
+
+    /** The pool the shards are transformed on. */
+    private final ForkJoinPool pool;
+
+    /** The shards by host, suite and test case, in the order read. */
+    private final Map<String, ReportShard> shards =
+            new LinkedHashMap<String, ReportShard>();
+
+    /** The time format of the step logs. */
+    private final SimpleDateFormat logTimeFormat = new SimpleDateFormat(
+            "yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    /** The item time format. */
+    private final SimpleDateFormat itemTimeFormat = new SimpleDateFormat(
+            "HH:mm:ss.SSS");
+
+    /** The StAX output factory. */
+    private final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+
+    /**
+     * Instantiates a new report builder.
+     * 
+     * @param reportTemplateDir
+     *            the directory of <code>report.html</code>,
+     *            <code>ReportXSL.xsl</code> and the assets
+     * @param parallelism
+     *            the number of threads the shards are transformed on
+     */
+    public ReportBuilder(final File reportTemplateDir, final int parallelism) {
+        this.templateDir = reportTemplateDir;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /**
+     * Builds a report from the command line.
+     * 
+     * @param args
+     *            the arguments
+     */
+    public static void main(final String[] args) {
+        File template = new File(DEFAULT_TEMPLATE_DIR);
+        File output = new File(DEFAULT_OUTPUT_DIR);
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<File> logs = new ArrayList<File>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("-template".equals(args[i]) && i + 1 < args.length) {
+                    template = new File(args[++i]);
+                } else if ("-out".equals(args[i]) && i + 1 < args.length) {
+                    output = new File(args[++i]);
+                } else if ("-threads".equals(args[i]) && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else {
+                    logs.add(new File(args[i]));
+                }
+            }
+        } catch (NumberFormatException e) {
+            logs.clear();
+        }
+        if (logs.isEmpty()) {
+            System.err.println("Usage : ReportBuilder [-template dir] "
+                    + "[-out dir] [-threads n] log.jsonl...");
+            System.exit(1);
+        }
+        ReportBuilder builder = new ReportBuilder(template, threads);
+        try {
+            for (File log : logs) {
+                builder.addLog(log);
+            }
+            File report = builder.build(output);
+            System.out.println("INFO : Report written to "
+                    + report.getAbsolutePath());
+        } catch (Exception e) {
+            System.err.println("Cannot build the report : " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            builder.shutdown();
+        }
+    }
+
+    /**
+     * Reads a step log and adds its steps to the shards.
+     * 
+     * @param log
+     *            the step log
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void addLog(final File log) throws IOException {
+        JsonLineReader reader = new JsonLineReader(log);
+        try {
+            Map<String, String> step;
+            while ((step = reader.next()) != null) {
+                addStep(step);
+            }
+            if (reader.getSkipped() > 0) {
+                System.err.println("Skipped " + reader.getSkipped()
+                        + " incomplete lines of " + log.getPath());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Adds a step to the shard of its test case.
+     * 
+     * @param step
+     *            the fields of the step
+     */
+    private void addStep(final Map<String, String> step) {
+        String host = valueOf(step.get("host"), "");
+        String suite = valueOf(step.get("suite"), "Default");
+        String script = valueOf(step.get("script"), "");
+        String testCase = valueOf(step.get("testcase"), script);
+        String key = host + "\n" + suite + "\n" + testCase;
+        ReportShard shard = shards.get(key);
+        if (shard == null) {
+            shard = new ReportShard(suite, testCase, script, host);
+            shards.put(key, shard);
+        }
+        long time = -1;
+        String timeText = valueOf(step.get("time"), "");
+        try {
+            Date date = logTimeFormat.parse(timeText);
+            time = date.getTime();
+            timeText = itemTimeFormat.format(date);
+        } catch (ParseException e) {
+            time = -1;
+        }
+        shard.addItem(time, timeText, getLevel(step.get("level")),
+                valueOf(step.get("step"), ""), valueOf(step.get("result"), ""),
+                valueOf(step.get("message"), ""));
+    }
+
+    /**
+     * Builds the report.
+     * 
+     * @param outputDir
+     *            the directory the report is written to
+     * @return the report file
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws TransformerException
+     *             Signals that the stylesheet failed.
+     * @throws XMLStreamException
+     *             Signals that a StAX error has occurred.
+     */
+    public File build(final File outputDir) throws IOException,
+            TransformerException, XMLStreamException {
+        Templates templates = compileStylesheet();
+        Map<String, List<ReportShard>> suites = groupBySuite();
+        List<ReportShard> ordered = new ArrayList<ReportShard>();
+        int rid = 0;
+        for (List<ReportShard> suiteShards : suites.values()) {
+            rid++;
+            for (ReportShard shard : suiteShards) {
+                shard.setRid(++rid);
+                ordered.add(shard);
+            }
+        }
+
+        byte[][] rendered = new byte[ordered.size()][];
+        ShardTransformTask task = null;
+        if (!ordered.isEmpty()) {
+            task =
+                    new ShardTransformTask(templates, factory, ordered,
+                            rendered, 0, ordered.size());
+            pool.execute(task);
+        }
+        byte[] page = renderPage(templates, suites);
+        if (task != null) {
+            task.join();
+        }
+
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create " + outputDir.getPath());
+        }
+        File report = new File(outputDir, "report.html");
+        writeReport(report, new String(page, HTML_ENCODING), ordered,
+                rendered);
+        for (String asset : ASSETS) {
+            File source = new File(templateDir, asset);
+            if (source.isFile()) {
+                copy(source, new File(outputDir, asset));
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Stops the threads of the builder.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Compiles the report stylesheet once for all the transformations.
+     * 
+     * @return the compiled stylesheet
+     * @throws TransformerConfigurationException
+     *             Signals that the stylesheet cannot be compiled.
+     */
+    private Templates compileStylesheet()
+            throws TransformerConfigurationException {
+        return TransformerFactory.newInstance().newTemplates(
+                new StreamSource(new File(templateDir, "ReportXSL.xsl")));
+    }
+
+    /**
+     * Groups the shards by suite, labelling the test cases with their host
+     * when the steps come from several hosts.
+     * 
+     * @return the shards of each suite, in the order read
+     */
+    private Map<String, List<ReportShard>> groupBySuite() {
+        Set<String> hosts = new LinkedHashSet<String>();
+        for (ReportShard shard : shards.values()) {
+            hosts.add(shard.getHost());
+        }
+        Map<String, List<ReportShard>> suites =
+                new LinkedHashMap<String, List<ReportShard>>();
+        for (ReportShard shard : shards.values()) {
+            if (hosts.size() > 1) {
+                shard.setLabel(shard.getLabel() + " [" + shard.getHost() + "]");
+            }
+            List<ReportShard> suiteShards = suites.get(shard.getSuite());
+            if (suiteShards == null) {
+                suiteShards = new ArrayList<ReportShard>();
+                suites.put(shard.getSuite(), suiteShards);
+            }
+            suiteShards.add(shard);
+        }
+        return suites;
+    }
+
+    /**
+     * Renders the report page with the suites and the test cases, without
+     * their steps.
+     * 
+     * @param templates
+     *            the compiled stylesheet
+     * @param suites
+     *            the shards of each suite
+     * @return the rendered page
+     * @throws TransformerException
+     *             Signals that the stylesheet failed.
+     * @throws XMLStreamException
+     *             Signals that a StAX error has occurred.
+     */
+    private byte[] renderPage(final Templates templates,
+            final Map<String, List<ReportShard>> suites)
+            throws TransformerException, XMLStreamException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        XMLStreamWriter writer = factory.createXMLStreamWriter(xml, "UTF-8");
+        long start = Long.MAX_VALUE;
+        long end = 0;
+        int failed = 0;
+        Set<String> hosts = new LinkedHashSet<String>();
+        for (ReportShard shard : shards.values()) {
+            if (shard.getStart() > 0) {
+                start = Math.min(start, shard.getStart());
+            }
+            end = Math.max(end, shard.getEnd());
+            failed += shard.isFailed() ? 1 : 0;
+            hosts.add(shard.getHost());
+        }
+        start = start == Long.MAX_VALUE ? end : start;
+
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeStartElement("report");
+        writer.writeStartElement("testexecution");
+        writer.writeAttribute("timestamp", new SimpleDateFormat(
+                "yyyy-MM-dd HH:mm:ss").format(new Date(start)));
+        StringBuilder hostNames = new StringBuilder();
+        for (String host : hosts) {
+            hostNames.append(hostNames.length() > 0 ? ", " : "").append(host);
+        }
+        writer.writeAttribute("host", hostNames.toString());
+        writer.writeAttribute("language", Locale.getDefault()
+                .getDisplayLanguage());
+        writer.writeAttribute("timeoutfactor", "1");
+        writeStatus(writer, shards.size() - failed, failed, end - start);
+        int rid = 0;
+        for (Map.Entry<String, List<ReportShard>> suite : suites.entrySet()) {
+            int suiteFailed = 0;
+            long suiteStart = Long.MAX_VALUE;
+            long suiteEnd = 0;
+            for (ReportShard shard : suite.getValue()) {
+                suiteFailed += shard.isFailed() ? 1 : 0;
+                suiteStart = Math.min(suiteStart, shard.getStart());
+                suiteEnd = Math.max(suiteEnd, shard.getEnd());
+            }
+            writer.writeStartElement("activity");
+            writer.writeAttribute("type", "test suite");
+            writer.writeAttribute("rid", String.valueOf(++rid));
+            writer.writeAttribute("testsuitename", suite.getKey());
+            writeStatus(writer, suite.getValue().size() - suiteFailed,
+                    suiteFailed, suiteEnd - suiteStart);
+            for (ReportShard shard : suite.getValue()) {
+                shard.writeTestCaseStart(writer);
+                writer.writeEndElement();
+                rid++;
+            }
+            writer.writeEndElement();
+        }
+        writer.writeEndDocument();
+        writer.close();
+
+        Transformer transformer = templates.newTransformer();
+        transformer.setParameter("loadAll", "1");
+        ByteArrayOutputStream html = new ByteArrayOutputStream();
+        transformer.transform(new StreamSource(new ByteArrayInputStream(
+                xml.toByteArray())), new StreamResult(html));
+        return removeDoctype(html.toByteArray());
+    }
+
+    /**
+     * Writes the result, count and duration attributes of the execution or
+     * a suite.
+     * 
+     * @param writer
+     *            the writer
+     * @param passed
+     *            the passed test case count
+     * @param failed
+     *            the failed test case count
+     * @param duration
+     *            the duration in milliseconds
+     * @throws XMLStreamException
+     *             Signals that a StAX error has occurred.
+     */
+    private static void writeStatus(final XMLStreamWriter writer,
+            final int passed, final int failed, final long duration)
+            throws XMLStreamException {
+        writer.writeAttribute("result", failed > 0 ? "Failed" : "Success");
+        writer.writeAttribute("totalsuccesscount", String.valueOf(passed));
+        writer.writeAttribute("totalfailedcount", String.valueOf(failed));
+        writer.writeAttribute("totalblockedcount", "0");
+        writer.writeAttribute("duration",
+                XmlReportSink.formatDuration(Math.max(0, duration)));
+    }
+
+    /**
+     * Writes the report: the shell of <code>report.html</code> with the
+     * rendered page, and the rendered shards in the lists of their test
+     * cases.
+     * 
+     * @param report
+     *            the report file
+     * @param page
+     *            the rendered page
+     * @param ordered
+     *            the shards in the order of the page
+     * @param rendered
+     *            the rendered shards
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void writeReport(final File report, final String page,
+            final List<ReportShard> ordered, final byte[][] rendered)
+            throws IOException {
+        String shell =
+                new String(readFile(new File(templateDir, "report.html")),
+                        HTML_ENCODING);
+        int content = shell.indexOf(CONTENT_ELEMENT);
+        int head = shell.indexOf("</head>");
+        if (content < 0 || head < 0 || head > content) {
+            throw new IOException("No " + CONTENT_ELEMENT + " in the report "
+                    + "template");
+        }
+        content += CONTENT_ELEMENT.length();
+
+        OutputStream out =
+                new BufferedOutputStream(new FileOutputStream(report));
+        try {
+            out.write(shell.substring(0, head).getBytes(HTML_ENCODING));
+            out.write("<script type=\"text/javascript\">var rxPrerendered = true;</script>"
+                    .getBytes(HTML_ENCODING));
+            out.write(shell.substring(head, content).getBytes(HTML_ENCODING));
+            int cursor = 0;
+            for (int i = 0; i < ordered.size(); i++) {
+                int testCase =
+                        page.indexOf("id=\"testcase" + ordered.get(i).getRid()
+                                + "\"", cursor);
+                int list = testCase < 0 ? -1 : page.indexOf("</ul>", testCase);
+                if (list < 0) {
+                    System.err.println("Test case "
+                            + ordered.get(i).getLabel()
+                            + " is not in the report page");
+                    continue;
+                }
+                out.write(page.substring(cursor, list).getBytes(HTML_ENCODING));
+                out.write(rendered[i]);
+                cursor = list;
+            }
+            out.write(page.substring(cursor).getBytes(HTML_ENCODING));
+            out.write(shell.substring(content).getBytes(HTML_ENCODING));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Removes the document type declaration the stylesheet writes before the
+     * HTML.
+     * 
+     * @param html
+     *            the HTML
+     * @return the HTML without the declaration
+     */
+    static byte[] removeDoctype(final byte[] html) {
+        int start = 0;
+        while (start < html.length && Character.isWhitespace(html[start])) {
+            start++;
+        }
+        if (start + 1 < html.length && html[start] == '<'
+                && html[start + 1] == '!') {
+            while (start < html.length && html[start] != '>') {
+                start++;
+            }
+            start++;
+        }
+        byte[] body = new byte[Math.max(0, html.length - start)];
+        System.arraycopy(html, html.length - body.length, body, 0,
+                body.length);
+        return body;
+    }
+
+    /**
+     * Gets the report level of a logged level.
+     * 
+     * @param level
+     *            the logged level, such as SUCCESS or FAILURE
+     * @return the report level
+     */
+    private static String getLevel(final String level) {
+        if ("SUCCESS".equals(level) || "Success".equals(level)) {
+            return "Success";
+        } else if ("VERIFICATION_FAILURE".equals(level)
+                || "Warn".equals(level)) {
+            return "Warn";
+        }
+        return "Error";
+    }
+
+    /**
+     * Returns the value, or the default for null and empty values.
+     * 
+     * @param value
+     *            the value
+     * @param defaultValue
+     *            the default value
+     * @return the value
+     */
+    private static String valueOf(final String value,
+            final String defaultValue) {
+        return value == null || "".equals(value) ? defaultValue : value;
+    }
+
+    /**
+     * Reads a file.
+     * 
+     * @param file
+     *            the file
+     * @return the content
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static byte[] readFile(final File file) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        InputStream in = new FileInputStream(file);
+        try {
+            final int bufferSize = 8192;
+            byte[] buffer = new byte[bufferSize];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                content.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Copies a file.
+     * 
+     * @param source
+     *            the source file
+     * @param target
+     *            the target file
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private static void copy(final File source, final File target)
+            throws IOException {
+        OutputStream out = new FileOutputStream(target);
+        try {
+            out.write(readFile(source));
+        } finally {
+            out.close();
+        }
+    }
+}
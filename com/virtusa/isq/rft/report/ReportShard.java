@@ -0,0 +1,275 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+
+package com.virtusa.isq.rft.report;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.virtusa.isq.rft.runtime.XmlReportSink;
+
+/**
+ * The steps of one test case run on one host. The report builder transforms
+ * each shard on its own, so the shards of a run are rendered in parallel.
+ */
+final class ReportShard {
+
+    /** The suite name. */
+    private final String suite;
+
+    /** The test case name. */
+    private final String testCase;
+
+    /** The script name. */
+    private final String script;
+
+    /** The host the test case ran on. */
+    private final String host;
+
+    /** The items: time, level, category, result and message. */
+    private final List<String[]> items = new ArrayList<String[]>();
+
+    /** The time of the first step. */
+    private long start = Long.MAX_VALUE;
+
+    /** The time of the last step. */
+    private long end = Long.MIN_VALUE;
+
+    /** The passed step count. */
+    private int passed;
+
+    /** The failed step count. */
+    private int failed;
+
+    /** The report id of the test case. */
+    private int rid;
+
+    /** The name shown in the report. */
+    private String label;
+
+    /**
+     * Instantiates a new report shard.
+     * 
+     * @param suiteName
+     *            the suite name
+     * @param testCaseName
+     *            the test case name
+     * @param scriptName
+     *            the script name
+     * @param hostName
+     *            the host the test case ran on
+     */
+    ReportShard(final String suiteName, final String testCaseName,
+            final String scriptName, final String hostName) {
+        this.suite = suiteName;
+        this.testCase = testCaseName;
+        this.script = scriptName;
+        this.host = hostName;
+        this.label = testCaseName;
+    }
+
+    /**
+     * Adds a step.
+     * 
+     * @param time
+     *            the time of the step, or -1 if it is unknown
+     * @param timeText
+     *            the time shown in the report
+     * @param level
+     *            the report level, such as Success or Error
+     * @param category
+     *            the step
+     * @param result
+     *            the result
+     * @param message
+     *            the message
+     */
+    void addItem(final long time, final String timeText, final String level,
+            final String category, final String result, final String message) {
+        items.add(new String[] {timeText, level, category, result, message });
+        if ("Success".equals(level)) {
+            passed++;
+        } else {
+            failed++;
+        }
+        if (time >= 0) {
+            start = Math.min(start, time);
+            end = Math.max(end, time);
+        }
+    }
+
+    /**
+     * Writes the shard as a report document holding the test case, its
+     * module and its items.
+     * 
+     * @param factory
+     *            the StAX output factory
+     * @return the UTF-8 bytes of the document
+     * @throws XMLStreamException
+     *             Signals that a StAX error has occurred.
+     */
+    byte[] toXml(final XMLOutputFactory factory) throws XMLStreamException {
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        XMLStreamWriter writer = factory.createXMLStreamWriter(xml, "UTF-8");
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeStartElement("report");
+        writer.writeStartElement("testexecution");
+        writeTestCaseStart(writer);
+        writer.writeStartElement("activity");
+        writer.writeAttribute("type", "test module");
+        writer.writeAttribute("rid", String.valueOf(rid) + "m");
+        writer.writeAttribute("modulename", testCase);
+        writer.writeAttribute("moduletype", "Recording");
+        writeStatus(writer);
+        for (String[] item : items) {
+            writer.writeStartElement("item");
+            writer.writeAttribute("time", item[0]);
+            writer.writeAttribute("level", item[1]);
+            writer.writeAttribute("category", item[2]);
+            writer.writeAttribute("result", item[3]);
+            writer.writeStartElement("message");
+            writer.writeCharacters(item[4]);
+            writer.writeEndElement();
+            writer.writeEndElement();
+        }
+        writer.writeEndDocument();
+        writer.close();
+        return xml.toByteArray();
+    }
+
+    /**
+     * Writes the start tag of the test case activity.
+     * 
+     * @param writer
+     *            the writer
+     * @throws XMLStreamException
+     *             Signals that a StAX error has occurred.
+     */
+    void writeTestCaseStart(final XMLStreamWriter writer)
+            throws XMLStreamException {
+        writer.writeStartElement("activity");
+        writer.writeAttribute("type", "test case");
+        writer.writeAttribute("rid", String.valueOf(rid));
+        writer.writeAttribute("testcasename", label);
+        writer.writeAttribute("testcaseid", script);
+        writer.writeAttribute("host", host);
+        writeStatus(writer);
+    }
+
+    /**
+     * Writes the result, count and duration attributes.
+     * 
+     * @param writer
+     *            the writer
+     * @throws XMLStreamException
+     *             Signals that a StAX error has occurred.
+     */
+    private void writeStatus(final XMLStreamWriter writer)
+            throws XMLStreamException {
+        writer.writeAttribute("result", isFailed() ? "Failed" : "Success");
+        writer.writeAttribute("totalsuccesscount", String.valueOf(passed));
+        writer.writeAttribute("totalfailedcount", String.valueOf(failed));
+        writer.writeAttribute("totalblockedcount", "0");
+        writer.writeAttribute("duration",
+                XmlReportSink.formatDuration(getEnd() - getStart()));
+    }
+
+    /**
+     * Gets the suite name.
+     * 
+     * @return the suite name
+     */
+    String getSuite() {
+        return suite;
+    }
+
+    /**
+     * Gets the host the test case ran on.
+     * 
+     * @return the host
+     */
+    String getHost() {
+        return host;
+    }
+
+    /**
+     * Gets the name shown in the report.
+     * 
+     * @return the label
+     */
+    String getLabel() {
+        return label;
+    }
+
+    /**
+     * Sets the name shown in the report.
+     * 
+     * @param reportLabel
+     *            the label
+     */
+    void setLabel(final String reportLabel) {
+        this.label = reportLabel;
+    }
+
+    /**
+     * Gets the report id of the test case.
+     * 
+     * @return the report id
+     */
+    int getRid() {
+        return rid;
+    }
+
+    /**
+     * Sets the report id of the test case. The module gets the same id with
+     * an m suffix.
+     * 
+     * @param reportId
+     *            the report id
+     */
+    void setRid(final int reportId) {
+        this.rid = reportId;
+    }
+
+    /**
+     * Checks whether a step of the test case failed.
+     * 
+     * @return true, if the test case failed
+     */
+    boolean isFailed() {
+        return failed > 0;
+    }
+
+    /**
+     * Gets the time of the first step.
+     * 
+     * @return the start time, 0 if no step has a time
+     */
+    long getStart() {
+        return start == Long.MAX_VALUE ? 0 : start;
+    }
+
+    /**
+     * Gets the time of the last step.
+     * 
+     * @return the end time, 0 if no step has a time
+     */
+    long getEnd() {
+        return end == Long.MIN_VALUE ? 0 : end;
+    }
+}
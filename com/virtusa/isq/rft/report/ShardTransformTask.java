@@ -0,0 +1,115 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+
+package com.virtusa.isq.rft.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Renders a range of shards on a fork-join pool. The range is split in
+ * halves until it holds one shard; each shard is written as its own report
+ * document and transformed in the TestCaseDetail mode of the precompiled
+ * stylesheet. A {@link Transformer} is not thread safe, so every shard gets a
+ * new one from the shared {@link Templates}.
+ */
+final class ShardTransformTask extends RecursiveAction {
+
+    /** The serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The compiled report stylesheet. */
+    private final transient Templates templates;
+
+    /** The StAX output factory. */
+    private final transient XMLOutputFactory factory;
+
+    /** The shards. */
+    private final transient List<ReportShard> shards;
+
+    /** The rendered HTML of each shard, in the order of the shards. */
+    private final byte[][] results;
+
+    /** The first shard of the range. */
+    private final int from;
+
+    /** The end of the range. */
+    private final int to;
+
+    /**
+     * Instantiates a new shard transform task.
+     * 
+     * @param compiledTemplates
+     *            the compiled report stylesheet
+     * @param outputFactory
+     *            the StAX output factory
+     * @param reportShards
+     *            the shards
+     * @param renderedShards
+     *            receives the rendered HTML of each shard
+     * @param first
+     *            the first shard of the range
+     * @param end
+     *            the end of the range
+     */
+    ShardTransformTask(final Templates compiledTemplates,
+            final XMLOutputFactory outputFactory,
+            final List<ReportShard> reportShards,
+            final byte[][] renderedShards, final int first, final int end) {
+        this.templates = compiledTemplates;
+        this.factory = outputFactory;
+        this.shards = reportShards;
+        this.results = renderedShards;
+        this.from = first;
+        this.to = end;
+    }
+
+    /**
+     * Override.
+     * 
+     * @see java.util.concurrent.RecursiveAction#compute()
+     */
+    @Override
+    protected void compute() {
+        if (to - from > 1) {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ShardTransformTask(templates, factory, shards,
+                    results, from, middle), new ShardTransformTask(templates,
+                    factory, shards, results, middle, to));
+            return;
+        }
+        ReportShard shard = shards.get(from);
+        try {
+            Transformer transformer = templates.newTransformer();
+            transformer.setParameter("detailMode", "TestCaseDetail");
+            transformer.setParameter("testcaserid",
+                    String.valueOf(shard.getRid()));
+            transformer.setParameter("loadAll", "1");
+            ByteArrayOutputStream html = new ByteArrayOutputStream();
+            transformer.transform(new StreamSource(new ByteArrayInputStream(
+                    shard.toXml(factory))), new StreamResult(html));
+            results[from] = ReportBuilder.removeDoctype(html.toByteArray());
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot render the test case "
+                    + shard.getLabel() + " : " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.virtusa.isq.rft.utils.PropertyHandler;
+
+/**
+ * Writes the reported steps in the background. The test thread only puts the
+ * {@link ReportEvent} on a bounded ring buffer; a daemon thread takes all the
+ * queued events at once and writes them to the file sinks, the side file, the
+ * report data file and the JSON Lines file, flushing the sinks once per batch.
+ * When the buffer is full the test thread waits for the writer, so no step is
+ * lost.<br>
+ * <br>
+ * The RFT log is written at once on the test thread, so the steps keep their
+ * order with the entries logged by RFT itself and none is left to be written
+ * after RFT has closed its log.<br>
+ * <br>
+ * Runtime properties:
+ * <ul>
+ * <li>REPORT_ASYNC : false to write the steps on the test thread</li>
+ * <li>REPORT_BUFFER_SIZE : the capacity of the ring buffer, 1024 by default</li>
+ * <li>REPORT_EVENT_FILE : the side file, report-events.log by default, or
+ * none to disable it</li>
+ * <li>REPORT_XML_FILE : the VTAF report data file written by the
+ * {@link XmlReportSink}, RFTReport/report.html.data by default, or none to
+ * disable it</li>
+ * <li>REPORT_FRAGMENTS : true to write each test case of the report data
+ * file to its own fragment, loaded by the report when it is expanded</li>
+ * <li>REPORT_JSONL_FILE : the JSON Lines file written by the
+ * {@link JsonLinesReportSink}, RFTReport/report-events.jsonl by default, or
+ * none to disable it</li>
+ * </ul>
+ */
+public final class AsyncReportWriter {
+
+    /** The default capacity of the ring buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    /** The default side file. */
+    public static final String DEFAULT_EVENT_FILE = "report-events.log";
+
+    /** The default VTAF report data file. */
+    public static final String DEFAULT_XML_FILE = "RFTReport/report.html.data";
+
+    /** The default JSON Lines file. */
+    public static final String DEFAULT_JSONL_FILE =
+            "RFTReport/report-events.jsonl";
+
+    /** The instance, created on first use. */
+    private static AsyncReportWriter instance;
+
+    /** The ring buffer. */
+    private final ReportEvent[] buffer;
+
+    /** The index of the oldest queued event. */
+    private int head;
+
+    /** The number of queued events. */
+    private int count;
+
+    /** The number of events submitted so far. */
+    private long submitted;
+
+    /** The number of events written so far. */
+    private long written;
+
+    /** The lock guarding the buffer. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when an event is queued. */
+    private final Condition notEmpty = lock.newCondition();
+
+    /** Signalled when the writer takes events from the buffer. */
+    private final Condition notFull = lock.newCondition();
+
+    /** Signalled when the writer has written a batch. */
+    private final Condition drained = lock.newCondition();
+
+    /** The sinks written on the writer thread. */
+    private final List<IReportSink> sinks =
+            new CopyOnWriteArrayList<IReportSink>();
+
+    /** The sinks written on the thread submitting the event. */
+    private final List<IReportSink> callerSinks =
+            new CopyOnWriteArrayList<IReportSink>();
+
+    /** Whether the events are written on the writer thread. */
+    private final boolean async;
+
+    /**
+     * Instantiates a new async report writer.
+     * 
+     * @param bufferSize
+     *            the capacity of the ring buffer
+     * @param asyncWrite
+     *            whether the events are written on a background thread
+     */
+    AsyncReportWriter(final int bufferSize, final boolean asyncWrite) {
+        this.buffer = new ReportEvent[Math.max(1, bufferSize)];
+        this.async = asyncWrite;
+        if (async) {
+            Thread writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeEvents();
+                }
+            }, "ReportWriter");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the report writer configured by the runtime properties.
+     * 
+     * @return the report writer
+     */
+    public static synchronized AsyncReportWriter getInstance() {
+        if (instance == null) {
+            PropertyHandler propfile = new PropertyHandler("RUNTIME.properties");
+            int bufferSize = DEFAULT_BUFFER_SIZE;
+            String size = propfile.getRuntimeProperty("REPORT_BUFFER_SIZE");
+            try {
+                if (size != null && !"".equals(size.trim())) {
+                    bufferSize = Integer.parseInt(size.trim());
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid REPORT_BUFFER_SIZE " + size
+                        + ", using " + DEFAULT_BUFFER_SIZE);
+            }
+            instance =
+                    new AsyncReportWriter(bufferSize,
+                            !"false".equalsIgnoreCase(propfile
+                                    .getRuntimeProperty("REPORT_ASYNC")));
+            instance.addCallerSink(new RftLogSink());
+            File eventFile =
+                    getSinkFile(propfile, "REPORT_EVENT_FILE",
+                            DEFAULT_EVENT_FILE);
+            if (eventFile != null) {
+                instance.addSink(new FileReportSink(eventFile));
+            }
+            File xmlFile =
+                    getSinkFile(propfile, "REPORT_XML_FILE", DEFAULT_XML_FILE);
+            if (xmlFile != null) {
+                instance.addSink(new XmlReportSink(xmlFile, "true"
+                        .equalsIgnoreCase(propfile
+                                .getRuntimeProperty("REPORT_FRAGMENTS"))));
+            }
+            File jsonlFile =
+                    getSinkFile(propfile, "REPORT_JSONL_FILE",
+                            DEFAULT_JSONL_FILE);
+            if (jsonlFile != null) {
+                instance.addSink(new JsonLinesReportSink(jsonlFile));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the file of a sink from the runtime properties.
+     * 
+     * @param propfile
+     *            the runtime properties
+     * @param key
+     *            the property key
+     * @param defaultFile
+     *            the file used when the property is not set
+     * @return the file, or null if the property is none
+     */
+    private static File getSinkFile(final PropertyHandler propfile,
+            final String key, final String defaultFile) {
+        String fileName = propfile.getRuntimeProperty(key);
+        if (fileName == null || "".equals(fileName.trim())) {
+            fileName = defaultFile;
+        }
+        if ("none".equalsIgnoreCase(fileName.trim())) {
+            return null;
+        }
+        return new File(fileName.trim());
+    }
+
+    /**
+     * Adds a sink. The sink receives the events submitted from then on.
+     * 
+     * @param sink
+     *            the sink
+     */
+    public void addSink(final IReportSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Adds a sink written on the thread submitting each event, before the
+     * event is queued for the other sinks. Used for the destinations which
+     * must be written by the test thread, such as the RFT log.
+     * 
+     * @param sink
+     *            the sink
+     */
+    public void addCallerSink(final IReportSink sink) {
+        callerSinks.add(sink);
+    }
+
+    /**
+     * Queues an event, waiting while the buffer is full. In synchronous mode
+     * the event is written at once.
+     * 
+     * @param event
+     *            the event
+     */
+    public void submit(final ReportEvent event) {
+        ReportEvent[] single = new ReportEvent[] {event };
+        if (!async) {
+            synchronized (this) {
+                writeBatch(callerSinks, single, 1);
+                writeBatch(sinks, single, 1);
+            }
+            return;
+        }
+        writeBatch(callerSinks, single, 1);
+        lock.lock();
+        try {
+            while (count == buffer.length) {
+                notFull.awaitUninterruptibly();
+            }
+            buffer[(head + count) % buffer.length] = event;
+            count++;
+            submitted++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all the events submitted so far are written and the sinks
+     * are flushed.
+     */
+    public void flush() {
+        if (!async) {
+            return;
+        }
+        lock.lock();
+        try {
+            long target = submitted;
+            while (written < target) {
+                drained.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The loop of the writer thread: takes all the queued events and writes
+     * them as one batch.
+     */
+    private void writeEvents() {
+        ReportEvent[] batch = new ReportEvent[buffer.length];
+        while (true) {
+            int size;
+            lock.lock();
+            try {
+                while (count == 0) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                size = count;
+                for (int i = 0; i < size; i++) {
+                    batch[i] = buffer[head];
+                    buffer[head] = null;
+                    head = (head + 1) % buffer.length;
+                }
+                count = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            writeBatch(sinks, batch, size);
+            for (int i = 0; i < size; i++) {
+                batch[i] = null;
+            }
+            lock.lock();
+            try {
+                written += size;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of events to the given sinks and flushes them. A failing
+     * sink does not stop the others.
+     * 
+     * @param targets
+     *            the sinks
+     * @param batch
+     *            the events
+     * @param size
+     *            the number of events of the batch
+     */
+    private static void writeBatch(final List<IReportSink> targets,
+            final ReportEvent[] batch, final int size) {
+        for (IReportSink sink : targets) {
+            try {
+                for (int i = 0; i < size; i++) {
+                    sink.write(batch[i]);
+                }
+                sink.flush();
+            } catch (Exception e) {
+                System.err.println("Cannot write the report events to "
+                        + sink.getClass().getSimpleName() + " : "
+                        + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+/**
+ * One step of a batch of type commands, such as a field of a data entry form.
+ * 
+ * @see ICommandBase#fillForm(java.util.List)
+ */
+public final class BatchStep {
+
+    /** The object name. */
+    private final String objectName;
+
+    /** The identifier. */
+    private final String identifier;
+
+    /** The input value. */
+    private final Object inputValue;
+
+    /**
+     * Instantiates a new batch step.
+     * 
+     * @param stepObjectName
+     *            the object name
+     * @param stepInputValue
+     *            the input value
+     */
+    public BatchStep(final String stepObjectName, final Object stepInputValue) {
+        this(stepObjectName, "", stepInputValue);
+    }
+
+    /**
+     * Instantiates a new batch step.
+     * 
+     * @param stepObjectName
+     *            the object name
+     * @param stepIdentifier
+     *            the identifier
+     * @param stepInputValue
+     *            the input value
+     */
+    public BatchStep(final String stepObjectName, final String stepIdentifier,
+            final Object stepInputValue) {
+        this.objectName = stepObjectName;
+        this.identifier = stepIdentifier;
+        this.inputValue = stepInputValue;
+    }
+
+    /**
+     * Gets the object name.
+     * 
+     * @return the object name
+     */
+    public String getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Gets the identifier.
+     * 
+     * @return the identifier
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Gets the input value.
+     * 
+     * @return the input value
+     */
+    public Object getInputValue() {
+        return inputValue;
+    }
+
+    /**
+     * Override.
+     * 
+     * @return the string
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return objectName + " : " + inputValue;
+    }
+}
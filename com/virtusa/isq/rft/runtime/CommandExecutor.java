@@ -0,0 +1,222 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.util.concurrent.TimeUnit;
+
+import com.rational.test.ft.object.interfaces.TestObject;
+import com.rational.test.ft.script.impl.UserAbortedActionException;
+import com.virtusa.isq.rft.metrics.CommandMetrics;
+import com.virtusa.isq.rft.objectmap.ObjectLocator;
+import com.virtusa.isq.rft.wait.RetryPolicy;
+import com.virtusa.isq.rft.wait.WaitSession;
+import com.virtusa.isq.rft.wait.WaitStrategyFactory;
+
+/**
+ * Runs the element commands through the same stages: locate, act, verify and
+ * report. The failed actions are retried as configured by the
+ * {@link RetryPolicy} of the command, within the time budget of the command,
+ * and the found test objects are forgotten after each failure so that a
+ * stale object is not reused. The time of each attempt of the action is
+ * recorded in the {@link CommandMetrics}.
+ */
+public class CommandExecutor {
+
+    /** The locate stage. */
+    private ILocateStage locateStage;
+
+    /** The report stage. */
+    private IReportStage reportStage;
+
+    /**
+     * Instantiates a new command executor.
+     * 
+     * @param locate
+     *            the locate stage
+     * @param report
+     *            the report stage
+     */
+    public CommandExecutor(final ILocateStage locate, final IReportStage report) {
+        this.locateStage = locate;
+        this.reportStage = report;
+    }
+
+    /**
+     * Runs the given command and releases the found test objects.
+     * 
+     * @param command
+     *            the command
+     * @return true, if the command has passed
+     */
+    public final boolean execute(final ElementCommand command) {
+        try {
+            return execute(command, null);
+        } finally {
+            locateStage.release();
+        }
+    }
+
+    /**
+     * Runs the given command on the test objects already found for it. The
+     * objects are not released; the caller releases them when it is done.
+     * 
+     * @param command
+     *            the command
+     * @param foundElements
+     *            the objects found for the command, or null to locate them
+     * @return true, if the command has passed
+     */
+    public final boolean execute(final ElementCommand command,
+            final TestObject[] foundElements) {
+        ObjectLocator locator = command.getLocator();
+        RetryPolicy policy =
+                WaitStrategyFactory.getRetryPolicy(command.getCommand(),
+                        locator.getSettings());
+        CommandMetrics metrics = CommandMetrics.getInstance();
+        metrics.beginCommand(command.getCommand(), locator.getLogicalName());
+        long startTime = System.nanoTime();
+        try {
+            TestObject[] elements = foundElements;
+            if (elements == null) {
+                elements = locateStage.locate(locator, command.getCommand());
+            }
+            WaitSession session = policy.getRetryStrategy().start();
+            while (true) {
+                if (elements.length == 0 && command.isElementRequired()) {
+                    report(command, ReportLogger.ReportLevel.FAILURE,
+                            command.getNotFoundMessage());
+                    return false;
+                }
+                long actStart = System.nanoTime();
+                try {
+                    String message;
+                    try {
+                        message = command.act(elements);
+                        command.verify(elements);
+                    } finally {
+                        metrics.record(CommandMetrics.Phase.ACT, actStart);
+                    }
+                    if (message != null) {
+                        report(command, ReportLogger.ReportLevel.SUCCESS,
+                                message);
+                    }
+                    return true;
+                } catch (UserAbortedActionException ex) {
+                    throw ex;
+                } catch (CommandFailureException ex) {
+                    report(command, ReportLogger.ReportLevel.FAILURE,
+                            ex.getMessage());
+                    return false;
+                } catch (Exception ex) {
+                    locateStage.invalidate(locator);
+                    if (policy.isExpired(getElapsedTime(startTime))
+                            || !session.awaitNextAttempt()
+                            || policy.isExpired(getElapsedTime(startTime))) {
+                        ex.printStackTrace();
+                        report(command, ReportLogger.ReportLevel.FAILURE,
+                                command.getAccessErrorMessage(ex));
+                        return false;
+                    }
+                    if (command.isRelocatedOnRetry()) {
+                        elements =
+                                locateStage.locate(locator,
+                                        command.getCommand());
+                    }
+                }
+            }
+        } catch (UserAbortedActionException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            report(command, ReportLogger.ReportLevel.FAILURE,
+                    command.getErrorMessage(ex));
+            return false;
+        } finally {
+            metrics.endCommand();
+        }
+    }
+
+    /**
+     * Reports a result of the given command, unless the command is not
+     * reported.
+     * 
+     * @param command
+     *            the command
+     * @param level
+     *            the level
+     * @param message
+     *            the message
+     */
+    private void report(final ElementCommand command,
+            final ReportLogger.ReportLevel level, final String message) {
+        if (!command.isReported()) {
+            return;
+        }
+        if (level == ReportLogger.ReportLevel.SUCCESS) {
+            reportStage.report(false, level, command.getStep(), "Success",
+                    message);
+        } else {
+            reportStage.report(command.isStopOnFailure(), level,
+                    command.getStep(), "Error", message);
+        }
+    }
+
+    /**
+     * Gets the time since the given start time.
+     * 
+     * @param startTime
+     *            the start time in nanoseconds
+     * @return the elapsed time in milliseconds
+     */
+    private static long getElapsedTime(final long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Gets the locate stage.
+     * 
+     * @return the locate stage
+     */
+    public final ILocateStage getLocateStage() {
+        return locateStage;
+    }
+
+    /**
+     * Sets the locate stage.
+     * 
+     * @param locate
+     *            the new locate stage
+     */
+    public final void setLocateStage(final ILocateStage locate) {
+        this.locateStage = locate;
+    }
+
+    /**
+     * Gets the report stage.
+     * 
+     * @return the report stage
+     */
+    public final IReportStage getReportStage() {
+        return reportStage;
+    }
+
+    /**
+     * Sets the report stage.
+     * 
+     * @param report
+     *            the new report stage
+     */
+    public final void setReportStage(final IReportStage report) {
+        this.reportStage = report;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+/**
+ * Thrown by the act or verify stage of a command when the command has failed
+ * and retrying the action would not help, for example when the actual value
+ * of a checked property does not match the expected one. The message is
+ * reported as it is.
+ */
+public class CommandFailureException extends Exception {
+
+    /** The Constant serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Instantiates a new command failure exception.
+     * 
+     * @param message
+     *            the failure message
+     */
+    public CommandFailureException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.util.Arrays;
+
+import com.rational.test.ft.object.interfaces.TestObject;
+import com.virtusa.isq.rft.objectmap.ObjectLocator;
+
+/**
+ * A command on the test objects of one locator, run by the
+ * {@link CommandExecutor}. The executor locates the objects, and then calls
+ * the act and verify stages of the command, retrying them while they throw an
+ * exception, and reports the outcome. A stage throws a
+ * {@link CommandFailureException} for a failure that must not be retried.
+ */
+public abstract class ElementCommand {
+
+    /** The report step name, such as Click. */
+    private final String step;
+
+    /** The command name, such as click. */
+    private final String command;
+
+    /** The locator. */
+    private final ObjectLocator locator;
+
+    /** The input value, or null if the command has none. */
+    private final Object inputValue;
+
+    /** Whether a failure stops the test case. */
+    private final boolean stopOnFailure;
+
+    /**
+     * Instantiates a new element command.
+     * 
+     * @param commandStep
+     *            the report step name, such as Click
+     * @param commandName
+     *            the command name, such as click, which selects the wait and
+     *            retry configuration
+     * @param commandLocator
+     *            the locator
+     * @param commandInputValue
+     *            the input value, or null if the command has none
+     * @param commandStopOnFailure
+     *            whether a failure stops the test case
+     */
+    protected ElementCommand(final String commandStep,
+            final String commandName, final ObjectLocator commandLocator,
+            final Object commandInputValue, final boolean commandStopOnFailure) {
+        this.step = commandStep;
+        this.command = commandName;
+        this.locator = commandLocator;
+        this.inputValue = commandInputValue;
+        this.stopOnFailure = commandStopOnFailure;
+    }
+
+    /**
+     * Acts on the found test objects.
+     * 
+     * @param elements
+     *            the found test objects, never empty unless
+     *            {@link #isElementRequired()} is false
+     * @return the success message, or null if the command reports its result
+     *         by itself
+     * @throws Exception
+     *             if the action fails
+     */
+    protected abstract String act(TestObject[] elements) throws Exception;
+
+    /**
+     * Verifies the outcome of the action. Does nothing by default.
+     * 
+     * @param elements
+     *            the found test objects
+     * @throws Exception
+     *             if the outcome is not the expected one
+     */
+    protected void verify(final TestObject[] elements) throws Exception {
+    }
+
+    /**
+     * Checks if the command fails when no test object is found. When it does
+     * not, the act stage is called with an empty array.
+     * 
+     * @return true, if an object is required
+     */
+    protected boolean isElementRequired() {
+        return true;
+    }
+
+    /**
+     * Checks if the test objects are searched again before each retry of the
+     * action, instead of reusing the objects already found.
+     * 
+     * @return true, if the objects are located again
+     */
+    protected boolean isRelocatedOnRetry() {
+        return false;
+    }
+
+    /**
+     * Checks if the results of the command are reported.
+     * 
+     * @return true, if reported
+     */
+    protected boolean isReported() {
+        return true;
+    }
+
+    /**
+     * Gets the message reported when no test object is found, naming the
+     * container the element was searched in, if any.
+     * 
+     * @return the message
+     */
+    protected String getNotFoundMessage() {
+        String container = "";
+        if (locator.getParentLocator() != null) {
+            container =
+                    " in the container "
+                            + locator.getParentLocator().getLogicalName();
+        }
+        return "Cannot find the element. ::: " + getInputDescription()
+                + "Object : " + locator.getLogicalName() + " ::: "
+                + "Actual Error : Cannot find the element with properties : "
+                + Arrays.asList(locator.getSharedPropertyArray()) + container;
+    }
+
+    /**
+     * Gets the message reported when the action has failed on every retry.
+     * 
+     * @param ex
+     *            the error of the last retry
+     * @return the message
+     */
+    protected String getAccessErrorMessage(final Exception ex) {
+        return "Cannot access the element. ::: " + getInputDescription()
+                + "Object : " + Arrays.asList(locator.getSharedPropertyArray())
+                + " ::: " + "Actual Error : " + ex.getMessage();
+    }
+
+    /**
+     * Gets the message reported when the objects cannot be searched.
+     * 
+     * @param ex
+     *            the error
+     * @return the message
+     */
+    protected String getErrorMessage(final Exception ex) {
+        return "Cannot find the element. ::: " + getInputDescription()
+                + "Object : " + Arrays.asList(locator.getSharedPropertyArray())
+                + " ::: " + "Actual Error : " + ex.getMessage();
+    }
+
+    /**
+     * Gets the input value part of the failure messages.
+     * 
+     * @return the input description, empty if the command has no input
+     */
+    protected String getInputDescription() {
+        return inputValue == null ? "" : "Input value : " + inputValue + " ";
+    }
+
+    /**
+     * Gets the report step name.
+     * 
+     * @return the step
+     */
+    public final String getStep() {
+        return step;
+    }
+
+    /**
+     * Gets the command name.
+     * 
+     * @return the command
+     */
+    public final String getCommand() {
+        return command;
+    }
+
+    /**
+     * Gets the locator.
+     * 
+     * @return the locator
+     */
+    public final ObjectLocator getLocator() {
+        return locator;
+    }
+
+    /**
+     * Gets the input value.
+     * 
+     * @return the input value, or null if the command has none
+     */
+    public final Object getInputValue() {
+        return inputValue;
+    }
+
+    /**
+     * Checks if a failure stops the test case.
+     * 
+     * @return true, if the test case is stopped
+     */
+    public final boolean isStopOnFailure() {
+        return stopOnFailure;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Appends the reported steps to a text file, one tab separated line per step:
+ * time, level, step, result and message.
+ */
+public class FileReportSink implements IReportSink {
+
+    /** The file. */
+    private final File file;
+
+    /** The time format. */
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat(
+            "yyyy-MM-dd HH:mm:ss.SSS");
+
+    /** The writer, opened on the first event. */
+    private Writer writer;
+
+    /**
+     * Instantiates a new file report sink.
+     * 
+     * @param sinkFile
+     *            the file the steps are appended to
+     */
+    public FileReportSink(final File sinkFile) {
+        this.file = sinkFile;
+    }
+
+    /**
+     * Override.
+     * 
+     * @param event
+     *            the event
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#write(com.virtusa.isq.rft.runtime.ReportEvent)
+     */
+    @Override
+    public void write(final ReportEvent event) throws IOException {
+        if (writer == null) {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory()) {
+                parent.mkdirs();
+            }
+            writer =
+                    new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(file, true), "UTF-8"));
+        }
+        writer.write(timeFormat.format(new Date(event.getTime())) + "\t"
+                + event.getLevel() + "\t" + clean(event.getStep()) + "\t"
+                + clean(event.getResult()) + "\t" + clean(event.getMessage())
+                + System.getProperty("line.separator"));
+    }
+
+    /**
+     * Replaces the line breaks and tabs of a value, which would break the
+     * line format.
+     * 
+     * @param value
+     *            the value
+     * @return the cleaned value
+     */
+    private static String clean(final String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\r', ' ')
+                .replace('\n', ' ');
+    }
+
+    /**
+     * Override.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#flush()
+     */
+    @Override
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Override.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
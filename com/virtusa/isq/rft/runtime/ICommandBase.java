@@ -11,6 +11,8 @@
 
 package com.virtusa.isq.rft.runtime;
 
+import java.util.List;
+
 /**
  * The Interface ICommandBase.
  */
@@ -89,6 +91,17 @@ public interface ICommandBase {
      */
     void type(String objectName, String identifier, Object inputValue);
 
+    /**
+     * Types the values of all the given steps in order. The objects of the
+     * steps are resolved together, so that the fields sharing a container and
+     * a class are found with a single search instead of one search per field.
+     * Each step is reported as a separate type command.
+     * 
+     * @param steps
+     *            the steps
+     */
+    void fillForm(List<BatchStep> steps);
+
     /**
      * Pause.
      * 
@@ -235,6 +248,46 @@ public interface ICommandBase {
      */
     void store(String key, String type, String value);
 
+    /**
+     * Store an int value.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void store(String key, int value);
+
+    /**
+     * Store a float value.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void store(String key, float value);
+
+    /**
+     * Store a boolean value.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void store(String key, boolean value);
+
+    /**
+     * Store a list of values.
+     *
+     * @param key the key
+     * @param values the values
+     */
+    void store(String key, List<String> values);
+
+    /**
+     * Retrieve list.
+     *
+     * @param key the key
+     * @return the list
+     */
+    List<String> retrieveList(String key);
+
     /**
      * Retrieve float.
      *
@@ -372,11 +425,38 @@ public interface ICommandBase {
 
     void mouseMoveAndClick(String resolution, String coordinates, String waitTime) throws Exception;
 
+    /**
+     * Checks the data of a table. The validation types are:
+     * <ul>
+     * <li>ROWCOUNT, COLCOUNT : the expected row or column count</li>
+     * <li>TABLEDATA : cells expected in sequence, separated by commas</li>
+     * <li>RELATIVE : parent text, offset and cell text, separated by commas;
+     * several checks are separated by #</li>
+     * <li>TABLECELL : row, column and cell text, separated by commas</li>
+     * <li>STREAMDATA : the same as TABLEDATA, for very large or paged
+     * tables; the table is read in chunks of TABLE_CHUNK_ROWS rows and the
+     * reading stops as soon as the cells are found</li>
+     * </ul>
+     *
+     * @param objectName the object name
+     * @param identifier the identifier
+     * @param validationTypeS the validation type
+     * @param objExpectedvale the expected value
+     * @param stopOnFaliure the stop on faliure
+     */
     void checkTable(String objectName, String identifier,
             String validationTypeS, Object objExpectedvale,
             boolean stopOnFaliure);
 
-
+    /**
+     * Checks the data of a table.
+     *
+     * @param objectName the object name
+     * @param validationTypeS the validation type
+     * @param objExpectedvale the expected value
+     * @param stopOnFaliure the stop on faliure
+     * @see #checkTable(String, String, String, Object, boolean)
+     */
     void checkTable(String objectName, String validationTypeS,
             Object objExpectedvale, boolean stopOnFaliure);
 
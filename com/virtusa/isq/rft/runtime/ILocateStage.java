@@ -0,0 +1,50 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+import com.rational.test.ft.object.interfaces.TestObject;
+import com.virtusa.isq.rft.objectmap.ObjectLocator;
+
+/**
+ * The locate stage of the command executor, which finds the test objects of a
+ * locator and releases them when the command is over.
+ * 
+ * @see CommandExecutor
+ */
+public interface ILocateStage {
+
+    /**
+     * Finds the test objects of the given locator.
+     * 
+     * @param locator
+     *            the locator
+     * @param command
+     *            the command name
+     * @return the found test objects, empty if none is found
+     */
+    TestObject[] locate(ObjectLocator locator, String command);
+
+    /**
+     * Forgets the test objects found for the given locator, after an action
+     * on them has failed.
+     * 
+     * @param locator
+     *            the locator
+     */
+    void invalidate(ObjectLocator locator);
+
+    /**
+     * Releases the test objects found by the command.
+     */
+    void release();
+}
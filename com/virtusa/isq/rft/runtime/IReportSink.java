@@ -0,0 +1,50 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.io.IOException;
+
+/**
+ * A destination of the reported steps, fed by the {@link AsyncReportWriter}.
+ * The writer calls {@link #write(ReportEvent)} for each event of a batch and
+ * then {@link #flush()} once, from its own thread, or from the test thread for
+ * the sinks added with {@link AsyncReportWriter#addCallerSink(IReportSink)}.
+ */
+public interface IReportSink {
+
+    /**
+     * Writes one event.
+     * 
+     * @param event
+     *            the event
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void write(ReportEvent event) throws IOException;
+
+    /**
+     * Flushes the events written so far.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Closes the sink.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void close() throws IOException;
+}
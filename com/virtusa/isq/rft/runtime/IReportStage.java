@@ -0,0 +1,38 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+/**
+ * The report stage of the command executor.
+ * 
+ * @see CommandExecutor
+ */
+public interface IReportStage {
+
+    /**
+     * Reports the result of a command step.
+     * 
+     * @param stopOnFailure
+     *            whether a failure stops the test case
+     * @param level
+     *            the level
+     * @param step
+     *            the step
+     * @param result
+     *            the result
+     * @param message
+     *            the message
+     */
+    void report(boolean stopOnFailure, ReportLogger.ReportLevel level,
+            String step, String result, String message);
+}
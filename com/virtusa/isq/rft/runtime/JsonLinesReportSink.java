@@ -0,0 +1,188 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Writes the reported steps as JSON Lines, one JSON object per step, next to
+ * the {@link XmlReportSink}. The lines name the host, so the logs of several
+ * machines can be merged into one report. Each line is complete when it is flushed, so the
+ * file can be read line by line while the run goes on or after it is killed.
+ */
+public class JsonLinesReportSink implements IReportSink {
+
+    /** The file. */
+    private final File file;
+
+    /** The time format. */
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat(
+            "yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    /** The host name written with every step. */
+    private String host;
+
+    /** The line being built. */
+    private final StringBuilder line = new StringBuilder();
+
+    /** The writer, opened on the first event. */
+    private Writer writer;
+
+    /**
+     * Instantiates a new JSON Lines report sink. An existing file is
+     * replaced.
+     * 
+     * @param sinkFile
+     *            the file the steps are written to
+     */
+    public JsonLinesReportSink(final File sinkFile) {
+        this.file = sinkFile;
+    }
+
+    /**
+     * Override.
+     * 
+     * @param event
+     *            the event
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#write(com.virtusa.isq.rft.runtime.ReportEvent)
+     */
+    @Override
+    public void write(final ReportEvent event) throws IOException {
+        if (writer == null) {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory()) {
+                parent.mkdirs();
+            }
+            writer =
+                    new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(file, false), "UTF-8"));
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                host = "";
+            }
+        }
+        String[] names = XmlReportSink.getActivityNames(event.getScriptName());
+        line.setLength(0);
+        line.append('{');
+        appendField("time", timeFormat.format(new Date(event.getTime())));
+        appendField("host", host);
+        appendField("level", String.valueOf(event.getLevel()));
+        appendField("suite", names[0]);
+        appendField("testcase", names[1]);
+        appendField("script", names[2]);
+        appendField("step", event.getStep());
+        appendField("result", event.getResult());
+        appendField("message", event.getMessage());
+        line.append('}').append('\n');
+        writer.write(line.toString());
+    }
+
+    /**
+     * Appends a string field to the line.
+     * 
+     * @param name
+     *            the field name
+     * @param value
+     *            the field value, null is written as an empty string
+     */
+    private void appendField(final String name, final String value) {
+        if (line.length() > 1) {
+            line.append(',');
+        }
+        appendString(name);
+        line.append(':');
+        appendString(value == null ? "" : value);
+    }
+
+    /**
+     * Appends a JSON string literal to the line.
+     * 
+     * @param value
+     *            the value
+     */
+    private void appendString(final String value) {
+        final int hexRadix = 16;
+        final int hexOffset = 0x10000;
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                line.append("\\\"");
+                break;
+            case '\\':
+                line.append("\\\\");
+                break;
+            case '\n':
+                line.append("\\n");
+                break;
+            case '\r':
+                line.append("\\r");
+                break;
+            case '\t':
+                line.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    line.append("\\u").append(
+                            Integer.toString(hexOffset + c, hexRadix)
+                                    .substring(1));
+                } else {
+                    line.append(c);
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * Override.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#flush()
+     */
+    @Override
+    public void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Override.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
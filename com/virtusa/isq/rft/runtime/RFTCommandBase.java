@@ -14,25 +14,20 @@ package com.virtusa.isq.rft.runtime;
 import java.awt.AWTException;
 import java.awt.Dimension;
 import java.awt.Point;
-import java.awt.Robot;
 import java.awt.Toolkit;
-import java.awt.datatransfer.Clipboard;
-import java.awt.datatransfer.DataFlavor;
-import java.awt.datatransfer.StringSelection;
-import java.awt.datatransfer.Transferable;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Properties;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -51,11 +46,29 @@ import com.rational.test.ft.script.Property;
 import com.rational.test.ft.script.RationalTestScript;
 import com.rational.test.ft.script.impl.UserAbortedActionException;
 import com.rational.test.ft.vp.ITestDataTable;
+import com.virtusa.isq.rft.datastore.DataStore;
+import com.virtusa.isq.rft.datastore.DataValue;
+import com.virtusa.isq.rft.input.EventCompiler;
+import com.virtusa.isq.rft.input.EventExecutor;
+import com.virtusa.isq.rft.input.EventProgram;
+import com.virtusa.isq.rft.input.InputDriver;
+import com.virtusa.isq.rft.input.InputSequence;
+import com.virtusa.isq.rft.metrics.CommandMetrics;
+import com.virtusa.isq.rft.objectmap.IGetObjectMap;
 import com.virtusa.isq.rft.objectmap.ObjectLocator;
+import com.virtusa.isq.rft.objectmap.ObjectMapFactory;
 import com.virtusa.isq.rft.objectmap.ObjectMapParser;
+import com.virtusa.isq.rft.table.TableMatcher;
+import com.virtusa.isq.rft.table.TableReader;
+import com.virtusa.isq.rft.table.TableSnapshot;
 import com.virtusa.isq.rft.utils.KeyCodes;
-import com.virtusa.isq.rft.utils.PropertyHandler;
+import com.virtusa.isq.rft.utils.LayeredConfiguration;
+import com.virtusa.isq.rft.utils.PatternCompiler;
+import com.virtusa.isq.rft.utils.RuntimeConfiguration;
 import com.virtusa.isq.rft.utils.Utils;
+import com.virtusa.isq.rft.wait.IWaitStrategy;
+import com.virtusa.isq.rft.wait.WaitSession;
+import com.virtusa.isq.rft.wait.WaitStrategyFactory;
 
 /**
  * The Class RFTCommandBase.
@@ -63,20 +76,23 @@ import com.virtusa.isq.rft.utils.Utils;
 @SuppressWarnings("static-access")
 public class RFTCommandBase implements ICommandBase {
 
-    /** The RETRYCOUNT. */
-    private static final int RETRYCOUNT = 12;
+    /** The setting of the time between the keys of keyPress. */
+    private static final String KEY_PRESS_INTERVAL = "KEY_PRESS_INTERVAL";
 
-    /** The RETRYINTEVAL. */
-    private static final int RETRYINTEVAL = 1000;
+    /** The default time between the keys of keyPress in milliseconds. */
+    private static final int DEFAULT_KEY_PRESS_INTERVAL = 1000;
 
-    /** The retry. */
-    private int retry = RETRYCOUNT;
+    /** The setting of the time between the clicks of a double click. */
+    private static final String DOUBLE_CLICK_DELAY = "DOUBLE_CLICK_DELAY";
 
-    /** The retry interval. */
-    private int retryInterval = RETRYINTEVAL;
+    /** The default time between the clicks in milliseconds. */
+    private static final int DEFAULT_DOUBLE_CLICK_DELAY = 500;
+
+    /** The setting of the number of rows read at a time by STREAMDATA. */
+    private static final String TABLE_CHUNK_ROWS = "TABLE_CHUNK_ROWS";
 
     /** The object map. */
-    private ObjectMapParser objectMap;
+    private IGetObjectMap objectMap;
 
     /** The script. */
     private RationalTestScript script;
@@ -87,6 +103,18 @@ public class RFTCommandBase implements ICommandBase {
     /** The application process ID. */
     private ProcessTestObject processTestObject;
 
+    /** The test objects found in the current page. */
+    private TestObjectCache testObjectCache;
+
+    /**
+     * The test objects registered by the current command which are neither
+     * cached nor search anchors.
+     */
+    private List<TestObject> commandObjects = new ArrayList<TestObject>();
+
+    /** The executor of the element commands. */
+    private CommandExecutor commandExecutor;
+
     /**
      * Gets the report logger.
      * 
@@ -104,8 +132,45 @@ public class RFTCommandBase implements ICommandBase {
      */
     public RFTCommandBase(final RationalTestScript testScript) {
         this.script = testScript;
-        objectMap = new ObjectMapParser();
+        objectMap = ObjectMapFactory.getObjectMap();
         reportLogger = new ReportLogger();
+        testObjectCache =
+                new TestObjectCache(RuntimeConfiguration.getInstance()
+                        .getBoolean("TESTOBJECT_CACHE", false));
+        commandExecutor = new CommandExecutor(new ILocateStage() {
+            @Override
+            public TestObject[] locate(final ObjectLocator locator,
+                    final String command) {
+                return findElements(locator, command);
+            }
+
+            @Override
+            public void invalidate(final ObjectLocator locator) {
+                testObjectCache.invalidate(locator);
+            }
+
+            @Override
+            public void release() {
+                releaseTestObjects();
+            }
+        }, new IReportStage() {
+            @Override
+            public void report(final boolean stopOnFailure,
+                    final ReportLogger.ReportLevel level, final String step,
+                    final String result, final String message) {
+                reportResults(stopOnFailure, level, step, result, message);
+            }
+        });
+    }
+
+    /**
+     * Gets the command executor, whose stages may be replaced to change how
+     * the objects are located or the results reported.
+     * 
+     * @return the command executor
+     */
+    public final CommandExecutor getCommandExecutor() {
+        return commandExecutor;
     }
 
     @Override
@@ -117,7 +182,7 @@ public class RFTCommandBase implements ICommandBase {
     @Override
     public void open(String url, String identifier, String waitTime) {
 
-        String resolvedUrl = objectMap.getResolvedSearchPath(url, identifier);
+        String resolvedUrl = ObjectMapParser.getResolvedSearchPath(url, identifier);
         doOpen(resolvedUrl, waitTime);
 
     }
@@ -134,10 +199,10 @@ public class RFTCommandBase implements ICommandBase {
      */
     public final void doOpen(final String url, final String waitTime) {
 
+        releaseAllTestObjects();
         try {
-            PropertyHandler propfile =
-                    new PropertyHandler("RUNTIME.properties");
-            String browser = propfile.getRuntimeProperty("BROWSER");
+            String browser =
+                    RuntimeConfiguration.getInstance().getProperty("BROWSER");
             final int time = 1000;
             processTestObject = script.startBrowser(browser, url);
             double wait = ((Double.parseDouble(waitTime)) / time);
@@ -165,11 +230,11 @@ public class RFTCommandBase implements ICommandBase {
             if("Internet Explorer".equalsIgnoreCase(browser)){
                 Property[] browserProperties =
                     {new Property(".class", "Html.HtmlBrowser"), new Property(".browserName", "MS Internet Explorer"), new Property(".processName", "iexplore.exe")};
-                browsers = findElements(browserProperties);
+                browsers = findElements(browserProperties, "open");
             }else{
                 Property[] browserProperties =
                     {new Property(".class", "Html.HtmlBrowser")};
-                browsers = findElements(browserProperties);
+                browsers = findElements(browserProperties, "open");
             }
             
             if (browsers.length == 0) {
@@ -199,7 +264,7 @@ public class RFTCommandBase implements ICommandBase {
     public final void click(final String objectName, final String identifier) {
 
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "click");
         doClick(locator);
     }
 
@@ -223,68 +288,15 @@ public class RFTCommandBase implements ICommandBase {
      *            the locator
      */
     private void doClick(final ObjectLocator locator) {
-
-        int retryCounter = retry;
-
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        GuiTestObject element = new GuiTestObject(objectID);
-                        element.click();
-                        reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                "Click", "Success", "Click command passed");
-                        break;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Click",
-                                    "Error",
-                                    "Cannot access the element. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
-                }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Click",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
+        commandExecutor.execute(new ElementCommand("Click", "click", locator,
+                null, true) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                GuiTestObject element = new GuiTestObject(elements[0]);
+                element.click();
+                return "Click command passed";
             }
-
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-
-            ex.printStackTrace();
-            reportResults(true, 
-                    ReportLogger.ReportLevel.FAILURE,
-                    "Click",
-                    "Error",
-                    "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
+        });
     }
 
     /**
@@ -319,10 +331,45 @@ public class RFTCommandBase implements ICommandBase {
     public final void type(final String objectName, final String identifier,
             final Object inputValue) {
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "type");
         doType(locator, inputValue);
     }
 
+    /**
+     * Override.
+     * 
+     * @param steps
+     *            the steps
+     * @see com.virtusa.isq.rft.runtime.ICommandBase#fillForm(java.util.List)
+     */
+    @Override
+    public final void fillForm(final List<BatchStep> steps) {
+        List<ObjectLocator> locators =
+                new ArrayList<ObjectLocator>(steps.size());
+        for (BatchStep step : steps) {
+            locators.add(resolveLocator(step.getObjectName(),
+                    step.getIdentifier(), "type"));
+        }
+        CommandMetrics metrics = CommandMetrics.getInstance();
+        try {
+            metrics.beginCommand("fillForm", "");
+            TestObject[][] found = findElements(locators);
+            for (int i = 0; i < steps.size(); i++) {
+                if (found[i] == null) {
+                    metrics.beginCommand("type", locators.get(i)
+                            .getLogicalName());
+                    found[i] = findElements(locators.get(i), "type");
+                }
+                commandExecutor.execute(
+                        createTypeCommand(locators.get(i), steps.get(i)
+                                .getInputValue()), found[i]);
+            }
+        } finally {
+            metrics.endCommand();
+            releaseTestObjects();
+        }
+    }
+
     /**
      * Do type.
      * 
@@ -332,73 +379,29 @@ public class RFTCommandBase implements ICommandBase {
      *            the value
      */
     private void doType(final ObjectLocator locator, final Object value) {
+        commandExecutor.execute(createTypeCommand(locator, value));
+    }
 
-        int retryCounter = retry;
-
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        TextGuiTestObject element =
-                                new TextGuiTestObject(objectID);
-                        element.exists();
-                        element.setText(value.toString());
-                        reportResults(ReportLogger.ReportLevel.SUCCESS, "Type",
-                                "Success",
-                                "Type command passed. Input value : " + value);
-                        break;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Type",
-                                    "Error",
-                                    "Cannot access the element. ::: Input value : "
-                                            + value
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
-                }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Type",
-                        "Error",
-                        "Cannot find the element. ::: Input value : "
-                                + value
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
+    /**
+     * Creates the type command.
+     * 
+     * @param locator
+     *            the locator
+     * @param value
+     *            the value
+     * @return the type command
+     */
+    private ElementCommand createTypeCommand(final ObjectLocator locator,
+            final Object value) {
+        return new ElementCommand("Type", "type", locator, value, true) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                TextGuiTestObject element = new TextGuiTestObject(elements[0]);
+                element.exists();
+                element.setText(value.toString());
+                return "Type command passed. Input value : " + value;
             }
-
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            reportResults(true, 
-                    ReportLogger.ReportLevel.FAILURE,
-                    "Type",
-                    "Error",
-                    "Cannot find the element. ::: Input value : " + value
-                            + " Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
+        };
     }
 
     /**
@@ -436,7 +439,8 @@ public class RFTCommandBase implements ICommandBase {
     public final boolean checkElementPresent(final String objectName,
             final String identifier, final boolean stopOnFailure) {
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier,
+                        "checkElementPresent");
         return doCheckElementPresent(locator, stopOnFailure);
     }
 
@@ -451,44 +455,14 @@ public class RFTCommandBase implements ICommandBase {
      */
     private boolean doCheckElementPresent(final ObjectLocator locator,
             final boolean stopOnFailure) {
-        boolean isElementPreent = false;
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-                isElementPreent = true;
-                reportResults(ReportLogger.ReportLevel.SUCCESS,
-                        "Check Element Present", "Success",
-                        "Check Element Present command passed");
-            } else {
-                
-                    reportResults(stopOnFailure, 
-                            ReportLogger.ReportLevel.FAILURE,
-                            "Check Element Present",
-                            "Error",
-                            "Cannot find the element. ::: "
-                                    + "Object : "
-                                    + locator.getLogicalName()
-                                    + " ::: "
-                                    + "Actual Error : Cannot find the element with properties : "
-                                    + Arrays.asList(locator.getPropertyArray()));
-
+        return commandExecutor.execute(new ElementCommand(
+                "Check Element Present", "checkElementPresent", locator, null,
+                stopOnFailure) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                return "Check Element Present command passed";
             }
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception e) {
-            e.printStackTrace();
-            reportResults(stopOnFailure, 
-                    ReportLogger.ReportLevel.FAILURE,
-                    "Check Element Present",
-                    "Error",
-                    "Cannot access the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + e.getMessage());
-
-        } finally {
-            script.unregisterAll();
-        }
-        return isElementPreent;
+        });
     }
 
     /**
@@ -506,26 +480,28 @@ public class RFTCommandBase implements ICommandBase {
     public final boolean checkElementPresent(final String objectName,
             final String identifier) {
 
-        boolean isElementPreent = false;
-
+        ObjectLocator locator;
         try {
-            ObjectLocator locator =
-                    objectMap.getResolvedObjectSearchPath(objectName,
-                            identifier);
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-                isElementPreent = true;
-
-            } else {
-                isElementPreent = false;
-            }
+            locator =
+                    resolveLocator(objectName, identifier,
+                            "checkElementPresent");
         } catch (Exception e) {
             e.printStackTrace();
-        } finally {
-            script.unregisterAll();
+            return false;
         }
+        return commandExecutor.execute(new ElementCommand(
+                "Check Element Present", "checkElementPresent", locator, null,
+                false) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                return null;
+            }
 
-        return isElementPreent;
+            @Override
+            protected boolean isReported() {
+                return false;
+            }
+        });
     }
 
     /**
@@ -560,7 +536,7 @@ public class RFTCommandBase implements ICommandBase {
     public final void select(final String objectName, final String identifier,
             final String option) {
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "select");
         doSelect(locator, option);
     }
 
@@ -573,143 +549,51 @@ public class RFTCommandBase implements ICommandBase {
      *            the select option
      */
     private void doSelect(final ObjectLocator locator, final String selectOption) {
-
-        int retryCounter = retry;
-        String option = selectOption;
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-
-                    retryCounter--;
-                    SelectGuiSubitemTestObject element =
-                            new SelectGuiSubitemTestObject(objectID);
-                    TestObject[] options = element.getChildren();
-                    ArrayList<String> optionList = getOptionValues(options);
-                    if (option.toLowerCase(Locale.US).startsWith("index=")) {
-
-                        option =
-                                option.trim().toLowerCase(Locale.US)
-                                        .replace("index=", "");
-                        int index = Integer.parseInt(option);
-                        if (index > 0 && index < optionList.size()) {
-                            try {
-                                element.select(optionList.get(index));
-                                reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                        "Select", "Success",
-                                        "Select command passed. Input value : "
-                                                + selectOption);
-                                break;
-                            } catch (Exception e) {
-                                if (!(retryCounter > 0)) {
-                                    e.printStackTrace();
-                                    reportResults(true,
-                                            ReportLogger.ReportLevel.FAILURE,
-                                            "Select",
-                                            "Error",
-                                            "Cannot access the element. ::: Input value : "
-                                                    + selectOption
-                                                    + " Object : "
-                                                    + Arrays.asList(locator
-                                                            .getPropertyArray())
-                                                    + "Actual Error : "
-                                                    + e.getMessage());
-                                    break;
-                                }
-                            }
-                        } else {
-                            reportResults(true,
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Select",
-                                    "Error",
-                                    "Cannot find index "
-                                            + option
-                                            + " in the actual select element. Input value : "
-                                            + selectOption
-                                            + " Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + "Actual options : " + optionList);
-                            break;
-                        }
-
+        commandExecutor.execute(new ElementCommand("Select", "select",
+                locator, selectOption, true) {
+            @Override
+            protected String act(final TestObject[] elements)
+                    throws CommandFailureException {
+                SelectGuiSubitemTestObject element =
+                        new SelectGuiSubitemTestObject(elements[0]);
+                TestObject[] options = track(element.getChildren());
+                ArrayList<String> optionList = getOptionValues(options);
+                if (selectOption.toLowerCase(Locale.US).startsWith("index=")) {
+
+                    String option =
+                            selectOption.trim().toLowerCase(Locale.US)
+                                    .replace("index=", "");
+                    int index = Integer.parseInt(option);
+                    if (index > 0 && index < optionList.size()) {
+                        element.select(optionList.get(index));
                     } else {
-                        if (isPresentInCollection(optionList, option)) {
-                            try {
-                                element.select(option);
-                                reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                        "Select", "Success",
-                                        "Select command passed. Input value : "
-                                                + selectOption);
-                                break;
-                            } catch (Exception ex) {
-                                if (!(retryCounter > 0)) {
-                                    ex.printStackTrace();
-                                    reportResults(true,
-                                            ReportLogger.ReportLevel.FAILURE,
-                                            "Select",
-                                            "Error",
-                                            "Cannot access the element. ::: Input value : "
-                                                    + selectOption
-                                                    + " Object : "
-                                                    + Arrays.asList(locator
-                                                            .getPropertyArray())
-                                                    + ". " + "Actual Error : "
-                                                    + ex.getMessage());
-                                    break;
-                                }
-                            }
-                        } else {
-                            reportResults(true,
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Select",
-                                    "Error",
-                                    "Cannot find the option : "
-                                            + option
-                                            + " in the actual select element. ::: Input value : "
-                                            + selectOption
-                                            + " Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual options : "
-                                            + optionList);
-                            break;
-                        }
+                        throw new CommandFailureException(
+                                "Cannot find index "
+                                        + option
+                                        + " in the actual select element. Input value : "
+                                        + selectOption
+                                        + " Object : "
+                                        + Arrays.asList(locator
+                                                .getSharedPropertyArray())
+                                        + "Actual options : " + optionList);
                     }
-
+                } else if (isPresentInCollection(optionList, selectOption)) {
+                    element.select(selectOption);
+                } else {
+                    throw new CommandFailureException(
+                            "Cannot find the option : "
+                                    + selectOption
+                                    + " in the actual select element. ::: Input value : "
+                                    + selectOption
+                                    + " Object : "
+                                    + Arrays.asList(locator
+                                            .getSharedPropertyArray())
+                                    + " ::: " + "Actual options : "
+                                    + optionList);
                 }
-            } else {
-                reportResults(true,
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Select",
-                        "Error",
-                        "Cannot find the element. ::: Input value : "
-                                + selectOption
-                                + " Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
+                return "Select command passed. Input value : " + selectOption;
             }
-
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            reportResults(true,
-                    ReportLogger.ReportLevel.FAILURE,
-                    "Select",
-                    "Error",
-                    "Cannot find the element. ::: Input value : "
-                            + selectOption + " Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
+        });
     }
 
     /**
@@ -771,17 +655,45 @@ public class RFTCommandBase implements ICommandBase {
      */
     private void reportResults(final ReportLogger.ReportLevel level,
             final String step, final String result, final String message) {
+        long reportStart = System.nanoTime();
         reportLogger.logResult(script, level, step, result, message);
+        CommandMetrics.getInstance().record(CommandMetrics.Phase.REPORT,
+                reportStart);
     }
     
     private void reportResults(boolean stopOnFailure, final ReportLogger.ReportLevel level,
             final String step, final String result, final String message) {
-        reportLogger.logResult(script, level, step, result, message);
+        reportResults(level, step, result, message);
         if (stopOnFailure) {
+            ReportLogger.flush();
             throw new UserAbortedActionException(message);
         }
     }
 
+    /**
+     * Resolves the locator of the given object, recording the time of the
+     * resolution for the given command.
+     * 
+     * @param objectName
+     *            the object name
+     * @param identifier
+     *            the identifier
+     * @param command
+     *            the command name
+     * @return the object locator
+     */
+    private ObjectLocator resolveLocator(final String objectName,
+            final String identifier, final String command) {
+        long resolveStart = System.nanoTime();
+        try {
+            return objectMap.getResolvedObjectSearchPath(objectName,
+                    identifier);
+        } finally {
+            CommandMetrics.getInstance().record(command, objectName,
+                    CommandMetrics.Phase.RESOLVE, resolveStart);
+        }
+    }
+
     /**
      * Find elements.
      * 
@@ -790,23 +702,427 @@ public class RFTCommandBase implements ICommandBase {
      * @return the test object[]
      */
     public final TestObject[] findElements(final Property[] obj) {
-        TestObject[] to = null;
-        for (int count = 0; count < retry; count++) {
+        return findElements(obj,
+                WaitStrategyFactory.getStrategy("findElements"));
+    }
+
+    /**
+     * Finds the elements, waiting between the attempts as configured for the
+     * given command.
+     * 
+     * @param obj
+     *            the obj
+     * @param command
+     *            the command name
+     * @return the test object[]
+     * @see com.virtusa.isq.rft.wait.WaitStrategyFactory
+     */
+    public final TestObject[] findElements(final Property[] obj,
+            final String command) {
+        return findElements(obj, WaitStrategyFactory.getStrategy(command));
+    }
+
+    /**
+     * Finds the elements, waiting between the attempts as decided by the
+     * given wait strategy. When the test object cache is enabled, the objects
+     * found earlier in the same page are reused if they still exist.
+     * 
+     * @param obj
+     *            the obj
+     * @param waitStrategy
+     *            the wait strategy
+     * @return the test object[]
+     */
+    public final TestObject[] findElements(final Property[] obj,
+            final IWaitStrategy waitStrategy) {
+        ObjectLocator locator = new ObjectLocator("");
+        locator.setPropertyArray(obj);
+        return findElements(null, locator, waitStrategy);
+    }
+
+    /**
+     * Finds the elements of the given locator. When the locator has a parent
+     * locator, the container is resolved first, kept as a search anchor until
+     * the next page transition, and the elements are searched under it
+     * instead of under the root test object.
+     * 
+     * @param locator
+     *            the locator
+     * @param command
+     *            the command name
+     * @return the test object[]
+     */
+    public final TestObject[] findElements(final ObjectLocator locator,
+            final String command) {
+        IWaitStrategy waitStrategy =
+                WaitStrategyFactory.getStrategy(command, locator.getSettings());
+        TestObject anchor = null;
+        if (locator.getParentLocator() != null) {
+            anchor = findAnchor(locator.getParentLocator(), waitStrategy);
+            if (anchor == null) {
+                return new TestObject[0];
+            }
+        }
+        return findElements(anchor, locator, waitStrategy);
+    }
+
+    /**
+     * Finds the container of the given parent locator, reusing the cached
+     * search anchor if it still exists.
+     * 
+     * @param parentLocator
+     *            the parent locator
+     * @param waitStrategy
+     *            the wait strategy
+     * @return the container, or null if it cannot be found
+     */
+    private TestObject findAnchor(final ObjectLocator parentLocator,
+            final IWaitStrategy waitStrategy) {
+        Property[] parentProperties = parentLocator.getSharedPropertyArray();
+        TestObject[] containers = testObjectCache.getAnchor(parentLocator);
+        if (containers == null) {
+            TestObject grandParent = null;
+            if (parentLocator.getParentLocator() != null) {
+                grandParent =
+                        findAnchor(parentLocator.getParentLocator(),
+                                waitStrategy);
+                if (grandParent == null) {
+                    return null;
+                }
+            }
+            containers =
+                    searchElements(grandParent, parentProperties,
+                            waitStrategy);
+            testObjectCache.putAnchor(parentLocator, containers);
+        }
+        return containers.length > 0 ? containers[0] : null;
+    }
+
+    /**
+     * Finds the elements under the given anchor, reusing the cached objects
+     * when the test object cache is enabled.
+     * 
+     * @param anchor
+     *            the container to search in, or null to search from the root
+     * @param locator
+     *            the locator
+     * @param waitStrategy
+     *            the wait strategy
+     * @return the test object[]
+     */
+    private TestObject[] findElements(final TestObject anchor,
+            final ObjectLocator locator, final IWaitStrategy waitStrategy) {
+        TestObject[] to = testObjectCache.get(locator);
+        if (to != null) {
+            return to;
+        }
+        to = searchElements(anchor, locator.getSharedPropertyArray(),
+                waitStrategy);
+        if (testObjectCache.isEnabled()) {
+            testObjectCache.put(locator, to);
+        } else {
+            track(to);
+        }
+        return to;
+    }
+
+    /**
+     * Searches the elements under the given anchor, waiting between the
+     * attempts as decided by the given wait strategy. Nothing is searched for
+     * without properties, such as for an object missing from the object map.
+     * 
+     * @param anchor
+     *            the container to search in, or null to search from the root
+     * @param obj
+     *            the obj
+     * @param waitStrategy
+     *            the wait strategy
+     * @return the test object[]
+     */
+    private TestObject[] searchElements(final TestObject anchor,
+            final Property[] obj, final IWaitStrategy waitStrategy) {
+        TestObject[] to = new TestObject[0];
+        if (obj.length == 0) {
+            return to;
+        }
+        CommandMetrics metrics = CommandMetrics.getInstance();
+        WaitSession session = waitStrategy.start();
+        long waitStart;
+        do {
+            long findStart = System.nanoTime();
             try {
                 System.out.println("Finding Element : " + Arrays.asList(obj));
-                RootTestObject root = script.getRootTestObject();
-                to = root.find(script.atDescendant(obj));
+                TestObject searchRoot = anchor;
+                if (searchRoot == null) {
+                    searchRoot = script.getRootTestObject();
+                }
+                to = searchRoot.find(script.atDescendant(obj));
                 if (to.length > 0) {
                     break;
-                } else {
-                    Utils.pause(retryInterval);
                 }
             } catch (Exception ex) {
                 ex.printStackTrace();
+            } finally {
+                metrics.record(CommandMetrics.Phase.FIND, findStart);
+            }
+            waitStart = System.nanoTime();
+            if (!session.awaitNextAttempt()) {
+                break;
+            }
+            metrics.record(CommandMetrics.Phase.WAIT, waitStart);
+        } while (true);
+        return to;
+    }
+
+    /**
+     * Finds the elements of several locators together. The locators are
+     * grouped by their container and their first property, each group with
+     * more than one locator is searched once with the properties common to
+     * the group, and the found candidates are matched to the locators by
+     * their remaining properties. Nothing is waited for; the locators that
+     * are not found this way are left to the usual search. The candidates
+     * are matched by plain string equality, so the locators with other
+     * property values, such as regular expressions, are always left to the
+     * usual search.
+     * 
+     * @param locators
+     *            the locators
+     * @return the found elements of each locator, null for the locators not
+     *         found
+     */
+    private TestObject[][] findElements(final List<ObjectLocator> locators) {
+        TestObject[][] found = new TestObject[locators.size()][];
+        Map<String, List<Integer>> groups =
+                new LinkedHashMap<String, List<Integer>>();
+        for (int i = 0; i < locators.size(); i++) {
+            ObjectLocator locator = locators.get(i);
+            Property[] properties = locator.getSharedPropertyArray();
+            found[i] = testObjectCache.get(locator);
+            if (found[i] != null || properties.length == 0
+                    || !hasStringValues(properties)) {
                 continue;
             }
+            String key =
+                    (locator.getParentLocator() == null ? "" : locator
+                            .getParentLocator().getLogicalName())
+                            + "|" + properties[0];
+            List<Integer> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<Integer>();
+                groups.put(key, group);
+            }
+            group.add(i);
+        }
+        for (List<Integer> group : groups.values()) {
+            if (group.size() > 1) {
+                findElements(locators, group, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the elements of one group of locators with a single search.
+     * 
+     * @param locators
+     *            the locators
+     * @param group
+     *            the indexes of the locators in the group
+     * @param found
+     *            the found elements of each locator
+     */
+    private void findElements(final List<ObjectLocator> locators,
+            final List<Integer> group, final TestObject[][] found) {
+        ObjectLocator first = locators.get(group.get(0));
+        List<Property> common = new ArrayList<Property>();
+        for (Property property : first.getSharedPropertyArray()) {
+            boolean shared = true;
+            for (int index : group) {
+                if (!containsProperty(locators.get(index)
+                        .getSharedPropertyArray(), property)) {
+                    shared = false;
+                    break;
+                }
+            }
+            if (shared) {
+                common.add(property);
+            }
+        }
+        TestObject searchRoot = script.getRootTestObject();
+        if (first.getParentLocator() != null) {
+            searchRoot =
+                    findAnchor(first.getParentLocator(),
+                            WaitStrategyFactory.getStrategy("type"));
+            if (searchRoot == null) {
+                return;
+            }
+        }
+        Property[] commonProperties = common.toArray(new Property[common.size()]);
+        TestObject[] candidates;
+        try {
+            System.out.println("Finding Elements : " + common + " for "
+                    + group.size() + " objects");
+            candidates = searchRoot.find(script.atDescendant(commonProperties));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return;
+        }
+
+        List<Map<String, String>> candidateProperties =
+                new ArrayList<Map<String, String>>(candidates.length);
+        for (int c = 0; c < candidates.length; c++) {
+            candidateProperties.add(new HashMap<String, String>());
+        }
+        boolean[] used = new boolean[candidates.length];
+        for (int index : group) {
+            Property[] properties = locators.get(index).getSharedPropertyArray();
+            List<TestObject> matches = new ArrayList<TestObject>();
+            for (int c = 0; c < candidates.length; c++) {
+                if (matchesProperties(candidates[c],
+                        candidateProperties.get(c), properties,
+                        commonProperties)) {
+                    matches.add(candidates[c]);
+                    used[c] = true;
+                }
+            }
+            if (!matches.isEmpty()) {
+                found[index] = matches.toArray(new TestObject[matches.size()]);
+                testObjectCache.put(locators.get(index), found[index]);
+            }
+        }
+        for (int c = 0; c < candidates.length; c++) {
+            if (!testObjectCache.isEnabled()) {
+                commandObjects.add(candidates[c]);
+            } else if (!used[c]) {
+                candidates[c].unregister();
+            }
         }
-        return to;
+    }
+
+    /**
+     * Checks if the candidate object has all the given properties, other than
+     * the common properties it was searched with. The property values read
+     * from the candidate are kept, so that each one is read only once.
+     * 
+     * @param candidate
+     *            the candidate object
+     * @param candidateProperties
+     *            the property values already read from the candidate
+     * @param properties
+     *            the properties of the locator
+     * @param common
+     *            the common properties of the group
+     * @return true, if the candidate matches
+     */
+    private boolean matchesProperties(final TestObject candidate,
+            final Map<String, String> candidateProperties,
+            final Property[] properties, final Property[] common) {
+        for (Property property : properties) {
+            if (containsProperty(common, property)) {
+                continue;
+            }
+            String name = property.getPropertyName();
+            if (!candidateProperties.containsKey(name)) {
+                String value = null;
+                try {
+                    Object candidateValue = candidate.getProperty(name);
+                    if (candidateValue != null) {
+                        value = candidateValue.toString();
+                    }
+                } catch (Exception ex) {
+                    System.err.println("Cannot read the property " + name
+                            + " : " + ex.getMessage());
+                }
+                candidateProperties.put(name, value);
+            }
+            if (!String.valueOf(property.getPropertyValue()).equals(
+                    candidateProperties.get(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if all the property values are plain strings, which the batch
+     * search can match the same way as RFT does.
+     * 
+     * @param properties
+     *            the properties
+     * @return true, if all the values are strings
+     */
+    private static boolean hasStringValues(final Property[] properties) {
+        for (Property property : properties) {
+            if (!(property.getPropertyValue() instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the properties contain a property with the same name and
+     * value as the given property.
+     * 
+     * @param properties
+     *            the properties
+     * @param property
+     *            the property
+     * @return true, if it is contained
+     */
+    private static boolean containsProperty(final Property[] properties,
+            final Property property) {
+        for (Property candidate : properties) {
+            if (candidate.getPropertyName().equals(property.getPropertyName())
+                    && String.valueOf(candidate.getPropertyValue()).equals(
+                            String.valueOf(property.getPropertyValue()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps the given test objects, registered by the current command, to be
+     * unregistered when the command is released.
+     * 
+     * @param objects
+     *            the registered test objects
+     * @return the same test objects
+     */
+    private TestObject[] track(final TestObject[] objects) {
+        if (objects != null) {
+            commandObjects.addAll(Arrays.asList(objects));
+        }
+        return objects;
+    }
+
+    /**
+     * Releases the test objects registered by the last command. When neither
+     * cached objects nor search anchors have to stay usable, all the objects
+     * are unregistered. Otherwise the objects tracked for the command are
+     * unregistered one by one, and the cached objects and anchors are kept
+     * registered until the next page transition.
+     */
+    private void releaseTestObjects() {
+        if (!testObjectCache.isEnabled() && !testObjectCache.hasAnchors()) {
+            script.unregisterAll();
+        } else {
+            for (TestObject found : commandObjects) {
+                found.unregister();
+            }
+        }
+        commandObjects.clear();
+    }
+
+    /**
+     * Releases all the test objects at a page transition, clearing the test
+     * object cache.
+     */
+    private void releaseAllTestObjects() {
+        testObjectCache.invalidateAll();
+        commandObjects.clear();
+        script.unregisterAll();
     }
 
     /**
@@ -868,7 +1184,8 @@ public class RFTCommandBase implements ICommandBase {
             final String expectedValue, final boolean stopOnFailure) {
 
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier,
+                        "checkObjectProperty");
         doCheckObjectProperty(locator, propertyName, expectedValue,
                 stopOnFailure);
 
@@ -920,57 +1237,37 @@ public class RFTCommandBase implements ICommandBase {
     private void doCheckElementNotPresent(final ObjectLocator locator,
             final String propertyName, final String expectedValue,
             final boolean stopOnFailure) {
-
-        int retryCounter = retry;
-        String objectFound = "false";
-        boolean isconditionMatched = false;
-        try {
-            while (retryCounter > 0) {
-
-                try {
-                    retryCounter--;
-                    TestObject[] objectIDArr =
-                            findElements(locator.getPropertyArray());
-                    if (objectIDArr.length > 0) {
-                        objectFound = "true";
-                    } else {
-                        objectFound = "false";
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    continue;
-                }
-                if (objectFound.equalsIgnoreCase(expectedValue)) {
-                    isconditionMatched = true;
-                    reportResults(ReportLogger.ReportLevel.SUCCESS,
-                            "Check Object Property", "Success",
-                            "Check Object Property Element Present command passed");
-                    break;
+        commandExecutor.execute(new ElementCommand("Check Object Property",
+                "checkObjectProperty", locator, null, stopOnFailure) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                String objectFound = String.valueOf(elements.length > 0);
+                if (!objectFound.equalsIgnoreCase(expectedValue)) {
+                    throw new IllegalStateException("Element present : "
+                            + objectFound);
                 }
+                return "Check Object Property Element Present command passed";
             }
 
-            if (!isconditionMatched) {
-
-                
-                    reportResults(stopOnFailure,
-                            ReportLogger.ReportLevel.FAILURE,
-                            "Check Object Property",
-                            "Error",
-                            "Actual property "
-                                    + propertyName
-                                    + " condition : "
-                                    + isconditionMatched
-                                    + " does not match the expected condition : "
-                                    + expectedValue + " . ::: " + "Object : "
-                                    + locator.getLogicalName());
-                
-
+            @Override
+            protected boolean isElementRequired() {
+                return false;
             }
 
-        } finally {
-            script.unregisterAll();
-        }
+            @Override
+            protected boolean isRelocatedOnRetry() {
+                return true;
+            }
 
+            @Override
+            protected String getAccessErrorMessage(final Exception ex) {
+                return "Actual property " + propertyName
+                        + " condition : false"
+                        + " does not match the expected condition : "
+                        + expectedValue + " . ::: " + "Object : "
+                        + locator.getLogicalName();
+            }
+        });
     }
 
     /**
@@ -988,92 +1285,24 @@ public class RFTCommandBase implements ICommandBase {
     private void doCheckObjectOtherProperty(final ObjectLocator locator,
             final String propertyName, final String expectedValue,
             final boolean stopOnFailure) {
-
-        int retryCounter = retry;
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        GuiTestObject element = new GuiTestObject(objectID);
-                        String actualValue =
-                                element.getProperty(propertyName).toString();
-                        if (actualValue.equals(expectedValue)) {
-                            reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                    "Check Object Property", "Success",
-                                    "Check Object Property command passed");
-                            break;
-                        } else {
-                            
-                                reportResults(stopOnFailure,
-                                        ReportLogger.ReportLevel.FAILURE,
-                                        "Check Object Property",
-                                        "Error",
-                                        "Actual property "
-                                                + propertyName
-                                                + " value : "
-                                                + actualValue
-                                                + " does not match the expected value : "
-                                                + expectedValue + " ."
-                                                + "Object : "
-                                                + locator.getLogicalName());
-
-                            
-                            break;
-                        }
-
-                    } catch (UserAbortedActionException ex) {
-                        throw ex;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-
-                            ex.printStackTrace();
-                            reportResults(stopOnFailure,
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Check Object Property",
-                                    "Error",
-                                    "Cannot access the element. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
+        commandExecutor.execute(new ElementCommand("Check Object Property",
+                "checkObjectProperty", locator, null, stopOnFailure) {
+            @Override
+            protected String act(final TestObject[] elements)
+                    throws CommandFailureException {
+                GuiTestObject element = new GuiTestObject(elements[0]);
+                String actualValue =
+                        element.getProperty(propertyName).toString();
+                if (!actualValue.equals(expectedValue)) {
+                    throw new CommandFailureException("Actual property "
+                            + propertyName + " value : " + actualValue
+                            + " does not match the expected value : "
+                            + expectedValue + " ." + "Object : "
+                            + locator.getLogicalName());
                 }
-            } else {
-                reportResults(stopOnFailure,
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Check Object Property",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
+                return "Check Object Property command passed";
             }
-
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            reportResults(stopOnFailure,
-                    ReportLogger.ReportLevel.FAILURE,
-                    "Check Object Property",
-                    "Error",
-                    "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
-
+        });
     }
 
     /**
@@ -1106,7 +1335,7 @@ public class RFTCommandBase implements ICommandBase {
     @Override
     public void navigateToURL(String url, String identifier, String waitTime) {
 
-        String resolvedUrl = objectMap.getResolvedSearchPath(url, identifier);
+        String resolvedUrl = ObjectMapParser.getResolvedSearchPath(url, identifier);
         doNavigateToURL(resolvedUrl, waitTime);
 
     }
@@ -1123,10 +1352,12 @@ public class RFTCommandBase implements ICommandBase {
      */
     private final void doNavigateToURL(final String url, final String waitTime) {
 
+        releaseAllTestObjects();
         try {
             RootTestObject root = script.getRootTestObject();
             TestObject[] browsers =
-                    root.find(script.atDescendant(".class", "Html.HtmlBrowser"));
+                    track(root.find(script.atDescendant(".class",
+                            "Html.HtmlBrowser")));
             if (browsers.length == 0) {
                 throw new Exception("No browser found, after waiting "
                         + waitTime + " seconds");
@@ -1141,7 +1372,7 @@ public class RFTCommandBase implements ICommandBase {
                     "Error", "Navigate To URL Command Failed. Actual error : "
                             + e.getMessage());
         } finally {
-            script.unregisterAll();
+            releaseTestObjects();
         }
 
     }
@@ -1162,7 +1393,7 @@ public class RFTCommandBase implements ICommandBase {
     public final void checkPattern(final String objectName,
             final String identifier, final String pattern) {
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "checkPattern");
         doCheckPattern(locator, pattern);
     }
 
@@ -1192,125 +1423,25 @@ public class RFTCommandBase implements ICommandBase {
      */
     private void doCheckPattern(final ObjectLocator locator,
             final String pattern) {
-
-        int retryCounter = retry;
-        try {
-            String regex = getRegexPattern(pattern);
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        TextGuiTestObject element =
-                                new TextGuiTestObject(objectID);
-
-                        String text = element.getText().trim();
-                        System.out.println(text);
-                        if (text.matches(regex)) {
-                            reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                    "Check Pattern", "Success",
-                                    "Check Pattern command passed");
-                            break;
-                        } else {
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Check Pattern",
-                                    "Error",
-                                    "The actual value : "
-                                            + text
-                                            + " does not match the regex : "
-                                            + regex
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: ");
-                            break;
-                        }
-
-                    } catch (UserAbortedActionException ex) {
-                        throw ex;
-                    } catch (Exception ex) {
-
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Check Pattern",
-                                    "Error",
-                                    "Cannot access the element. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
-                }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Check Pattern",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
-            }
-
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-
-            ex.printStackTrace();
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Check Pattern",
-                    "Error", "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
-    }
-
-    /**
-     * Gets the regex pattern.
-     * 
-     * @param patternString
-     *            the pattern string
-     * @return the regex pattern
-     */
-    private String getRegexPattern(final String patternString) {
-
-        String regex = "";
-        String pattern = patternString;
-        if (pattern.toLowerCase(Locale.getDefault()).startsWith("regex=")) {
-            pattern =
-                    pattern.substring(pattern.indexOf('=') + 1,
-                            pattern.length());
-            regex = pattern;
-        } else {
-            char[] patternChars = pattern.toCharArray();
-            StringBuilder regexBuilder = new StringBuilder();
-            for (int strIndex = 0; strIndex < patternChars.length; strIndex++) {
-
-                if (patternChars[strIndex] == 'S') {
-                    regexBuilder.append("[A-Z]");
-                } else if (patternChars[strIndex] == 's') {
-                    regexBuilder.append("[a-z]");
-                } else if (patternChars[strIndex] == 'd') {
-                    regexBuilder.append("\\d");
-                } else {
-                    regexBuilder.append(patternChars[strIndex]);
+        commandExecutor.execute(new ElementCommand("Check Pattern",
+                "checkPattern", locator, null, true) {
+            @Override
+            protected String act(final TestObject[] elements)
+                    throws CommandFailureException {
+                Pattern regex = PatternCompiler.compile(pattern);
+                TextGuiTestObject element = new TextGuiTestObject(elements[0]);
+                String text = element.getText().trim();
+                System.out.println(text);
+                if (!regex.matcher(text).matches()) {
+                    throw new CommandFailureException("The actual value : "
+                            + text + " does not match the regex : " + regex
+                            + "Object : "
+                            + Arrays.asList(locator.getSharedPropertyArray())
+                            + " ::: ");
                 }
+                return "Check Pattern command passed";
             }
-            regex = regexBuilder.toString();
-        }
-        return regex;
+        });
     }
 
     /**
@@ -1333,27 +1464,8 @@ public class RFTCommandBase implements ICommandBase {
     @Override
     public final void store(final String key, final String type,
             final String value) {
-        String projectPropertiesLocation = "project_data.properties";
-        Properties prop = new Properties();
-        FileInputStream fis = null;
-        FileOutputStream fos = null;
-        File file = new File(projectPropertiesLocation);
         try {
-            if (!file.exists() && !file.createNewFile()) {
-
-                System.err
-                        .println("Cannot create a new file in the intended location. "
-                                + "" + file.getAbsolutePath());
-            }
-            fis = new FileInputStream(file.getAbsoluteFile());
-            prop.load(fis);
-            prop.setProperty(key + "_Val", value);
-            prop.setProperty(key + "_Type", type);
-
-            checkStoreValueType(type, value);
-
-            fos = new FileOutputStream(projectPropertiesLocation);
-            prop.store(fos, "project settings");
+            DataStore.getInstance().put(key, type, value);
             reportResults(ReportLogger.ReportLevel.SUCCESS, "Store", "Success",
                     "Store value passed. Input value : " + value);
 
@@ -1362,59 +1474,95 @@ public class RFTCommandBase implements ICommandBase {
                     "Cannot Store the value. ::: " + value + " : " + type
                             + " : " + key + "Actual Error : " + e.getMessage());
 
-        } catch (NumberFormatException e) {
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Store", "Error",
-                    "Cannot Store the value. ::: " + value + " : " + type
-                            + " : " + key + "Actual Error : " + e.getMessage());
         } catch (IllegalArgumentException e) {
 
             reportResults(true, ReportLogger.ReportLevel.FAILURE, "Store", "Error",
                     "Cannot parse value to the expected format. ::: Actual Error : "
                             + e.getMessage());
 
-        } finally {
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (fos != null) {
-                try {
-                    fos.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
         }
     }
 
     /**
-     * Check store value type.
+     * Override.
      * 
-     * @param type
-     *            the type
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @see com.virtusa.isq.rft.runtime.ICommandBase#store(java.lang.String,
+     *      int)
+     */
+    @Override
+    public final void store(final String key, final int value) {
+        storeValue(key, DataValue.of(value));
+    }
+
+    /**
+     * Override.
+     * 
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @see com.virtusa.isq.rft.runtime.ICommandBase#store(java.lang.String,
+     *      float)
+     */
+    @Override
+    public final void store(final String key, final float value) {
+        storeValue(key, DataValue.of(value));
+    }
+
+    /**
+     * Override.
+     * 
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @see com.virtusa.isq.rft.runtime.ICommandBase#store(java.lang.String,
+     *      boolean)
+     */
+    @Override
+    public final void store(final String key, final boolean value) {
+        storeValue(key, DataValue.of(value));
+    }
+
+    /**
+     * Override.
+     * 
+     * @param key
+     *            the key
+     * @param values
+     *            the values, such as the cells of a table row
+     * @see com.virtusa.isq.rft.runtime.ICommandBase#store(java.lang.String,
+     *      java.util.List)
+     */
+    @Override
+    public final void store(final String key, final List<String> values) {
+        storeValue(key, DataValue.of(values));
+    }
+
+    /**
+     * Stores a typed value. The type cannot mismatch, so only the data store
+     * errors are reported.
+     * 
+     * @param key
+     *            the key
      * @param value
      *            the value
      */
-    private void checkStoreValueType(final String type, final String value) {
+    private void storeValue(final String key, final DataValue value) {
         try {
-            if ("Int".equalsIgnoreCase(type)) {
-                Integer.parseInt(value);
-            } else if ("Boolean".equalsIgnoreCase(type)) {
-                if ("true".equalsIgnoreCase(value)
-                        || "false".equalsIgnoreCase(value)) {
-                    Boolean.parseBoolean(value);
-                } else {
-                    throw new IllegalArgumentException(
-                            "Cannot convert to boolean value " + value);
-                }
-            } else if ("Float".equalsIgnoreCase(type)) {
-                Float.parseFloat(value);
-            }
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException(e.getMessage(), e);
+            DataStore.getInstance().put(key, value);
+            reportResults(ReportLogger.ReportLevel.SUCCESS, "Store", "Success",
+                    "Store value passed. Input value : " + value.getText());
+
+        } catch (IOException e) {
+            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Store", "Error",
+                    "Cannot Store the value. ::: " + value.getText() + " : "
+                            + value.getType() + " : " + key
+                            + "Actual Error : " + e.getMessage());
         }
     }
 
@@ -1427,7 +1575,8 @@ public class RFTCommandBase implements ICommandBase {
      */
     @Override
     public final String retrieveString(final String key) {
-        return retrieve(key, "String");
+        DataValue value = retrieve(key, DataValue.STRING, DataValue.KIND_STRING);
+        return value == null ? null : value.getText();
     }
 
     /**
@@ -1442,71 +1591,83 @@ public class RFTCommandBase implements ICommandBase {
      *            : key for the value to be retrieved
      * @param type
      *            : type of the previously stored value
-     * @return value for the particular <b>key</b>
+     * @param kind
+     *            : kind of the type, see {@link DataValue#kindOf(String)}
+     * @return value for the particular <b>key</b>, or null if it is not
+     *         stored
      */
-    private String retrieve(final String key, final String type) {
+    private DataValue retrieve(final String key, final String type,
+            final byte kind) {
 
-        String value = null;
-        String projectPropertiesLocation = "project_data.properties";
-        Properties prop = new Properties();
-        FileInputStream fis = null;
+        DataValue value = null;
         try {
-            fis = new FileInputStream(projectPropertiesLocation);
-            try {
-                prop.load(fis);
-            } catch (IOException e) {
-
+            DataStore dataStore = DataStore.getInstance();
+            if (!dataStore.exists()) {
                 reportResults(true, ReportLogger.ReportLevel.FAILURE, "Retrieve",
                         "Error", "Cannot retrieve value. " + type + " " + key
-                                + "::: Actual Error : " + e.getMessage());
-            }
-
-            value = prop.getProperty(key + "_Val");
-            if (value != null) {
-                String type2 = prop.getProperty(key + "_Type");
-                if (!type2.equalsIgnoreCase(type)) {
-
-                    reportResults(true, 
-                            ReportLogger.ReportLevel.FAILURE,
-                            "Retrieve",
-                            "Error",
-                            "Cannot retrieve value. "
-                                    + type
-                                    + " "
-                                    + key
-                                    + "::: Actual Error : Trying to retrieve : "
-                                    + type + ", found : " + type2);
-
-                }
+                                + "::: Actual Error : "
+                                + DataStore.DEFAULT_FILE + " not found");
+                return null;
             }
+            value = dataStore.get(key);
+        } catch (IOException e) {
 
-            reportResults(true, ReportLogger.ReportLevel.SUCCESS, "Retrieve",
-                    "Success", "Retrieve value passed. Retrieve value : "
-                            + value);
+            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Retrieve",
+                    "Error", "Cannot retrieve value. " + type + " " + key
+                            + "::: Actual Error : " + e.getMessage());
+            return null;
+        }
 
-        } catch (FileNotFoundException e) {
+        if (value == null) {
 
             reportResults(true, ReportLogger.ReportLevel.FAILURE, "Retrieve",
                     "Error", "Cannot retrieve value. " + type + " " + key
-                            + "::: Actual Error : " + e.getMessage());
+                            + "::: Actual Error : " + key + " is not stored");
             return null;
+        }
 
-        } finally {
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+        if (value.getKind() != kind) {
+
+            reportResults(true, 
+                    ReportLogger.ReportLevel.FAILURE,
+                    "Retrieve",
+                    "Error",
+                    "Cannot retrieve value. "
+                            + type
+                            + " "
+                            + key
+                            + "::: Actual Error : Trying to retrieve : "
+                            + type + ", found : " + value.getType());
+            return null;
         }
+
+        reportResults(ReportLogger.ReportLevel.SUCCESS, "Retrieve",
+                "Success", "Retrieve value passed. Retrieve value : "
+                        + value.getText());
         return value;
     }
 
+    /**
+     * Retrieves a list of values previously stored.
+     * 
+     * @param key
+     *            : key for the value to be retrieved
+     * @return the values stored for the given <b>key</b>, or an empty list if
+     *         they cannot be retrieved
+     */
+    @Override
+    public final List<String> retrieveList(final String key) {
+        DataValue stored = retrieve(key, DataValue.LIST, DataValue.KIND_LIST);
+        if (stored != null && stored.getKind() == DataValue.KIND_LIST) {
+            return stored.getList();
+        }
+        return Collections.<String> emptyList();
+    }
+
     /**
      * Retrieves an int value previously stored <br>
      * <br>
-     * <b>Fails</b> if, <li>the stored value is not parsable to int</li> <br>
+     * <b>Fails</b> if, <li>the stored value is not of type int</li> <br>
      * <br>
      * .
      * 
@@ -1516,27 +1677,14 @@ public class RFTCommandBase implements ICommandBase {
      */
     @Override
     public final int retrieveInt(final String key) {
-        String value = retrieve(key, "Int");
-        try {
-            if (value != null) {
-                return Integer.parseInt(value);
-            }
-        } catch (NumberFormatException e) {
-            reportResults(
-                    ReportLogger.ReportLevel.FAILURE,
-                    "Retrieve",
-                    "Error",
-                    "Cannot parse the retrieved value to Integer. Value : "
-                            + value + " " + key + "::: Actual Error : "
-                            + e.getMessage());
-        }
-        return -1;
+        DataValue stored = retrieve(key, DataValue.INT, DataValue.KIND_INT);
+        return stored == null ? -1 : stored.getInt();
     }
 
     /**
      * Retrieves a float value previously stored <br>
      * <br>
-     * <b>Fails</b> if, <li>the stored value is not parsable to float</li> <br>
+     * <b>Fails</b> if, <li>the stored value is not of type float</li> <br>
      * <br>
      * .
      * 
@@ -1546,28 +1694,14 @@ public class RFTCommandBase implements ICommandBase {
      */
     @Override
     public final float retrieveFloat(final String key) {
-        String value = retrieve(key, "Float");
-        try {
-            if (value != null) {
-                return Float.parseFloat(value);
-            }
-        } catch (NumberFormatException e) {
-
-            reportResults(true, 
-                    ReportLogger.ReportLevel.FAILURE,
-                    "Retrieve",
-                    "Error",
-                    "Cannot parse the retrieved value to Float. Value : "
-                            + value + " " + key + "::: Actual Error : "
-                            + e.getMessage());
-        }
-        return -1;
+        DataValue stored = retrieve(key, DataValue.FLOAT, DataValue.KIND_FLOAT);
+        return stored == null ? -1 : stored.getFloat();
     }
 
     /**
      * Retrieves a boolean value previously stored <br>
      * <br>
-     * <b>Fails</b> if, <li>the stored value is not parsable to boolean</li> <br>
+     * <b>Fails</b> if, <li>the stored value is not of type boolean</li> <br>
      * <br>
      * .
      * 
@@ -1577,18 +1711,8 @@ public class RFTCommandBase implements ICommandBase {
      */
     @Override
     public final boolean retrieveBoolean(final String key) {
-        String value = retrieve(key, "Boolean");
-        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
-            return Boolean.parseBoolean(value);
-        } else {
-
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Retrieve",
-                    "Error",
-                    "Cannot parse the retrieved value to Boolean. Value : "
-                            + value + " " + key);
-
-            return false;
-        }
+        DataValue stored = retrieve(key, DataValue.BOOLEAN, DataValue.KIND_BOOLEAN);
+        return stored != null && stored.getBoolean();
     }
 
     /**
@@ -1608,7 +1732,7 @@ public class RFTCommandBase implements ICommandBase {
             final String coordinates) {
 
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "clickAt");
         doClickAt(locator, coordinates);
     }
 
@@ -1635,79 +1759,32 @@ public class RFTCommandBase implements ICommandBase {
      * @param coordinates
      *            the coordinates
      */
-    private void doClickAt(final ObjectLocator locator, final String coordinates) {
+    private void doClickAt(final ObjectLocator locator,
+            final String coordinates) {
 
-        int retryCounter = retry;
         int xOffset = 0;
         int yOffset = 0;
         try {
-            try {
-                xOffset = Integer.parseInt((coordinates.split(",")[0]).trim());
-                yOffset = Integer.parseInt((coordinates.split(",")[1]).trim());
-            } catch (Exception e) {
-                reportResults(true, ReportLogger.ReportLevel.FAILURE, "Click At",
-                        "Error", "Cannot parse the coordinates " + coordinates
-                                + " for the command. ::: " + "Object : "
-                                + Arrays.asList(locator.getPropertyArray())
-                                + "Actual Error : " + e.getMessage());
-
-            }
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        GuiTestObject element = new GuiTestObject(objectID);
-                        Point p = new Point(xOffset, yOffset);
-                        element.click(p);
-                        reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                "Click At", "Success",
-                                "Click At command passed");
-                        break;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Click At",
-                                    "Error",
-                                    "Cannot access the element. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
-                }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Click At",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
-            }
-
-        } catch (UserAbortedActionException uaae) {
-            throw uaae;
-        } catch (Exception ex) {
-            ex.printStackTrace();
+            xOffset = Integer.parseInt((coordinates.split(",")[0]).trim());
+            yOffset = Integer.parseInt((coordinates.split(",")[1]).trim());
+        } catch (Exception e) {
             reportResults(true, ReportLogger.ReportLevel.FAILURE, "Click At",
-                    "Error", "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
+                    "Error", "Cannot parse the coordinates " + coordinates
+                            + " for the command. ::: " + "Object : "
+                            + Arrays.asList(locator.getSharedPropertyArray())
+                            + "Actual Error : " + e.getMessage());
+
         }
+        final Point p = new Point(xOffset, yOffset);
+        commandExecutor.execute(new ElementCommand("Click At", "clickAt", locator,
+                null, true) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                GuiTestObject element = new GuiTestObject(elements[0]);
+                element.click(p);
+                return "Click At command passed";
+            }
+        });
     }
 
     /**
@@ -1727,7 +1804,7 @@ public class RFTCommandBase implements ICommandBase {
             final String identifier, final String coordinates) {
 
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "doubleClickAt");
         doDoubleClickAt(locator, coordinates);
     }
 
@@ -1758,78 +1835,29 @@ public class RFTCommandBase implements ICommandBase {
     private void doDoubleClickAt(final ObjectLocator locator,
             final String coordinates) {
 
-        int retryCounter = retry;
         int xOffset = 0;
         int yOffset = 0;
-        try {
-            try {
-                xOffset = Integer.parseInt((coordinates.split(",")[0]).trim());
-                yOffset = Integer.parseInt((coordinates.split(",")[1]).trim());
-            } catch (Exception e) {
-                reportResults(true, ReportLogger.ReportLevel.FAILURE, "Click At",
-                        "Error", "Cannot parse the coordinates " + coordinates
-                                + " for the command. ::: " + "Object : "
-                                + Arrays.asList(locator.getPropertyArray())
-                                + "Actual Error : " + e.getMessage());
-
-            }
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        GuiTestObject element = new GuiTestObject(objectID);
-                        Point p = new Point(xOffset, yOffset);
-                        element.doubleClick(p);
-                        reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                "Double Click At", "Success",
-                                "Click At command passed");
-                        break;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Double Click At",
-                                    "Error",
-                                    "Cannot access the element. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
-                }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Double Click At",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
-            }
-
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
+        try {
+            xOffset = Integer.parseInt((coordinates.split(",")[0]).trim());
+            yOffset = Integer.parseInt((coordinates.split(",")[1]).trim());
+        } catch (Exception e) {
+            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Click At",
+                    "Error", "Cannot parse the coordinates " + coordinates
+                            + " for the command. ::: " + "Object : "
+                            + Arrays.asList(locator.getSharedPropertyArray())
+                            + "Actual Error : " + e.getMessage());
 
-            ex.printStackTrace();
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Double Click At",
-                    "Error", "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
         }
+        final Point p = new Point(xOffset, yOffset);
+        commandExecutor.execute(new ElementCommand("Double Click At", "doubleClickAt", locator,
+                null, true) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                GuiTestObject element = new GuiTestObject(elements[0]);
+                element.doubleClick(p);
+                return "Click At command passed";
+            }
+        });
     }
 
     /**
@@ -1847,7 +1875,7 @@ public class RFTCommandBase implements ICommandBase {
             final String identifier) {
 
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "doubleClick");
         doDoubleClick(locator);
     }
 
@@ -1871,65 +1899,15 @@ public class RFTCommandBase implements ICommandBase {
      *            the locator
      */
     private void doDoubleClick(final ObjectLocator locator) {
-
-        int retryCounter = retry;
-
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        GuiTestObject element = new GuiTestObject(objectID);
-                        element.doubleClick();
-                        reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                "Double Click", "Success",
-                                "Double Click command passed");
-                        break;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Double Click",
-                                    "Error",
-                                    "Cannot access the element. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
-                }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Double Click",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
+        commandExecutor.execute(new ElementCommand("Double Click", "doubleClick",
+                locator, null, true) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                GuiTestObject element = new GuiTestObject(elements[0]);
+                element.doubleClick();
+                return "Double Click command passed";
             }
-
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Double Click",
-                    "Error", "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
+        });
     }
 
     /**
@@ -1975,236 +1953,61 @@ public class RFTCommandBase implements ICommandBase {
          * succeeded 2. if the RETRY count is exceeded
          */
         try {
-            if (event.startsWith("KEY%")) {
-
-                fireKeyEvent(event.split("%")[1]);
-            } else if (event.startsWith("MOUSE%")) {
+            EventProgram program = EventCompiler.compile(event);
+            String value =
+                    new EventExecutor(InputDriver.getInstance())
+                            .execute(program);
+            if (program.getType() == EventProgram.Type.VERIFY) {
+                if (program.getValue().equals(value)) {
 
-                fireMouseEvent(event.split("%")[1]);
-            } else if (event.startsWith("VERIFY%")) {
+                    reportResults(ReportLogger.ReportLevel.SUCCESS,
+                            "Fire Event", "Success",
+                            "Verify value passed. Value : "
+                                    + program.getValue());
+                } else {
 
-                fireEventVerifyValue(event.split("%")[1]);
-            } else {
-                reportResults(true, ReportLogger.ReportLevel.FAILURE, "Fire Event",
-                        "Error", "Cannot perform the event. ::: "
-                                + "Actual Error : Invalid event type passed "
-                                + event);
+                    reportResults(true, ReportLogger.ReportLevel.FAILURE,
+                            "Fire Event", "Error",
+                            "Verify value match expected. ::: "
+                                    + "Expected value : " + program.getValue()
+                                    + " Actual value : " + value);
+                }
             }
 
             reportResults(ReportLogger.ReportLevel.SUCCESS, "Fire Event",
                     "Success", "Performed the event successfully. Event : "
                             + event);
 
-        } catch (Exception e) {
-
-            if (e.getMessage().startsWith("Command")) {
-                e.printStackTrace();
-                reportResults(true, ReportLogger.ReportLevel.FAILURE, "Fire Event",
-                        "Error", "Cannot perform the invalid event. ::: "
-                                + "Actual Error : Invalid event type passed "
-                                + event);
-            } else {
-                e.printStackTrace();
-                reportResults(true, ReportLogger.ReportLevel.FAILURE, "Fire Event",
-                        "Error", "Cannot perform the event. ::: "
-                                + "Actual Error : " + e.getMessage());
-            }
-        }
-    }
-
-    /**
-     * Get the selected text in webpage to the clipboard and compare the value
-     * with the given input.
-     * 
-     * @param value
-     *            the value
-     * @throws Exception
-     *             the exception
-     */
-
-    private void fireEventVerifyValue(final String value) throws Exception {
-
-        String clipBoardText = "";
-        Robot robot = new Robot();
-
-        robot.keyPress(KeyEvent.VK_CONTROL);
-        robot.keyPress(KeyEvent.VK_C);
-        robot.keyRelease(KeyEvent.VK_C);
-        robot.keyRelease(KeyEvent.VK_CONTROL);
-
-        Utils.pause(retryInterval);
-        Transferable trans =
-                Toolkit.getDefaultToolkit().getSystemClipboard()
-                        .getContents(null);
+        } catch (IllegalArgumentException e) {
 
-        try {
-            if (trans != null) {
-                clipBoardText =
-                        (String) trans.getTransferData(DataFlavor.stringFlavor);
-            }
-        } catch (Exception e) {
             e.printStackTrace();
-        }
-
-        if (clipBoardText.equals(value)) {
-
-            reportResults(ReportLogger.ReportLevel.SUCCESS, "Fire Event",
-                    "Success", "Verify value passed. Value : " + value);
-
-        } else {
-
             reportResults(true, ReportLogger.ReportLevel.FAILURE, "Fire Event",
-                    "Error", "Verify value match expected. ::: "
-                            + "Expected value : " + value + " Actual value : "
-                            + clipBoardText);
-        }
-    }
-
-    /**
-     * Fires a set of java robot key events into the webpage.
-     * 
-     * @param commands
-     *            the commands
-     * @throws Exception
-     *             the exception
-     */
-
-    private void fireKeyEvent(final String commands) throws Exception {
-
-        String[] commandSet = commands.split("\\|");
-        Robot robot = new Robot();
-        for (String fullCommand : commandSet) {
-            Utils.pause(retryInterval / 2);
-            int commandIndex = 0;
-            int inputIndex = 1;
-            String command = fullCommand.split("=")[commandIndex];
-            String input = fullCommand.split("=")[inputIndex];
-            if ("type".equalsIgnoreCase(command)) {
-                Clipboard clipboard =
-                        Toolkit.getDefaultToolkit().getSystemClipboard();
-                StringSelection stringSelection = new StringSelection(input);
-                clipboard.setContents(stringSelection, null);
-
-                robot.keyPress(KeyEvent.VK_CONTROL);
-                robot.keyPress(KeyEvent.VK_V);
-                robot.keyRelease(KeyEvent.VK_V);
-                robot.keyRelease(KeyEvent.VK_CONTROL);
-
-            } else if ("Key".equalsIgnoreCase(command)) {
-
-                type(input);
-            } else if ("wait".equalsIgnoreCase(command)) {
-
-                Utils.pause(Integer.parseInt(input));
-            } else {
-                throw new Exception("Command " + command);
-            }
-        }
-    }
-
-    /**
-     * Fires a set of java robot mouse events into the webpage.
-     * 
-     * @param commands
-     *            the commands
-     * @throws Exception
-     *             the exception
-     */
-
-    private void fireMouseEvent(final String commands) throws Exception {
-
-        String[] commandSet = commands.split("\\|");
-        Robot robot = new Robot();
-        final int optimumPauseBetweenKeyCombs = 10;
-        final int f11KeyCode = KeyEvent.VK_F11;
-        for (String fullCommand : commandSet) {
-            Utils.pause(retryInterval);
-            int commandIndex = 0;
-            int inputIndex = 1;
-            String command = fullCommand.split("=")[commandIndex];
-            String input = fullCommand.split("=")[inputIndex];
-
-            if ("MOVE".equalsIgnoreCase(command)) {
-
-                String[] coords = input.split(",");
-                int resolutionWidth = Integer.parseInt(coords[0]);
-                int resolutionHeight = Integer.parseInt(coords[inputIndex]);
-                int x = Integer.parseInt(coords[inputIndex + 1]);
-                int y = Integer.parseInt(coords[inputIndex + 2]);
-
-                int xCordinateAutual = (int) calWidth(resolutionWidth, x);
-                int yCordinateAutual = (int) calHight(resolutionHeight, y);
-
-                robot.keyPress(f11KeyCode);
-                robot.delay(optimumPauseBetweenKeyCombs);
-                robot.keyRelease(f11KeyCode);
-                Utils.pause(retryInterval);
-
-                // Mouse Move
-                robot.mouseMove(xCordinateAutual, yCordinateAutual);
-
-                robot.keyPress(f11KeyCode);
-                Utils.pause(optimumPauseBetweenKeyCombs);
-                robot.keyRelease(f11KeyCode);
-
-            } else if ("SCROLL".equalsIgnoreCase(command)) {
-
-                robot.mouseWheel(Integer.parseInt(input));
-
-            } else if ("wait".equalsIgnoreCase(command)) {
+                    "Error", "Cannot perform the invalid event. ::: "
+                            + "Actual Error : " + e.getMessage());
+        } catch (Exception e) {
 
-                Utils.pause(Integer.parseInt(input));
-            } else {
-                throw new Exception("Command " + command);
-            }
+            e.printStackTrace();
+            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Fire Event",
+                    "Error", "Cannot perform the event. ::: "
+                            + "Actual Error : " + e.getMessage());
         }
     }
 
     /**
-     * Type.
+     * Appends the key combination of the given key to an input sequence.
      * 
+     * @param sequence
+     *            the input sequence
      * @param character
-     *            the character
-     */
-    private void type(final String character) {
-
-        KeyCodes keys = new KeyCodes();
-        doTypeKeyCodes(keys.getKeyCodes(character));
-    }
-
-    /**
-     * Do type.
-     * 
-     * @param keyCodes
-     *            the key codes
+     *            the key, such as a, \t or ctrl+o
      */
-    private void doTypeKeyCodes(final int... keyCodes) {
-        doTypeKeys(keyCodes, 0, keyCodes.length);
-    }
+    private void type(final InputSequence sequence, final String character) {
 
-    /**
-     * Do type.
-     * 
-     * @param keyCodes
-     *            the key codes
-     * @param offset
-     *            the offset
-     * @param length
-     *            the length
-     */
-    private void doTypeKeys(final int[] keyCodes, final int offset,
-            final int length) {
-        if (length == 0) {
-            return;
-        }
-        try {
-            Robot robot = new Robot();
-            robot.keyPress(keyCodes[offset]);
-            doTypeKeys(keyCodes, offset + 1, length - 1);
-            robot.keyRelease(keyCodes[offset]);
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        int[] keyCodes = KeyCodes.lookup(character);
+        if (keyCodes == null) {
+            throw new IllegalArgumentException("Unknown key " + character);
         }
+        sequence.type(keyCodes);
     }
 
     /**
@@ -2308,7 +2111,7 @@ public class RFTCommandBase implements ICommandBase {
     public final void keyPress(final String objectName,
             final String identifier, final Object inputValue) {
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "keyPress");
         doKeyPress(locator, inputValue);
     }
 
@@ -2327,72 +2130,38 @@ public class RFTCommandBase implements ICommandBase {
      *            the value
      */
     private void doKeyPress(final ObjectLocator locator, final Object value) {
-
-        int retryCounter = retry;
-        try {
-            String[] valueStringsArr = value.toString().split("\\|");
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        GuiTestObject element = new GuiTestObject(objectID);
-                        element.hover();
-                        for (int strLocation = 0; strLocation < valueStringsArr.length; strLocation++) {
-                            if (!valueStringsArr[strLocation].isEmpty()) {
-                                Utils.pause(Integer.parseInt("1000"));
-                                type(valueStringsArr[strLocation]);
-                            }
-                        }
-
-                        reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                "Key Press", "Success",
-                                "Key Press command passed");
-                        break;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Key Press",
-                                    "Error",
-                                    "Cannot press the given key inputs : "+Arrays.asList(valueStringsArr)+" into the object. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
+        final String[] valueStringsArr = value.toString().split("\\|");
+        commandExecutor.execute(new ElementCommand("Key Press", "keyPress",
+                locator, null, true) {
+            @Override
+            protected String act(final TestObject[] elements)
+                    throws AWTException {
+                GuiTestObject element = new GuiTestObject(elements[0]);
+                element.hover();
+                int keyPressInterval =
+                        LayeredConfiguration.getInt(KEY_PRESS_INTERVAL,
+                                locator.getSettings(),
+                                DEFAULT_KEY_PRESS_INTERVAL);
+                InputSequence sequence = new InputSequence();
+                for (int strLocation = 0; strLocation < valueStringsArr.length; strLocation++) {
+                    if (!valueStringsArr[strLocation].isEmpty()) {
+                        sequence.delay(keyPressInterval);
+                        type(sequence, valueStringsArr[strLocation]);
                     }
                 }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Key Press",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
+                InputDriver.getInstance().play(sequence);
+                return "Key Press command passed";
             }
 
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Key Press",
-                    "Error", "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
+            @Override
+            protected String getAccessErrorMessage(final Exception ex) {
+                return "Cannot press the given key inputs : "
+                        + Arrays.asList(valueStringsArr)
+                        + " into the object. ::: " + "Object : "
+                        + Arrays.asList(locator.getSharedPropertyArray())
+                        + " ::: " + "Actual Error : " + ex.getMessage();
+            }
+        });
     }
 
     /**
@@ -2409,7 +2178,7 @@ public class RFTCommandBase implements ICommandBase {
     public final void mouseOver(final String objectName, final String identifier) {
 
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "mouseOver");
         doMouseOver(locator);
     }
 
@@ -2433,66 +2202,15 @@ public class RFTCommandBase implements ICommandBase {
      *            the locator
      */
     private void doMouseOver(final ObjectLocator locator) {
-
-        int retryCounter = retry;
-
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
-
-                TestObject objectID = objectIDArr[0];
-                while (retryCounter > 0) {
-                    try {
-                        retryCounter--;
-                        GuiTestObject element = new GuiTestObject(objectID);
-                        element.hover();
-                        reportResults(ReportLogger.ReportLevel.SUCCESS,
-                                "Mouse Over", "Success",
-                                "Mouse Over command passed");
-                        break;
-                    } catch (Exception ex) {
-                        if (!(retryCounter > 0)) {
-                            ex.printStackTrace();
-                            reportResults(true, 
-                                    ReportLogger.ReportLevel.FAILURE,
-                                    "Mouse Over",
-                                    "Error",
-                                    "Cannot access the element. ::: "
-                                            + "Object : "
-                                            + Arrays.asList(locator
-                                                    .getPropertyArray())
-                                            + " ::: " + "Actual Error : "
-                                            + ex.getMessage());
-                            break;
-                        }
-                    }
-                }
-            } else {
-                reportResults(true, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Mouse Over",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
-            }
-
-        } catch (Exception ex) {
-            if (ex instanceof UserAbortedActionException) {
-                throw ex;
+        commandExecutor.execute(new ElementCommand("Mouse Over", "mouseOver",
+                locator, null, true) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                GuiTestObject element = new GuiTestObject(elements[0]);
+                element.hover();
+                return "Mouse Over command passed";
             }
-            ex.printStackTrace();
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Mouse Over",
-                    "Error", "Cannot find the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
+        });
     }
 
     /**
@@ -2507,10 +2225,12 @@ public class RFTCommandBase implements ICommandBase {
     @Override
     public final void goBack(final String waitTime) {
 
+        releaseAllTestObjects();
         try {
             RootTestObject root = script.getRootTestObject();
             TestObject[] browsers =
-                    root.find(script.atDescendant(".class", "Html.HtmlBrowser"));
+                    track(root.find(script.atDescendant(".class",
+                            "Html.HtmlBrowser")));
             if (browsers.length == 0) {
                 throw new Exception("Cannot find any open test browser."
                         + waitTime + " seconds");
@@ -2562,7 +2282,7 @@ public class RFTCommandBase implements ICommandBase {
     public final int getObjectCount(final String objectName,
             final String identifier) {
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "getObjectCount");
         return doGetObjectCount(locator);
     }
 
@@ -2574,23 +2294,28 @@ public class RFTCommandBase implements ICommandBase {
      * @return true, if successful
      */
     private int doGetObjectCount(final ObjectLocator locator) {
-        int objectCount = 0;
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            objectCount = objectIDArr.length;
-            reportResults(ReportLogger.ReportLevel.SUCCESS, "Get Object Count",
-                    "Success", "Object count is " + objectCount);
-        } catch (Exception e) {
-            e.printStackTrace();
-            reportResults(true, ReportLogger.ReportLevel.FAILURE, "Get Object Count",
-                    "Error", "Cannot access the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + e.getMessage());
+        final int[] objectCount = new int[1];
+        commandExecutor.execute(new ElementCommand("Get Object Count",
+                "getObjectCount", locator, null, true) {
+            @Override
+            protected String act(final TestObject[] elements) {
+                objectCount[0] = elements.length;
+                return "Object count is " + objectCount[0];
+            }
 
-        } finally {
-            script.unregisterAll();
-        }
-        return objectCount;
+            @Override
+            protected boolean isElementRequired() {
+                return false;
+            }
+
+            @Override
+            protected String getErrorMessage(final Exception ex) {
+                return "Cannot access the element. ::: " + "Object : "
+                        + Arrays.asList(locator.getSharedPropertyArray())
+                        + " ::: " + "Actual Error : " + ex.getMessage();
+            }
+        });
+        return objectCount[0];
     }
 
     /**
@@ -2611,7 +2336,14 @@ public class RFTCommandBase implements ICommandBase {
 
         String res = resolution;
         final int f11KeyCode = KeyEvent.VK_F11;
-        final int optimumPauseBetweenkeyCombs = 10;
+        final int optimumPauseBetweenkeyCombs =
+                LayeredConfiguration.getInt(
+                        EventExecutor.KEY_COMBINATION_DELAY,
+                        EventExecutor.DEFAULT_KEY_COMBINATION_DELAY);
+        final int mouseEventInterval =
+                LayeredConfiguration.getInt(
+                        EventExecutor.MOUSE_EVENT_INTERVAL,
+                        EventExecutor.DEFAULT_MOUSE_EVENT_INTERVAL);
         String[] resArr = res.split(",");
         String[] coordinatesArr = coordinates.split(",");
 
@@ -2626,11 +2358,16 @@ public class RFTCommandBase implements ICommandBase {
             command = coordinatesArr[2];
         }
 
-        Robot robot = null;
+        InputDriver driver = null;
         try {
-            robot = new Robot();
+            driver = InputDriver.getInstance();
         } catch (AWTException e) {
             e.printStackTrace();
+            reportResults(true, ReportLogger.ReportLevel.FAILURE,
+                    "Mouse Move And Click", "Error",
+                    "Cannot generate native input. ::: Actual Error : "
+                            + e.getMessage());
+            return;
         }
 
         Utils.pause(Integer.parseInt(waitTime));
@@ -2638,41 +2375,45 @@ public class RFTCommandBase implements ICommandBase {
         int xCordinateAutual = (int) calWidth(screenWidht, xCordinate);
         int yCordinateAutual = (int) calHight(screeHigt, yCordinate);
 
-        robot.keyPress(f11KeyCode);
-        robot.delay(optimumPauseBetweenkeyCombs);
-        robot.keyRelease(f11KeyCode);
-        Utils.pause(retryInterval);
+        InputSequence sequence = new InputSequence();
+        sequence.press(f11KeyCode).delay(optimumPauseBetweenkeyCombs)
+                .release(f11KeyCode).waitForIdle().delay(mouseEventInterval);
 
         // Mouse Move
-        robot.mouseMove(xCordinateAutual, yCordinateAutual);
+        sequence.mouseMove(xCordinateAutual, yCordinateAutual);
 
         // Click
+        boolean doubleClick =
+                "dclick".equals(command.toLowerCase(Locale.getDefault()));
         if ("".equals(command)) {
 
-            robot.mousePress(InputEvent.BUTTON1_MASK);
-            Utils.pause(retryInterval);
-            robot.mouseRelease(InputEvent.BUTTON1_MASK);
+            sequence.mousePress(InputEvent.BUTTON1_MASK)
+                    .delay(mouseEventInterval)
+                    .mouseRelease(InputEvent.BUTTON1_MASK);
 
-            reportResults(ReportLogger.ReportLevel.SUCCESS,
-                    "Mouse Move And Click", "Success", "Resolution : " + res);
+        } else if (doubleClick) {
 
-        } else if ("dclick".equals(command.toLowerCase(Locale.getDefault()))) {
+            final int optimumPauseBetweenDclick =
+                    LayeredConfiguration.getInt(DOUBLE_CLICK_DELAY,
+                            DEFAULT_DOUBLE_CLICK_DELAY);
+            sequence.mousePress(InputEvent.BUTTON1_MASK)
+                    .mouseRelease(InputEvent.BUTTON1_MASK)
+                    .delay(optimumPauseBetweenDclick)
+                    .mousePress(InputEvent.BUTTON1_MASK)
+                    .mouseRelease(InputEvent.BUTTON1_MASK);
+        }
 
-            robot.mousePress(InputEvent.BUTTON1_MASK);
-            robot.mouseRelease(InputEvent.BUTTON1_MASK);
-            final int optimumPauseBetweenDclick = 500;
-            robot.delay(optimumPauseBetweenDclick);
-            robot.mousePress(InputEvent.BUTTON1_MASK);
-            robot.mouseRelease(InputEvent.BUTTON1_MASK);
+        sequence.press(f11KeyCode).delay(optimumPauseBetweenkeyCombs)
+                .release(f11KeyCode);
+        driver.play(sequence);
 
+        if ("".equals(command)) {
+            reportResults(ReportLogger.ReportLevel.SUCCESS,
+                    "Mouse Move And Click", "Success", "Resolution : " + res);
+        } else if (doubleClick) {
             reportResults(true, ReportLogger.ReportLevel.SUCCESS,
                     "Mouse Move And Click", "Success", "Resolution : " + res);
-
         }
-
-        robot.keyPress(f11KeyCode);
-        robot.delay(optimumPauseBetweenkeyCombs);
-        robot.keyRelease(f11KeyCode);
     }
 
     public static enum TableValidationType {
@@ -2686,7 +2427,9 @@ public class RFTCommandBase implements ICommandBase {
         /** The relative. */
         RELATIVE,
         /** The tablecell. */
-        TABLECELL
+        TABLECELL,
+        /** The tabledata, read in chunks of rows. */
+        STREAMDATA
     };
 
     @Override
@@ -2703,7 +2446,7 @@ public class RFTCommandBase implements ICommandBase {
             final String identifier, final String validationTypeS,
             final Object objExpectedvale, final boolean stopOnFaliure) {
         ObjectLocator locator =
-                objectMap.getResolvedObjectSearchPath(objectName, identifier);
+                resolveLocator(objectName, identifier, "checkTable");
         doCheckTable(locator, validationTypeS, objExpectedvale, stopOnFaliure);
     }
 
@@ -2711,65 +2454,67 @@ public class RFTCommandBase implements ICommandBase {
             final String validationTypeS, final Object objExpectedvale,
             final boolean stopOnFaliure) {
 
-        TableValidationType validationType =
+        final TableValidationType validationType =
                 TableValidationType.valueOf(validationTypeS);
 
-        try {
-            TestObject[] objectIDArr = findElements(locator.getPropertyArray());
-            if (objectIDArr.length > 0) {
+        commandExecutor.execute(new ElementCommand("Check Table", "checkTable",
+                locator, null, stopOnFaliure) {
+
+            /** The table the snapshot was taken of. */
+            private TestObject tableObject;
 
-                TestObject object = objectIDArr[0];
+            /** The snapshot of the table, kept across the attempts. */
+            private TableSnapshot table;
+
+            @Override
+            protected String act(final TestObject[] elements)
+                    throws CommandFailureException {
+                if (validationType == TableValidationType.STREAMDATA) {
+
+                    streamTableData(locator, getTestDataTable(elements[0]),
+                            objExpectedvale, stopOnFaliure);
+                    return null;
+                }
+                if (table == null || tableObject != elements[0]) {
+                    table = TableSnapshot.of(getTestDataTable(elements[0]));
+                    tableObject = elements[0];
+                }
                 if (validationType == TableValidationType.ROWCOUNT) {
 
-                    validateTableRowCount(locator, object, objExpectedvale,
+                    validateTableRowCount(locator, table, objExpectedvale,
                             stopOnFaliure);
                 } else if (validationType == TableValidationType.COLCOUNT) {
 
-                    validateTableColCount(locator, object, objExpectedvale,
+                    validateTableColCount(locator, table, objExpectedvale,
                             stopOnFaliure);
                 } else if (validationType == TableValidationType.TABLEDATA) {
 
-                    compareTableData(locator, object, objExpectedvale,
+                    compareTableData(locator, table, objExpectedvale,
                             stopOnFaliure);
                 } else if (validationType == TableValidationType.RELATIVE) {
 
-                    validateTableOffset(locator, object, objExpectedvale,
+                    validateTableOffset(locator, table, objExpectedvale,
                             stopOnFaliure);
-                 } else if (validationType == TableValidationType.TABLECELL) {
+                } else if (validationType == TableValidationType.TABLECELL) {
 
-                    validateCellValue(locator, object, objExpectedvale,
+                    validateCellValue(locator, table, objExpectedvale,
                             stopOnFaliure);
-                 }
-            } else {
-                reportResults(stopOnFaliure, 
-                        ReportLogger.ReportLevel.FAILURE,
-                        "Check Table",
-                        "Error",
-                        "Cannot find the element. ::: "
-                                + "Object : "
-                                + locator.getLogicalName()
-                                + " ::: "
-                                + "Actual Error : Cannot find the element with properties : "
-                                + Arrays.asList(locator.getPropertyArray()));
-
+                }
+                return null;
             }
 
-        } catch (UserAbortedActionException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
-                    "Error", "Cannot access the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
-                            + " ::: " + "Actual Error : " + ex.getMessage());
-        } finally {
-            script.unregisterAll();
-        }
-
+            @Override
+            protected String getErrorMessage(final Exception ex) {
+                return "Cannot access the element. ::: " + "Object : "
+                        + Arrays.asList(locator.getSharedPropertyArray())
+                        + " ::: " + "Actual Error : " + ex.getMessage();
+            }
+        });
     }
 
-    private void validateCellValue(ObjectLocator locator, TestObject object,
-            Object objExpectedValue, boolean stopOnFaliure) {
+    private void validateCellValue(ObjectLocator locator, TableSnapshot table,
+            Object objExpectedValue, boolean stopOnFaliure)
+            throws CommandFailureException {
         
         ArrayList<String> inputStringArray;
         boolean failedOnce = false;
@@ -2777,7 +2522,7 @@ public class RFTCommandBase implements ICommandBase {
         int col = -1;
         String cellText = "";
         String result = "";
-        ArrayList<String> htmlTable = new ArrayList<String>();
+        List<String> htmlTable = new ArrayList<String>();
         final int inputStringItems = 3;
 
         inputStringArray = new ArrayList<String>(Arrays.asList(objExpectedValue.toString()
@@ -2794,12 +2539,20 @@ public class RFTCommandBase implements ICommandBase {
             failedOnce = true;
             reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
                     "Error", "Check table command TABLECELL failed. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : Verification data not provided correctly. "+ objExpectedValue );
             return;
         }
-        row = Integer.parseInt(inputStringArray.get(0));
-        col = Integer.parseInt(inputStringArray.get(1));
+        try {
+            row = Integer.parseInt(inputStringArray.get(0));
+            col = Integer.parseInt(inputStringArray.get(1));
+        } catch (NumberFormatException ex) {
+            throw new CommandFailureException(
+                    "Check table command TABLECELL failed. ::: " + "Object : "
+                            + Arrays.asList(locator.getSharedPropertyArray())
+                            + " ::: " + "Actual Error : Invalid row or column. "
+                            + objExpectedValue);
+        }
 
         cellText = StringUtils.join(
                 inputStringArray.subList(2, inputStringArray.size()).toArray(),
@@ -2807,7 +2560,7 @@ public class RFTCommandBase implements ICommandBase {
 
         try {
             
-            htmlTable = getAppTableRow(object, row);
+            htmlTable = table.getRow(row);
         } catch (Exception ex) {
             failedOnce = true;
             result = result + " | Expected Row : " + row
@@ -2840,7 +2593,7 @@ public class RFTCommandBase implements ICommandBase {
             reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
                     "Error",
                     "Check Table TABLECELL command failed. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : Verification errors " + result);
             
 
@@ -2851,8 +2604,9 @@ public class RFTCommandBase implements ICommandBase {
         
     }
 
-    private void validateTableOffset(ObjectLocator locator, TestObject object,
-            Object objExpectedValue, boolean stopOnFaliure) {
+    private void validateTableOffset(ObjectLocator locator, TableSnapshot table,
+            Object objExpectedValue, boolean stopOnFaliure)
+            throws CommandFailureException {
         
         ArrayList<String> inputStringArray;
         String parentText = "";
@@ -2860,9 +2614,6 @@ public class RFTCommandBase implements ICommandBase {
         String cellText = "";
         String inputStringCurrStr = "";
         String result = "";
-        ArrayList<String> htmlTable;
-
-        htmlTable = getAppTable(object);
         StringBuilder resultBuilder = new StringBuilder();
 
         ArrayList<String> inputStringCurrArray;
@@ -2888,12 +2639,20 @@ public class RFTCommandBase implements ICommandBase {
             }
             inputStringCurrArray = tempInputTable;
 
-            parentText = inputStringCurrArray.get(0);
-            offset = Integer.valueOf(inputStringCurrArray.get(1));
-            cellText = inputStringCurrArray.get(2);
+            try {
+                parentText = inputStringCurrArray.get(0);
+                offset = Integer.valueOf(inputStringCurrArray.get(1));
+                cellText = inputStringCurrArray.get(2);
+            } catch (RuntimeException ex) {
+                throw new CommandFailureException(
+                        "Check table command RELATIVE failed. ::: " + "Object : "
+                                + Arrays.asList(locator.getSharedPropertyArray())
+                                + " ::: " + "Actual Error : Verification data not provided correctly. "
+                                + inputStringCurrStr);
+            }
             resultBuilder
                     .append(checkIfTheTableContainsTheExpectedRelativeValue(
-                            htmlTable, parentText, offset, cellText));
+                            table, parentText, offset, cellText));
         }
 
         result = resultBuilder.toString();
@@ -2902,7 +2661,7 @@ public class RFTCommandBase implements ICommandBase {
             reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
                     "Error",
                     "Check Table RELATIVE command failed. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : Verification errors " + result);
         } else {
             reportResults(ReportLogger.ReportLevel.SUCCESS, "Check Table",
@@ -2913,22 +2672,17 @@ public class RFTCommandBase implements ICommandBase {
     }
 
     private String checkIfTheTableContainsTheExpectedRelativeValue(
-            final List<String> htmlTable, final String parentText,
+            final TableSnapshot table, final String parentText,
             final int offset, final String cellText) {
         int indexParent;
         StringBuilder resultBuilder = new StringBuilder();
-        if (htmlTable.contains(parentText)) {
+        int[] parentTextIndexList = table.getPositions(parentText);
+        if (parentTextIndexList.length > 0) {
 
-            ArrayList<Integer> parentTextIndexList = new ArrayList<Integer>();
-            for (int k = 0; k < htmlTable.size(); k++) {
-                if (htmlTable.get(k).equals(parentText)) {
-                    parentTextIndexList.add(k);
-                }
-            }
-            for (int j = 0; j < parentTextIndexList.size(); j++) {
+            List<String> htmlTable = table.getCells();
+            for (int j = 0; j < parentTextIndexList.length; j++) {
 
-                // indexParent = htmlTable.indexOf(parentText);
-                indexParent = parentTextIndexList.get(j);
+                indexParent = parentTextIndexList[j];
                 String actualText = "";
                 try {
                     actualText = htmlTable.get((indexParent + offset));
@@ -2957,13 +2711,13 @@ public class RFTCommandBase implements ICommandBase {
     
     
 
-    private void compareTableData(ObjectLocator locator, TestObject object,
+    private void compareTableData(ObjectLocator locator, TableSnapshot table,
             Object objExpectedValue, boolean stopOnFaliure) {
 
-        ArrayList<String> htmlTable;
+        List<String> htmlTable;
         ArrayList<String> inputTable;
         try {
-            htmlTable = getAppTable(object);
+            htmlTable = table.getCells();
 
             inputTable =
                     new ArrayList<String>(Arrays.asList(objExpectedValue
@@ -2975,22 +2729,31 @@ public class RFTCommandBase implements ICommandBase {
             }
             inputTable = tempInputTable;
 
-            String inputTableStr = StringUtils.join(inputTable, "|");
-            String actualTableStr = StringUtils.join(htmlTable, "|");
+            TableMatcher.Result match =
+                    TableMatcher.find(htmlTable, table.getColumnCount(),
+                            inputTable);
 
-            if (actualTableStr.contains(inputTableStr)) {
+            if (match.isFound()) {
 
                 reportResults(ReportLogger.ReportLevel.SUCCESS, "Check Table",
                         "Success", "Check table data : " + objExpectedValue);
 
             } else {
                 String inputTableString = inputTable.toString();
-                String htmlTableString = htmlTable.toString();
+                StringBuilder resultBuilder = new StringBuilder();
+                if (match.getPosition() >= 0) {
+                    resultBuilder.append(" Best match : " + match.getMatchedCount()
+                            + " of " + inputTable.size() + " cells from cell "
+                            + match.getPosition() + "\n");
+                }
+                for (String difference : match.getDifferences()) {
+                    resultBuilder.append(" | " + difference + "\n");
+                }
                 reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
                         "Error",
                         "Check Table TABLEDATA command failed. ::: " + "Object : "
-                                + Arrays.asList(locator.getPropertyArray())
-                                + " ::: " + "Actual Error : Expected data "+inputTableString+"  does not match the actual : "+htmlTableString);
+                                + Arrays.asList(locator.getSharedPropertyArray())
+                                + " ::: " + "Actual Error : Expected data "+inputTableString+"  does not match the actual table." + resultBuilder);
             }
 
         } catch (UserAbortedActionException ex) {
@@ -2998,68 +2761,102 @@ public class RFTCommandBase implements ICommandBase {
         } catch (Exception ex) {
             reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
                     "Error", "Cannot access the element. ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : " + ex.getMessage());
         }        
 
     }
 
-    private ArrayList<String> getAppTable(TestObject object) {
+    /**
+     * Checks the table data like TABLEDATA, reading the table in chunks of
+     * rows. The cells are matched while they are read and the reading stops
+     * as soon as the expected cells are found, so very large or paged tables
+     * are never held in memory as a whole.
+     * 
+     * @param locator
+     *            the locator
+     * @param data
+     *            the table test data
+     * @param objExpectedValue
+     *            the expected cells, separated by commas
+     * @param stopOnFaliure
+     *            the stop on faliure
+     */
+    private void streamTableData(ObjectLocator locator, ITestDataTable data,
+            Object objExpectedValue, boolean stopOnFaliure) {
+
+        try {
+            ArrayList<String> inputTable = new ArrayList<String>();
+            for (String inputVal : objExpectedValue.toString().split(
+                    "(?<!\\\\),")) {
+                inputTable.add(inputVal.replaceAll("\\\\,", ","));
+            }
 
-        ArrayList<String> htmlTable = new ArrayList<String>();
+            TableReader reader =
+                    new TableReader(data, LayeredConfiguration.getInt(
+                            TABLE_CHUNK_ROWS, locator.getSettings(),
+                            TableReader.DEFAULT_CHUNK_ROWS));
+            TableMatcher.Search search = TableMatcher.search(inputTable);
+            while (!search.isFound() && reader.hasNext()) {
+                search.add(reader.next());
+            }
+            TableMatcher.Result match =
+                    search.getResult(reader.getColumnCount());
 
-        StatelessGuiSubitemTestObject html_table =
-                (StatelessGuiSubitemTestObject) object;
-        // table parsing
-        ITestDataTable table = (ITestDataTable) html_table.getTestData("grid");
-        int nbRows = table.getRowCount();
-        int nbCols = table.getColumnCount();
-
-        for (int row = 0; row < nbRows; row++) {
-            for (int col = 0; col < nbCols; col++) {
-                Object cell = table.getCell(row, col);
-                if (table.getCell(row, col) != null) {
-                    
-                    htmlTable.add(cell.toString());
-                } else {
-                    htmlTable.add("");
+            if (match.isFound()) {
+
+                reportResults(ReportLogger.ReportLevel.SUCCESS, "Check Table",
+                        "Success", "Check table data : " + objExpectedValue
+                                + " Rows read : " + reader.getReadRowCount()
+                                + " of " + reader.getRowCount());
+
+            } else {
+                StringBuilder resultBuilder = new StringBuilder();
+                if (match.getPosition() >= 0) {
+                    resultBuilder.append(" Best match : " + match.getMatchedCount()
+                            + " of " + inputTable.size() + " cells from cell "
+                            + match.getPosition() + "\n");
+                }
+                for (String difference : match.getDifferences()) {
+                    resultBuilder.append(" | " + difference + "\n");
                 }
+                reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
+                        "Error",
+                        "Check Table STREAMDATA command failed. ::: " + "Object : "
+                                + Arrays.asList(locator.getSharedPropertyArray())
+                                + " ::: " + "Actual Error : Expected data "+inputTable+"  does not match the actual table." + resultBuilder);
             }
+
+        } catch (UserAbortedActionException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            reportResults(stopOnFaliure, ReportLogger.ReportLevel.FAILURE, "Check Table",
+                    "Error", "Cannot access the element. ::: " + "Object : "
+                            + Arrays.asList(locator.getSharedPropertyArray())
+                            + " ::: " + "Actual Error : " + ex.getMessage());
         }
-        return htmlTable;
     }
-    
-    private ArrayList<String> getAppTableRow(TestObject object, int row) {
 
-        ArrayList<String> htmlTable = new ArrayList<String>();
+    /**
+     * Gets the test data of a table, which serves all the validations of the
+     * step.
+     * 
+     * @param object
+     *            the table object
+     * @return the table test data
+     */
+    private ITestDataTable getTestDataTable(final TestObject object) {
 
         StatelessGuiSubitemTestObject html_table =
                 (StatelessGuiSubitemTestObject) object;
         // table parsing
-        ITestDataTable table = (ITestDataTable) html_table.getTestData("grid");
-        int nbCols = table.getColumnCount();
-
-        for (int col = 0; col < nbCols; col++) {
-            Object cell = table.getCell(row, col);
-            if (table.getCell(row, col) != null) {
-
-                htmlTable.add(cell.toString());
-            } else {
-                htmlTable.add("");
-            }
-        }
-        return htmlTable;
+        return (ITestDataTable) html_table.getTestData("grid");
     }
 
     private void validateTableColCount(ObjectLocator locator,
-            TestObject object, Object objExpectedvale, boolean stopOnFaliure) {
+            TableSnapshot table, Object objExpectedvale, boolean stopOnFaliure) {
 
         try {
-            StatelessGuiSubitemTestObject html_table =
-                    (StatelessGuiSubitemTestObject) object;
-            // table parsing
-            ITestDataTable table =
-                    (ITestDataTable) html_table.getTestData("grid");
             int count = table.getColumnCount();
             if (count == Integer.parseInt(objExpectedvale.toString())) {
                 reportResults(ReportLogger.ReportLevel.SUCCESS, "Check Table",
@@ -3071,7 +2868,7 @@ public class RFTCommandBase implements ICommandBase {
                         "Error",
                         "Check Table COLCOUNT command failed. ::: "
                                 + "Object : "
-                                + Arrays.asList(locator.getPropertyArray())
+                                + Arrays.asList(locator.getSharedPropertyArray())
                                 + " ::: "
                                 + "Actual Error : Expected column count "
                                 + objExpectedvale
@@ -3087,7 +2884,7 @@ public class RFTCommandBase implements ICommandBase {
                     "Error",
                     "Check Table COLCOUNT command failed. Invalid input data : "
                             + objExpectedvale + ". ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : " + ex.getMessage());
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -3097,21 +2894,16 @@ public class RFTCommandBase implements ICommandBase {
                     "Error",
                     "Check Table COLCOUNT command failed. Cannot access the element. ::: "
                             + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : " + ex.getMessage());
         }
 
     }
 
     private void validateTableRowCount(ObjectLocator locator,
-            TestObject object, Object objExpectedvale, boolean stopOnFaliure) {
+            TableSnapshot table, Object objExpectedvale, boolean stopOnFaliure) {
 
         try {
-            StatelessGuiSubitemTestObject html_table =
-                    (StatelessGuiSubitemTestObject) object;
-            // table parsing
-            ITestDataTable table =
-                    (ITestDataTable) html_table.getTestData("grid");
             int count = table.getRowCount();
             if (count == Integer.parseInt(objExpectedvale.toString())) {
                 reportResults(ReportLogger.ReportLevel.SUCCESS, "Check Table",
@@ -3123,7 +2915,7 @@ public class RFTCommandBase implements ICommandBase {
                         "Error",
                         "Check Table ROWCOUNT command failed. Check Table command failed. ::: "
                                 + "Object : "
-                                + Arrays.asList(locator.getPropertyArray())
+                                + Arrays.asList(locator.getSharedPropertyArray())
                                 + " ::: "
                                 + "Actual Error : Expected row count "
                                 + objExpectedvale
@@ -3139,7 +2931,7 @@ public class RFTCommandBase implements ICommandBase {
                     "Error",
                     "Check Table ROWCOUNT command failed. Invalid input data : "
                             + objExpectedvale + ". ::: " + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : " + ex.getMessage());
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -3149,7 +2941,7 @@ public class RFTCommandBase implements ICommandBase {
                     "Error",
                     "Check Table ROWCOUNT command failed. Cannot access the element. ::: "
                             + "Object : "
-                            + Arrays.asList(locator.getPropertyArray())
+                            + Arrays.asList(locator.getSharedPropertyArray())
                             + " ::: " + "Actual Error : " + ex.getMessage());
         }
 
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+/**
+ * One reported step, as queued by the {@link ReportLogger} for the
+ * {@link AsyncReportWriter}. The event only keeps the values given to the
+ * logger; the log lines are built by the sinks on the writer thread.
+ */
+public final class ReportEvent {
+
+    /** The logger which reported the step. */
+    private final ReportLogger logger;
+
+    /** The name of the script which reported the step. */
+    private final String scriptName;
+
+    /** The level. */
+    private final ReportLogger.ReportLevel level;
+
+    /** The step. */
+    private final String step;
+
+    /** The result. */
+    private final String result;
+
+    /** The message. */
+    private final String message;
+
+    /** The time of the step in milliseconds since the epoch. */
+    private final long time;
+
+    /**
+     * Instantiates a new report event.
+     * 
+     * @param eventLogger
+     *            the logger which reported the step
+     * @param eventScriptName
+     *            the name of the script which reported the step
+     * @param eventLevel
+     *            the level
+     * @param eventStep
+     *            the step
+     * @param eventResult
+     *            the result
+     * @param eventMessage
+     *            the message
+     */
+    ReportEvent(final ReportLogger eventLogger, final String eventScriptName,
+            final ReportLogger.ReportLevel eventLevel, final String eventStep,
+            final String eventResult, final String eventMessage) {
+        this.logger = eventLogger;
+        this.scriptName = eventScriptName;
+        this.level = eventLevel;
+        this.step = eventStep;
+        this.result = eventResult;
+        this.message = eventMessage;
+        this.time = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the logger which reported the step.
+     * 
+     * @return the logger
+     */
+    ReportLogger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Gets the name of the script which reported the step.
+     * 
+     * @return the script name, such as
+     *         <code>com.project.TestSuite.TestCase</code>, or null
+     */
+    public String getScriptName() {
+        return scriptName;
+    }
+
+    /**
+     * Gets the level.
+     * 
+     * @return the level
+     */
+    public ReportLogger.ReportLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the step.
+     * 
+     * @return the step
+     */
+    public String getStep() {
+        return step;
+    }
+
+    /**
+     * Gets the result.
+     * 
+     * @return the result
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the message.
+     * 
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the time of the step.
+     * 
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+}
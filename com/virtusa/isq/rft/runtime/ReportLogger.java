@@ -32,7 +32,8 @@ public class ReportLogger extends RationalTestScript {
     };
 
     /**
-     * Log result.
+     * Log result. The step is queued for the {@link AsyncReportWriter}; the
+     * failures are written at once, before the test goes on.
      * 
      * @param script
      *            the script
@@ -48,7 +49,18 @@ public class ReportLogger extends RationalTestScript {
     public final void logResult(final RationalTestScript script,
             final ReportLogger.ReportLevel level, final String step,
             final String result, final String message) {
-        logInfo("Step : " + step + "\tResult : " + result + "\tMessage : "
-                + message);
+        AsyncReportWriter writer = AsyncReportWriter.getInstance();
+        writer.submit(new ReportEvent(this, script == null ? null : script
+                .getScriptName(), level, step, result, message));
+        if (level != ReportLevel.SUCCESS) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Waits until all the reported steps are written.
+     */
+    public static void flush() {
+        AsyncReportWriter.getInstance().flush();
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+/**
+ * Writes the reported steps to the RFT log of the script, on the thread of the
+ * script.
+ */
+class RftLogSink implements IReportSink {
+
+    /**
+     * Override.
+     * 
+     * @param event
+     *            the event
+     * @see com.virtusa.isq.rft.runtime.IReportSink#write(com.virtusa.isq.rft.runtime.ReportEvent)
+     */
+    @Override
+    public void write(final ReportEvent event) {
+        event.getLogger().logInfo(
+                "Step : " + event.getStep() + "\tResult : " + event.getResult()
+                        + "\tMessage : " + event.getMessage());
+    }
+
+    /**
+     * Override.
+     * 
+     * @see com.virtusa.isq.rft.runtime.IReportSink#flush()
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Override.
+     * 
+     * @see com.virtusa.isq.rft.runtime.IReportSink#close()
+     */
+    @Override
+    public void close() {
+    }
+}
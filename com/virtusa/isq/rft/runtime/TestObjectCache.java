@@ -0,0 +1,227 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.rational.test.ft.object.interfaces.TestObject;
+import com.rational.test.ft.script.Property;
+import com.virtusa.isq.rft.objectmap.ObjectLocator;
+
+/**
+ * Session scoped cache of the test objects found for the resolved locators.
+ * An object is cached by its resolved properties and the resolved properties
+ * of all its containers, so objects with the same properties in different
+ * containers never share an entry; the same applies to the search anchors.
+ * A cached object is checked with <code>exists()</code> before it is
+ * reused, which is much cheaper than a new descendant search of the root
+ * test object. The cache must be cleared on every page transition, and an
+ * entry must be removed whenever an action on its object fails.<br>
+ * <br>
+ * The containers of the objects with a parent locator are always cached as
+ * search anchors, even when the cache of the other objects is disabled.
+ */
+public class TestObjectCache {
+
+    /** Whether the cache is enabled. */
+    private final boolean enabled;
+
+    /** The found test objects by search key. */
+    private final Map<String, TestObject[]> objects =
+            new HashMap<String, TestObject[]>();
+
+    /** The found search anchors by search key. */
+    private final Map<String, TestObject[]> anchors =
+            new HashMap<String, TestObject[]>();
+
+    /**
+     * Instantiates a new test object cache.
+     * 
+     * @param cacheEnabled
+     *            whether the cache is enabled; a disabled cache never returns
+     *            an object
+     */
+    public TestObjectCache(final boolean cacheEnabled) {
+        this.enabled = cacheEnabled;
+    }
+
+    /**
+     * Checks if the cache is enabled.
+     * 
+     * @return true, if the cache is enabled
+     */
+    public final boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the test objects previously found for the given locator, if they
+     * still exist.
+     * 
+     * @param locator
+     *            the resolved locator
+     * @return the test objects, or null if there is no valid cached object
+     */
+    public final TestObject[] get(final ObjectLocator locator) {
+        if (!enabled) {
+            return null;
+        }
+        return getValid(objects, getKey(locator));
+    }
+
+    /**
+     * Gets the search anchor previously found for the given container, if it
+     * still exists.
+     * 
+     * @param locator
+     *            the resolved locator of the container
+     * @return the anchor objects, or null if there is no valid cached anchor
+     */
+    public final TestObject[] getAnchor(final ObjectLocator locator) {
+        return getValid(anchors, getKey(locator));
+    }
+
+    /**
+     * Caches the search anchor found for the given container.
+     * 
+     * @param locator
+     *            the resolved locator of the container
+     * @param found
+     *            the found container objects
+     */
+    public final void putAnchor(final ObjectLocator locator,
+            final TestObject[] found) {
+        if (found != null && found.length > 0) {
+            anchors.put(getKey(locator), found);
+        }
+    }
+
+    /**
+     * Checks if any search anchor is cached.
+     * 
+     * @return true, if there are cached anchors
+     */
+    public final boolean hasAnchors() {
+        return !anchors.isEmpty();
+    }
+
+    /**
+     * Gets the cached objects of the given properties from the given map, if
+     * they still exist.
+     * 
+     * @param cache
+     *            the object or anchor map
+     * @param key
+     *            the search key
+     * @return the cached objects, or null if there is no valid cached object
+     */
+    private static TestObject[] getValid(final Map<String, TestObject[]> cache,
+            final String key) {
+        TestObject[] found = cache.get(key);
+        if (found == null) {
+            return null;
+        }
+        try {
+            if (found[0].exists()) {
+                return found;
+            }
+        } catch (Exception e) {
+            System.err.println("Cached object is no longer valid : "
+                    + e.getMessage());
+        }
+        cache.remove(key);
+        return null;
+    }
+
+    /**
+     * Caches the test objects found for the given locator.
+     * 
+     * @param locator
+     *            the resolved locator
+     * @param found
+     *            the found test objects
+     */
+    public final void put(final ObjectLocator locator, final TestObject[] found) {
+        if (enabled && found != null && found.length > 0) {
+            objects.put(getKey(locator), found);
+        }
+    }
+
+    /**
+     * Removes the test objects of the given locator.
+     * 
+     * @param locator
+     *            the resolved locator
+     */
+    public final void invalidate(final ObjectLocator locator) {
+        String key = getKey(locator);
+        objects.remove(key);
+        anchors.remove(key);
+    }
+
+    /**
+     * Removes all the test objects and search anchors.
+     */
+    public final void invalidateAll() {
+        objects.clear();
+        anchors.clear();
+    }
+
+    /**
+     * Gets the search key of the given locator: the resolved properties of
+     * its containers, outermost first, then its own properties.
+     * 
+     * @param locator
+     *            the resolved locator
+     * @return the search key
+     */
+    private static String getKey(final ObjectLocator locator) {
+        StringBuilder key = new StringBuilder();
+        appendKey(key, locator);
+        return key.toString();
+    }
+
+    /**
+     * Appends the search key of the given locator.
+     * 
+     * @param key
+     *            the key being built
+     * @param locator
+     *            the resolved locator
+     */
+    private static void appendKey(final StringBuilder key,
+            final ObjectLocator locator) {
+        if (locator.getParentLocator() != null) {
+            appendKey(key, locator.getParentLocator());
+            key.append(" > ");
+        }
+        appendKey(key, locator.getSharedPropertyArray());
+    }
+
+    /**
+     * Appends the search key of the given properties.
+     * 
+     * @param key
+     *            the key being built
+     * @param properties
+     *            the resolved properties
+     */
+    private static void appendKey(final StringBuilder key,
+            final Property[] properties) {
+        for (Property property : properties) {
+            key.append(property.getPropertyName()).append(":=")
+                    .append(property.getPropertyValue()).append('|');
+        }
+    }
+}
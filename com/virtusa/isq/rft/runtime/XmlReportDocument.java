@@ -0,0 +1,535 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * One XML file of the VTAF report, written by the {@link XmlReportSink}.<br>
+ * <br>
+ * The elements are written with StAX and only the open activities are kept
+ * in memory, so the memory use does not grow with the run. On each flush the
+ * closing tags of the open activities are written after the last item, and
+ * are overwritten by the next flush; the result and count attributes of the
+ * open activities are written into space reserved in their start tags and
+ * updated in place. The file is therefore a complete document after every
+ * flush, even if the run is killed.
+ */
+final class XmlReportDocument {
+
+    /** The number of spaces reserved in a start tag for the growing values. */
+    private static final int RESERVED_WIDTH = 64;
+
+    /** The result of an activity without failures. */
+    private static final String SUCCESS = "Success";
+
+    /** The result of an activity with failures. */
+    private static final String FAILED = "Failed";
+
+    /** The milliseconds of one second. */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /** The seconds of one minute. */
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    /** The StAX output factory. */
+    private final XMLOutputFactory factory;
+
+    /** The buffer of the items written since the last flush. */
+    private final ByteArrayOutputStream items = new ByteArrayOutputStream();
+
+    /** The buffer of the start tags. */
+    private final ByteArrayOutputStream tags = new ByteArrayOutputStream();
+
+    /** The writer of the items. */
+    private final XMLStreamWriter itemWriter;
+
+    /** The item time format. */
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat(
+            "HH:mm:ss.SSS");
+
+    /** The open activities, the outermost first. */
+    private final List<Activity> open = new ArrayList<Activity>();
+
+    /** The report file. */
+    private RandomAccessFile out;
+
+    /** The end of the written content, where the closing tags start. */
+    private long contentEnd;
+
+    /**
+     * Creates the file, replacing an existing one, and starts the report
+     * element.
+     * 
+     * @param file
+     *            the file
+     * @param outputFactory
+     *            the StAX output factory
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    XmlReportDocument(final File file, final XMLOutputFactory outputFactory)
+            throws IOException {
+        this.factory = outputFactory;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory()) {
+            parent.mkdirs();
+        }
+        out = new RandomAccessFile(file, "rw");
+        try {
+            out.setLength(0);
+            itemWriter = factory.createXMLStreamWriter(items, "UTF-8");
+            XMLStreamWriter prolog =
+                    factory.createXMLStreamWriter(tags, "UTF-8");
+            prolog.writeStartDocument("UTF-8", "1.0");
+            prolog.writeStartElement("report");
+            prolog.writeCharacters("");
+            prolog.flush();
+            items.write(tags.toByteArray());
+            tags.reset();
+        } catch (XMLStreamException e) {
+            out.close();
+            throw new IOException(e.getMessage());
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of open activities.
+     * 
+     * @return the depth
+     */
+    int getDepth() {
+        return open.size();
+    }
+
+    /**
+     * Gets an open activity.
+     * 
+     * @param index
+     *            the index, 0 for the outermost
+     * @return the activity
+     */
+    Activity getActivity(final int index) {
+        return open.get(index);
+    }
+
+    /**
+     * Writes the start tag of an activity and opens it.
+     * 
+     * @param activity
+     *            the activity
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void start(final Activity activity) throws IOException {
+        try {
+            itemWriter.flush();
+            activity.offset = contentEnd + items.size();
+            byte[] tag = getStartTag(activity);
+            activity.width = tag.length + RESERVED_WIDTH;
+            writePadded(items, tag, activity.width);
+            open.add(activity);
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the innermost open activity. The pending items are written
+     * first, so the start tag of the activity is in the file and can be
+     * updated with the final counts.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void end() throws IOException {
+        flush();
+        Activity activity = open.remove(open.size() - 1);
+        items.write(("</" + activity.element + ">").getBytes("UTF-8"));
+        patch(activity);
+    }
+
+    /**
+     * Counts a step in the open activities. The test cases and the modules
+     * count the steps; the suites and the execution count the test cases.
+     * 
+     * @param failed
+     *            whether the step failed
+     * @param time
+     *            the time of the step
+     */
+    void count(final boolean failed, final long time) {
+        Activity testCase = null;
+        for (Activity activity : open) {
+            if (activity.isCountingSteps()) {
+                testCase = activity;
+                break;
+            }
+        }
+        boolean newFailure =
+                failed && (testCase == null || testCase.failed == 0);
+        boolean newTestCase =
+                testCase == null || testCase.passed == 0
+                        && testCase.failed == 0;
+        for (Activity activity : open) {
+            activity.end = time;
+            if (activity.isCountingSteps()) {
+                if (failed) {
+                    activity.failed++;
+                } else {
+                    activity.passed++;
+                }
+            } else if (newFailure) {
+                activity.failed++;
+                if (!newTestCase) {
+                    activity.passed--;
+                }
+            } else if (newTestCase) {
+                activity.passed++;
+            }
+        }
+    }
+
+    /**
+     * Writes an item for a reported step in the innermost activity.
+     * 
+     * @param event
+     *            the event
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void writeItem(final ReportEvent event) throws IOException {
+        try {
+            itemWriter.writeStartElement("item");
+            itemWriter.writeAttribute("time",
+                    timeFormat.format(new Date(event.getTime())));
+            itemWriter.writeAttribute("level", getLevel(event.getLevel()));
+            itemWriter.writeAttribute("category", valueOf(event.getStep()));
+            itemWriter.writeAttribute("result", valueOf(event.getResult()));
+            itemWriter.writeStartElement("message");
+            itemWriter.writeCharacters(valueOf(event.getMessage()));
+            itemWriter.writeEndElement();
+            itemWriter.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending items and the closing tags, and updates the start
+     * tags of the open activities.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void flush() throws IOException {
+        try {
+            itemWriter.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage());
+        }
+        out.seek(contentEnd);
+        out.write(items.toByteArray());
+        contentEnd += items.size();
+        items.reset();
+
+        StringBuilder tail = new StringBuilder();
+        for (int i = open.size() - 1; i >= 0; i--) {
+            tail.append("</").append(open.get(i).element).append('>');
+        }
+        tail.append("</report>");
+        out.write(tail.toString().getBytes("UTF-8"));
+        out.setLength(out.getFilePointer());
+        for (Activity activity : open) {
+            patch(activity);
+        }
+    }
+
+    /**
+     * Closes all the open activities and the file.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void close() throws IOException {
+        try {
+            while (!open.isEmpty()) {
+                end();
+            }
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Rewrites the start tag of an activity with its current result and
+     * counts. The tag is left as it is if it is not written yet or if the
+     * values outgrow the reserved space.
+     * 
+     * @param activity
+     *            the activity
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void patch(final Activity activity) throws IOException {
+        if (activity.offset >= contentEnd) {
+            return;
+        }
+        byte[] tag;
+        try {
+            tag = getStartTag(activity);
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage());
+        }
+        if (tag.length > activity.width) {
+            return;
+        }
+        ByteArrayOutputStream padded = new ByteArrayOutputStream();
+        writePadded(padded, tag, activity.width);
+        long position = out.getFilePointer();
+        out.seek(activity.offset);
+        out.write(padded.toByteArray());
+        out.seek(position);
+    }
+
+    /**
+     * Builds the start tag of an activity with StAX.
+     * 
+     * @param activity
+     *            the activity
+     * @return the UTF-8 bytes of the start tag
+     * @throws XMLStreamException
+     *             Signals that a StAX error has occurred.
+     */
+    private byte[] getStartTag(final Activity activity)
+            throws XMLStreamException {
+        tags.reset();
+        XMLStreamWriter writer = factory.createXMLStreamWriter(tags, "UTF-8");
+        writer.writeStartElement(activity.element);
+        if (activity.type != null) {
+            writer.writeAttribute("type", activity.type);
+            writer.writeAttribute("rid", activity.rid);
+        }
+        for (int i = 0; i < activity.attributes.length; i += 2) {
+            writer.writeAttribute(activity.attributes[i],
+                    activity.attributes[i + 1]);
+        }
+        writer.writeAttribute("result", activity.failed > 0 ? FAILED : SUCCESS);
+        writer.writeAttribute("totalsuccesscount",
+                String.valueOf(activity.passed));
+        writer.writeAttribute("totalfailedcount",
+                String.valueOf(activity.failed));
+        writer.writeAttribute("totalblockedcount", "0");
+        writer.writeAttribute("duration",
+                formatDuration(activity.end - activity.start));
+        writer.writeCharacters("");
+        writer.flush();
+        return tags.toByteArray();
+    }
+
+    /**
+     * Writes a start tag padded with spaces before its closing bracket.
+     * 
+     * @param target
+     *            the target buffer
+     * @param tag
+     *            the start tag
+     * @param width
+     *            the width of the padded tag
+     */
+    private static void writePadded(final ByteArrayOutputStream target,
+            final byte[] tag, final int width) {
+        target.write(tag, 0, tag.length - 1);
+        for (int i = tag.length; i < width; i++) {
+            target.write(' ');
+        }
+        target.write('>');
+    }
+
+    /**
+     * Gets the report level of a logger level.
+     * 
+     * @param level
+     *            the logger level
+     * @return the report level
+     */
+    private static String getLevel(final ReportLogger.ReportLevel level) {
+        if (level == ReportLogger.ReportLevel.SUCCESS) {
+            return SUCCESS;
+        } else if (level == ReportLogger.ReportLevel.VERIFICATION_FAILURE) {
+            return "Warn";
+        }
+        return "Error";
+    }
+
+    /**
+     * Formats a duration the way the report shows it, such as 4.2s or
+     * 3m 12.5s.
+     * 
+     * @param millis
+     *            the duration in milliseconds
+     * @return the formatted duration
+     */
+    static String formatDuration(final long millis) {
+        long minutes = millis / (SECONDS_PER_MINUTE * 1000L);
+        double seconds =
+                (millis - minutes * SECONDS_PER_MINUTE * 1000L)
+                        / MILLIS_PER_SECOND;
+        String secondsText = String.format(Locale.US, "%.1fs", seconds);
+        return minutes > 0 ? minutes + "m " + secondsText : secondsText;
+    }
+
+    /**
+     * Returns the value without the control characters XML does not allow, or
+     * an empty string for null.
+     * 
+     * @param value
+     *            the value
+     * @return the value
+     */
+    private static String valueOf(final String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder text = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < ' ' && c != '\t' && c != '\n' && c != '\r') {
+                if (text == null) {
+                    text = new StringBuilder(value.substring(0, i));
+                }
+                text.append(' ');
+            } else if (text != null) {
+                text.append(c);
+            }
+        }
+        return text == null ? value : text.toString();
+    }
+
+    /**
+     * An open element of the report with its running counts.
+     */
+    static final class Activity {
+
+        /** The type of the test case activities. */
+        static final String TEST_CASE = "test case";
+
+        /** The type of the test module activities. */
+        static final String TEST_MODULE = "test module";
+
+        /** The element name. */
+        private final String element;
+
+        /** The activity type, or null for the execution element. */
+        private final String type;
+
+        /** The report id. */
+        private final String rid;
+
+        /** The name the activity is matched by. */
+        private final String name;
+
+        /** The fixed attribute names and values. */
+        private final String[] attributes;
+
+        /** The time of the first step. */
+        private final long start;
+
+        /** The time of the last step. */
+        private long end;
+
+        /** The file offset of the start tag. */
+        private long offset;
+
+        /** The width of the start tag. */
+        private int width;
+
+        /** The passed count. */
+        private int passed;
+
+        /** The failed count. */
+        private int failed;
+
+        /**
+         * Instantiates a new activity.
+         * 
+         * @param elementName
+         *            the element name
+         * @param activityType
+         *            the activity type, or null for the execution element
+         * @param activityRid
+         *            the report id, or null for the execution element
+         * @param activityName
+         *            the name the activity is matched by
+         * @param fixedAttributes
+         *            the fixed attribute names and values
+         * @param startTime
+         *            the time of the first step
+         */
+        Activity(final String elementName, final String activityType,
+                final String activityRid, final String activityName,
+                final String[] fixedAttributes, final long startTime) {
+            this.element = elementName;
+            this.type = activityType;
+            this.rid = activityRid;
+            this.name = activityName;
+            this.attributes = fixedAttributes;
+            this.start = startTime;
+            this.end = startTime;
+        }
+
+        /**
+         * Gets the name the activity is matched by.
+         * 
+         * @return the name
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the activity type.
+         * 
+         * @return the type, or null for the execution element
+         */
+        String getType() {
+            return type;
+        }
+
+        /**
+         * Checks whether the activity counts steps rather than test cases.
+         * 
+         * @return true, for the test cases and the modules
+         */
+        private boolean isCountingSteps() {
+            return TEST_CASE.equals(type) || TEST_MODULE.equals(type);
+        }
+    }
+}
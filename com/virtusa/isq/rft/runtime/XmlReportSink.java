@@ -0,0 +1,423 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+
+package com.virtusa.isq.rft.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import javax.xml.stream.XMLOutputFactory;
+
+import com.virtusa.isq.rft.runtime.XmlReportDocument.Activity;
+
+/**
+ * Streams the reported steps into the XML format of
+ * <code>ReportTemplate/ReportXSL.xsl</code>, so a run produces the VTAF report
+ * data file directly. Naming the file <code>report.html.data</code> next to a
+ * copy of the report template makes <code>report.html</code> show it.<br>
+ * <br>
+ * The file is written as
+ * <code>/report/testexecution/activity[@type='test suite']/activity[@type='test case']/activity[@type='test module']/item</code>
+ * . The suite and the test case are taken from the script name the same way
+ * as the VTAF reporter aspect does, and every script gets one test module.
+ * The file stays a complete document after every batch, see
+ * {@link XmlReportDocument}.<br>
+ * <br>
+ * In fragment mode the data file only holds the suites and the test cases.
+ * The modules and the items of each test case are written to their own
+ * fragment, <code>&lt;data file&gt;.d/&lt;rid&gt;.xml</code>, and
+ * <code>&lt;data file&gt;.index.json</code> maps the report id of every test
+ * case and module to its fragment. <code>report.html</code> then loads a test
+ * case only when it is expanded, which keeps large runs responsive.
+ */
+public class XmlReportSink implements IReportSink {
+
+    /** The name of the execution element. */
+    private static final String EXECUTION_ELEMENT = "testexecution";
+
+    /** The name of the activity elements. */
+    private static final String ACTIVITY_ELEMENT = "activity";
+
+    /** The suffix of the fragment directory. */
+    private static final String FRAGMENT_SUFFIX = ".d";
+
+    /** The suffix of the index file. */
+    private static final String INDEX_SUFFIX = ".index.json";
+
+    /** The file. */
+    private final File file;
+
+    /** Whether the test cases are written to fragments. */
+    private final boolean fragmented;
+
+    /** The StAX output factory. */
+    private final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+
+    /** The data file, opened on the first event. */
+    private XmlReportDocument document;
+
+    /** The fragment of the current test case, in fragment mode. */
+    private XmlReportDocument fragment;
+
+    /** The index file, in fragment mode. */
+    private RandomAccessFile index;
+
+    /** The end of the index entries, where the closing brace starts. */
+    private long indexEnd;
+
+    /** The attributes of the execution element. */
+    private String[] executionAttributes;
+
+    /** The last report id. */
+    private int lastRid;
+
+    /**
+     * Instantiates a new XML report sink writing the whole report to one
+     * file. An existing file is replaced.
+     * 
+     * @param sinkFile
+     *            the report data file
+     */
+    public XmlReportSink(final File sinkFile) {
+        this(sinkFile, false);
+    }
+
+    /**
+     * Instantiates a new XML report sink. An existing file is replaced.
+     * 
+     * @param sinkFile
+     *            the report data file
+     * @param fragments
+     *            whether the test cases are written to their own fragments
+     */
+    public XmlReportSink(final File sinkFile, final boolean fragments) {
+        this.file = sinkFile;
+        this.fragmented = fragments;
+    }
+
+    /**
+     * Override.
+     * 
+     * @param event
+     *            the event
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#write(com.virtusa.isq.rft.runtime.ReportEvent)
+     */
+    @Override
+    public void write(final ReportEvent event) throws IOException {
+        if (document == null) {
+            open(event.getTime());
+        }
+        String[] names = getActivityNames(event.getScriptName());
+        if (document.getDepth() < 3
+                || !names[0].equals(document.getActivity(1).getName())
+                || !names[1].equals(document.getActivity(2).getName())) {
+            startTestCase(names, event.getTime());
+        }
+        boolean failed = event.getLevel() != ReportLogger.ReportLevel.SUCCESS;
+        document.count(failed, event.getTime());
+        if (fragment == null) {
+            document.writeItem(event);
+        } else {
+            fragment.count(failed, event.getTime());
+            fragment.writeItem(event);
+        }
+    }
+
+    /**
+     * Creates the report files and starts the execution.
+     * 
+     * @param time
+     *            the time of the first event
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void open(final long time) throws IOException {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "";
+        }
+        executionAttributes =
+                new String[] {
+                        "timestamp",
+                        new SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
+                                .format(new Date(time)),
+                        "host",
+                        host,
+                        "osversion",
+                        System.getProperty("os.name") + " "
+                                + System.getProperty("os.version"),
+                        "language", Locale.getDefault().getDisplayLanguage(),
+                        "timeoutfactor", "1" };
+        if (fragmented) {
+            File directory = getFragmentDirectory();
+            File[] oldFragments = directory.listFiles();
+            if (oldFragments != null) {
+                for (File oldFragment : oldFragments) {
+                    oldFragment.delete();
+                }
+            }
+            directory.mkdirs();
+            index = new RandomAccessFile(getIndexFile(), "rw");
+            index.setLength(0);
+            index.write("{".getBytes("UTF-8"));
+            indexEnd = index.length();
+            index.write("}".getBytes("UTF-8"));
+        }
+        document = new XmlReportDocument(file, factory);
+        document.start(new Activity(EXECUTION_ELEMENT, null, null, null,
+                executionAttributes, time));
+    }
+
+    /**
+     * Closes the current test case and starts the given one, and its suite
+     * if the suite changes.
+     * 
+     * @param names
+     *            the suite, test case and module names
+     * @param time
+     *            the time of the event
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void startTestCase(final String[] names, final long time)
+            throws IOException {
+        int keep =
+                document.getDepth() > 1
+                        && names[0].equals(document.getActivity(1).getName())
+                        ? 2 : 1;
+        endFragment();
+        while (document.getDepth() > keep) {
+            document.end();
+        }
+        if (keep == 1) {
+            document.start(new Activity(ACTIVITY_ELEMENT, "test suite",
+                    nextRid(), names[0], new String[] {"testsuitename",
+                            names[0] }, time));
+        }
+        String caseRid = nextRid();
+        String[] caseAttributes =
+                new String[] {"testcasename", names[1], "testcaseid", names[2] };
+        Activity testCase =
+                new Activity(ACTIVITY_ELEMENT, Activity.TEST_CASE, caseRid,
+                        names[1], caseAttributes, time);
+        String moduleRid = nextRid();
+        Activity module =
+                new Activity(ACTIVITY_ELEMENT, Activity.TEST_MODULE,
+                        moduleRid, names[1], new String[] {"modulename",
+                                names[1], "moduletype", "Recording" }, time);
+        document.start(testCase);
+        if (!fragmented) {
+            document.start(module);
+            return;
+        }
+        File fragmentFile = new File(getFragmentDirectory(), caseRid + ".xml");
+        fragment = new XmlReportDocument(fragmentFile, factory);
+        fragment.start(new Activity(EXECUTION_ELEMENT, null, null, null,
+                executionAttributes, time));
+        fragment.start(new Activity(ACTIVITY_ELEMENT, Activity.TEST_CASE,
+                caseRid, names[1], caseAttributes, time));
+        fragment.start(module);
+        String path = getFragmentDirectory().getName() + "/" + fragmentFile
+                .getName();
+        addIndexEntry(caseRid, Activity.TEST_CASE, names[1], path);
+        addIndexEntry(moduleRid, Activity.TEST_MODULE, names[1], path);
+    }
+
+    /**
+     * Closes the fragment of the current test case.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void endFragment() throws IOException {
+        if (fragment != null) {
+            XmlReportDocument closing = fragment;
+            fragment = null;
+            closing.close();
+        }
+    }
+
+    /**
+     * Appends an entry to the index, and writes its closing brace again
+     * after it so the index stays valid JSON.
+     * 
+     * @param rid
+     *            the report id
+     * @param type
+     *            the activity type
+     * @param name
+     *            the activity name
+     * @param path
+     *            the path of the fragment, relative to the data file
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void addIndexEntry(final String rid, final String type,
+            final String name, final String path) throws IOException {
+        StringBuilder entry = new StringBuilder();
+        if (index.length() > 2) {
+            entry.append(',');
+        }
+        entry.append(System.getProperty("line.separator"));
+        entry.append('"').append(rid).append("\":{\"type\":\"").append(type)
+                .append("\",\"name\":");
+        appendJsonString(entry, name);
+        entry.append(",\"fragment\":");
+        appendJsonString(entry, path);
+        entry.append('}');
+        index.seek(indexEnd);
+        index.write(entry.toString().getBytes("UTF-8"));
+        indexEnd = index.getFilePointer();
+        index.write("}".getBytes("UTF-8"));
+    }
+
+    /**
+     * Appends a JSON string literal.
+     * 
+     * @param target
+     *            the target
+     * @param value
+     *            the value
+     */
+    private static void appendJsonString(final StringBuilder target,
+            final String value) {
+        final int hexRadix = 16;
+        final int hexOffset = 0x10000;
+        target.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                target.append('\\').append(c);
+            } else if (c < ' ') {
+                target.append("\\u").append(
+                        Integer.toString(hexOffset + c, hexRadix).substring(1));
+            } else {
+                target.append(c);
+            }
+        }
+        target.append('"');
+    }
+
+    /**
+     * Gets the next report id.
+     * 
+     * @return the report id
+     */
+    private String nextRid() {
+        return String.valueOf(++lastRid);
+    }
+
+    /**
+     * Gets the directory of the test case fragments.
+     * 
+     * @return the fragment directory
+     */
+    private File getFragmentDirectory() {
+        return new File(file.getAbsoluteFile().getParentFile(), file.getName()
+                + FRAGMENT_SUFFIX);
+    }
+
+    /**
+     * Gets the index file.
+     * 
+     * @return the index file
+     */
+    private File getIndexFile() {
+        return new File(file.getAbsoluteFile().getParentFile(), file.getName()
+                + INDEX_SUFFIX);
+    }
+
+    /**
+     * Override.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#flush()
+     */
+    @Override
+    public void flush() throws IOException {
+        if (fragment != null) {
+            fragment.flush();
+        }
+        if (document != null) {
+            document.flush();
+        }
+    }
+
+    /**
+     * Override.
+     * 
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @see com.virtusa.isq.rft.runtime.IReportSink#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (document == null) {
+            return;
+        }
+        try {
+            endFragment();
+            document.close();
+        } finally {
+            document = null;
+            if (index != null) {
+                index.close();
+                index = null;
+            }
+        }
+    }
+
+    /**
+     * Formats a duration the way the report shows it, such as 4.2s or
+     * 3m 12.5s.
+     * 
+     * @param millis
+     *            the duration in milliseconds
+     * @return the formatted duration
+     */
+    public static String formatDuration(final long millis) {
+        return XmlReportDocument.formatDuration(millis);
+    }
+
+    /**
+     * Gets the suite, test case and module names of a script. Scripts named
+     * <code>package.project.TestSuite.TestCase</code> are reported as the
+     * test case of the suite, the same way as the VTAF reporter does; other
+     * scripts are reported under their package.
+     * 
+     * @param scriptName
+     *            the script name
+     * @return the suite name, the test case name and the script name
+     */
+    static String[] getActivityNames(final String scriptName) {
+        String script = scriptName == null ? "Script" : scriptName;
+        String[] parts = script.split("\\.", Integer.MAX_VALUE);
+        final int suiteIndex = 2;
+        final int caseIndex = 3;
+        if (parts.length > caseIndex) {
+            return new String[] {parts[suiteIndex], parts[caseIndex], script };
+        }
+        String suite = parts.length > 1 ? parts[parts.length - 2] : "Default";
+        return new String[] {suite, parts[parts.length - 1], script };
+    }
+}
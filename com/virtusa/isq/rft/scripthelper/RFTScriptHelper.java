@@ -12,6 +12,7 @@
 package com.virtusa.isq.rft.scripthelper;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.InputStreamReader;
 
 import com.rational.test.ft.object.interfaces.BrowserTestObject;
@@ -19,7 +20,10 @@ import com.rational.test.ft.object.interfaces.RootTestObject;
 import com.rational.test.ft.object.interfaces.TestObject;
 import com.rational.test.ft.script.RationalTestScript;
 import com.rational.test.ft.script.SubitemFactory;
-import com.virtusa.isq.rft.utils.PropertyHandler;
+import com.virtusa.isq.rft.metrics.CommandMetrics;
+import com.virtusa.isq.rft.runtime.ReportLogger;
+import com.virtusa.isq.rft.utils.LayeredConfiguration;
+import com.virtusa.isq.rft.utils.RuntimeConfiguration;
 import com.virtusa.isq.rft.utils.Utils;
 
 /**
@@ -27,6 +31,12 @@ import com.virtusa.isq.rft.utils.Utils;
  */
 public class RFTScriptHelper extends RationalTestScript {
 
+    /** The setting of the time to recover from a process kill. */
+    private static final String PROCESS_KILL_WAIT = "PROCESS_KILL_WAIT";
+
+    /** The default time to recover from a process kill in milliseconds. */
+    private static final int DEFAULT_PROCESS_KILL_WAIT = 3000;
+
     /** The script. */
     private RationalTestScript script;
 
@@ -45,15 +55,41 @@ public class RFTScriptHelper extends RationalTestScript {
      * Tear down.
      */
     public final void tearDown() {
+        exportMetrics();
+        ReportLogger.flush();
         cleanBrowserSession();
-        PropertyHandler propfile = new PropertyHandler("RUNTIME.properties");
-        String browser = propfile.getRuntimeProperty("BROWSER");
+        String browser =
+                RuntimeConfiguration.getInstance().getProperty("BROWSER");
 
         killAppProcess(browser);
         script.cleanup();
         unregisterAll();
     }
 
+    /**
+     * Exports the command latency metrics of the test, and adds their summary
+     * to the test report.
+     */
+    private void exportMetrics() {
+        CommandMetrics metrics = CommandMetrics.getInstance();
+        if (!metrics.isEnabled() || metrics.isEmpty()) {
+            return;
+        }
+        try {
+            File dir = metrics.export();
+            System.out.println("INFO : Command metrics exported to "
+                    + dir.getAbsolutePath());
+            new ReportLogger().logResult(script,
+                    ReportLogger.ReportLevel.SUCCESS, "Command Metrics",
+                    "Success", metrics.getSummary());
+        } catch (Exception e) {
+            System.err.println("Cannot export the command metrics : "
+                    + e.getMessage());
+        } finally {
+            metrics.reset();
+        }
+    }
+
     /**
      * Clean browser session for the test execution.
      */
@@ -103,7 +139,9 @@ public class RFTScriptHelper extends RationalTestScript {
      */
     public final void killBrowserProcess(final String process) {
         String processName = process + ".exe";
-        final int timeToRecoverFromProcessKill = 3000;
+        final int timeToRecoverFromProcessKill =
+                LayeredConfiguration.getInt(PROCESS_KILL_WAIT,
+                        DEFAULT_PROCESS_KILL_WAIT);
          try {
             if (isProcessRunning(processName)) {
                 this.killProcess(processName);
@@ -169,8 +207,8 @@ public class RFTScriptHelper extends RationalTestScript {
      * Setup.
      */
     public final void setup() {
-        PropertyHandler propfile = new PropertyHandler("RUNTIME.properties");
-        String browser = propfile.getRuntimeProperty("BROWSER");
+        String browser =
+                RuntimeConfiguration.getInstance().getProperty("BROWSER");
         killAppProcess(browser);
     }
     
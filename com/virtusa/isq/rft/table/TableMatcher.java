@@ -0,0 +1,366 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds a sequence of expected cells in the cells of a table, such as the
+ * TABLEDATA validation of checkTable. The cells are compared whole, so a
+ * value containing a separator never matches across two cells.<br>
+ * <br>
+ * The expected cells are given ids and the table is scanned once with the
+ * Knuth-Morris-Pratt algorithm over the ids, which takes time linear in the
+ * size of the table. When the cells are not found, the result holds the
+ * longest prefix of the expected cells found in the table and the cell level
+ * differences at that position. A {@link Search} also takes the cells one at
+ * a time, so a table can be searched while it is read and the search stops
+ * as soon as the cells are found.
+ */
+public final class TableMatcher {
+
+    /** The maximum number of differences described in a result. */
+    private static final int MAX_DIFFERENCES = 20;
+
+    /** The id of the table cells which are none of the expected cells. */
+    private static final int UNKNOWN_CELL = -1;
+
+    /**
+     * Instantiates a new table matcher.
+     */
+    private TableMatcher() {
+    }
+
+    /**
+     * The result of a search.
+     */
+    public static final class Result {
+
+        /** Whether all the expected cells were found. */
+        private final boolean found;
+
+        /** The index of the first matched cell, or -1. */
+        private final int position;
+
+        /** The number of expected cells matched at the position. */
+        private final int matchedCount;
+
+        /** The cell level differences at the position. */
+        private final List<String> differences;
+
+        /**
+         * Instantiates a new result.
+         * 
+         * @param allFound
+         *            whether all the expected cells were found
+         * @param matchPosition
+         *            the index of the first matched cell, or -1
+         * @param matched
+         *            the number of matched cells
+         * @param cellDifferences
+         *            the cell level differences
+         */
+        Result(final boolean allFound, final int matchPosition,
+                final int matched, final List<String> cellDifferences) {
+            this.found = allFound;
+            this.position = matchPosition;
+            this.matchedCount = matched;
+            this.differences = cellDifferences;
+        }
+
+        /**
+         * Checks whether all the expected cells were found in sequence.
+         * 
+         * @return true, if the cells were found
+         */
+        public boolean isFound() {
+            return found;
+        }
+
+        /**
+         * Gets the index of the first cell of the match, or of the best
+         * partial match, in the flattened table.
+         * 
+         * @return the index, or -1 if not even the first expected cell is in
+         *         the table
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Gets the number of expected cells matched at the position.
+         * 
+         * @return the matched cell count
+         */
+        public int getMatchedCount() {
+            return matchedCount;
+        }
+
+        /**
+         * Gets the cell level differences at the best partial match.
+         * 
+         * @return the unmodifiable differences, empty if the cells were found
+         */
+        public List<String> getDifferences() {
+            return differences;
+        }
+    }
+
+    /**
+     * An incremental search, which takes the cells of a table one at a time,
+     * such as the cells streamed by a {@link TableReader}. Only the expected
+     * cells and the cells following the best partial match are kept, so the
+     * memory used does not depend on the size of the table.
+     */
+    public static final class Search {
+
+        /** The expected cells. */
+        private final List<String> expected;
+
+        /** The ids of the expected cells by text. */
+        private final Map<String, Integer> ids =
+                new HashMap<String, Integer>();
+
+        /** The ids of the expected cells. */
+        private final int[] pattern;
+
+        /** The failure function of the pattern. */
+        private final int[] failure;
+
+        /** The cells following the best partial match. */
+        private final List<String> following = new ArrayList<String>();
+
+        /** The number of expected cells matched by the last cells. */
+        private int matched;
+
+        /** The number of expected cells of the best partial match. */
+        private int bestCount;
+
+        /** The index of the first cell of the best partial match, or -1. */
+        private int position = -1;
+
+        /** The number of cells added. */
+        private int index;
+
+        /**
+         * Instantiates a new search.
+         * 
+         * @param expectedCells
+         *            the expected cells
+         */
+        Search(final List<String> expectedCells) {
+            this.expected = expectedCells;
+            this.pattern = new int[expectedCells.size()];
+            for (int i = 0; i < pattern.length; i++) {
+                Integer id = ids.get(expectedCells.get(i));
+                if (id == null) {
+                    id = Integer.valueOf(ids.size());
+                    ids.put(expectedCells.get(i), id);
+                }
+                pattern[i] = id.intValue();
+            }
+            this.failure = getFailureFunction(pattern);
+            if (pattern.length == 0) {
+                position = 0;
+            }
+        }
+
+        /**
+         * Adds the next cell of the table.
+         * 
+         * @param cell
+         *            the cell
+         * @return true, if all the expected cells have been found; no more
+         *         cells need to be added
+         */
+        public boolean add(final String cell) {
+            if (isFound()) {
+                return true;
+            }
+            Integer id = ids.get(cell);
+            int cellId = id == null ? UNKNOWN_CELL : id.intValue();
+            while (matched > 0 && pattern[matched] != cellId) {
+                matched = failure[matched - 1];
+            }
+            if (pattern[matched] == cellId) {
+                matched++;
+            }
+            if (matched > bestCount) {
+                bestCount = matched;
+                position = index - matched + 1;
+                following.clear();
+            } else if (bestCount > 0
+                    && following.size() < pattern.length - bestCount) {
+                following.add(cell);
+            }
+            index++;
+            return isFound();
+        }
+
+        /**
+         * Checks whether all the expected cells have been found.
+         * 
+         * @return true, if the cells were found
+         */
+        public boolean isFound() {
+            return bestCount == pattern.length;
+        }
+
+        /**
+         * Gets the result of the search over the cells added so far.
+         * 
+         * @param columnCount
+         *            the number of columns, used to describe the differences
+         * @return the result
+         */
+        public Result getResult(final int columnCount) {
+            if (isFound()) {
+                return new Result(true, position, bestCount,
+                        Collections.<String> emptyList());
+            }
+            return new Result(false, position, bestCount, describe(following,
+                    columnCount, expected, position, bestCount));
+        }
+    }
+
+    /**
+     * Starts an incremental search of the expected cells.
+     * 
+     * @param expected
+     *            the expected cells
+     * @return the search
+     */
+    public static Search search(final List<String> expected) {
+        return new Search(expected);
+    }
+
+    /**
+     * Finds the expected cells, in sequence, in the cells of a table.
+     * 
+     * @param cells
+     *            the cells of the table, row after row
+     * @param columnCount
+     *            the number of columns, used to describe the differences
+     * @param expected
+     *            the expected cells
+     * @return the result
+     */
+    public static Result find(final List<String> cells, final int columnCount,
+            final List<String> expected) {
+        Search search = new Search(expected);
+        for (String cell : cells) {
+            if (search.add(cell)) {
+                break;
+            }
+        }
+        return search.getResult(columnCount);
+    }
+
+    /**
+     * Computes the Knuth-Morris-Pratt failure function of a pattern: the
+     * length of the longest proper prefix of each prefix of the pattern which
+     * is also its suffix.
+     * 
+     * @param pattern
+     *            the cell ids of the pattern
+     * @return the failure function
+     */
+    private static int[] getFailureFunction(final int[] pattern) {
+        int[] failure = new int[pattern.length];
+        int border = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (border > 0 && pattern[i] != pattern[border]) {
+                border = failure[border - 1];
+            }
+            if (pattern[i] == pattern[border]) {
+                border++;
+            }
+            failure[i] = border;
+        }
+        return failure;
+    }
+
+    /**
+     * Describes the differences between the expected cells and the cells of
+     * the table following the best partial match.
+     * 
+     * @param following
+     *            the cells of the table following the matched cells
+     * @param columnCount
+     *            the number of columns
+     * @param expected
+     *            the expected cells
+     * @param position
+     *            the position of the best partial match, or -1
+     * @param matched
+     *            the number of cells of the best partial match
+     * @return the differences
+     */
+    private static List<String> describe(final List<String> following,
+            final int columnCount, final List<String> expected,
+            final int position, final int matched) {
+        List<String> differences = new ArrayList<String>();
+        if (position < 0) {
+            differences.add("Expected : " + expected.get(0)
+                    + " is not present in the actual table");
+            return Collections.unmodifiableList(differences);
+        }
+        int count = 0;
+        for (int i = matched; i < expected.size(); i++) {
+            int next = i - matched;
+            String difference = null;
+            if (next >= following.size()) {
+                difference =
+                        "Expected : " + expected.get(i)
+                                + " cannot be found after the end of the"
+                                + " actual table";
+            } else if (!expected.get(i).equals(following.get(next))) {
+                difference =
+                        "Expected : " + expected.get(i) + " Actual : "
+                                + following.get(next) + " at "
+                                + cellName(position + i, columnCount);
+            }
+            if (difference != null) {
+                if (count == MAX_DIFFERENCES) {
+                    differences.add("...");
+                    break;
+                }
+                differences.add(difference);
+                count++;
+            }
+        }
+        return Collections.unmodifiableList(differences);
+    }
+
+    /**
+     * Gets the row and column of a cell of the flattened table.
+     * 
+     * @param index
+     *            the index of the cell
+     * @param columnCount
+     *            the number of columns
+     * @return the name of the cell, such as <code>row 2, column 0</code>
+     */
+    private static String cellName(final int index, final int columnCount) {
+        if (columnCount <= 0) {
+            return "cell " + index;
+        }
+        return "row " + (index / columnCount) + ", column "
+                + (index % columnCount);
+    }
+}
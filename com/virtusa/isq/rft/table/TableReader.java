@@ -0,0 +1,172 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.table;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.rational.test.ft.vp.ITestDataTable;
+
+/**
+ * Reads the cells of a table, row after row, a chunk of rows at a time. Only
+ * the current chunk is kept, so a table of any size can be read with bounded
+ * memory, and the reading stops as soon as the caller stops asking for
+ * cells.<br>
+ * <br>
+ * The row and column counts are read when the reader is created.
+ */
+public final class TableReader implements Iterator<String> {
+
+    /** The default number of rows of a chunk. */
+    public static final int DEFAULT_CHUNK_ROWS = 500;
+
+    /** The table the cells are read from. */
+    private final ITestDataTable table;
+
+    /** The number of rows. */
+    private final int rowCount;
+
+    /** The number of columns. */
+    private final int columnCount;
+
+    /** The cells of the current chunk, row after row. */
+    private final String[] chunk;
+
+    /** The number of rows of a chunk. */
+    private final int chunkRows;
+
+    /** The first row of the next chunk. */
+    private int nextRow;
+
+    /** The number of cells in the current chunk. */
+    private int chunkSize;
+
+    /** The index of the next cell in the current chunk. */
+    private int chunkIndex;
+
+    /** The number of cells returned. */
+    private int position;
+
+    /**
+     * Instantiates a new table reader.
+     * 
+     * @param dataTable
+     *            the table
+     * @param rowsPerChunk
+     *            the number of rows read at a time
+     */
+    public TableReader(final ITestDataTable dataTable, final int rowsPerChunk) {
+        this.table = dataTable;
+        this.rowCount = dataTable.getRowCount();
+        this.columnCount = dataTable.getColumnCount();
+        this.chunkRows =
+                Math.max(1, Math.min(rowsPerChunk, Math.max(1, rowCount)));
+        this.chunk = new String[chunkRows * columnCount];
+    }
+
+    /**
+     * Gets the number of rows.
+     * 
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of columns.
+     * 
+     * @return the column count
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Gets the number of rows read so far.
+     * 
+     * @return the read row count
+     */
+    public int getReadRowCount() {
+        return nextRow;
+    }
+
+    /**
+     * Gets the index of the next cell in the flattened table.
+     * 
+     * @return the position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Override.
+     * 
+     * @return true, if there are more cells
+     * @see java.util.Iterator#hasNext()
+     */
+    @Override
+    public boolean hasNext() {
+        if (chunkIndex < chunkSize) {
+            return true;
+        }
+        return readChunk();
+    }
+
+    /**
+     * Override.
+     * 
+     * @return the text of the next cell, empty for an empty cell
+     * @see java.util.Iterator#next()
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String cell = chunk[chunkIndex];
+        chunk[chunkIndex++] = null;
+        position++;
+        return cell;
+    }
+
+    /**
+     * Override.
+     * 
+     * @see java.util.Iterator#remove()
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("A table is read only");
+    }
+
+    /**
+     * Reads the next chunk of rows.
+     * 
+     * @return true, if any cell was read
+     */
+    private boolean readChunk() {
+        chunkIndex = 0;
+        chunkSize = 0;
+        int lastRow = Math.min(rowCount, nextRow + chunkRows);
+        for (int row = nextRow; row < lastRow; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                Object cell = table.getCell(row, column);
+                chunk[chunkSize++] = cell == null ? "" : cell.toString();
+            }
+        }
+        nextRow = lastRow;
+        return chunkSize > 0;
+    }
+}
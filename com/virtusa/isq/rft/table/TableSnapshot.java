@@ -0,0 +1,256 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.table;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.rational.test.ft.vp.ITestDataTable;
+
+/**
+ * In-memory copy of the test data of a table, such as the <code>grid</code>
+ * test data of an HTML table. Each cell of the table is read at most once and
+ * kept by column, so the validations of a step do not go back to the table.
+ * <br>
+ * <br>
+ * The row and column counts are read when the snapshot is taken. The cells
+ * are read one whole row at a time, the first time a cell of the row is
+ * needed, so a validation of a single cell only reads its row.<br>
+ * <br>
+ * The positions of the cells are indexed by text the first time a cell is
+ * looked up by text, so each further lookup takes constant time plus the
+ * number of cells found.<br>
+ * <br>
+ * A snapshot is not thread safe and is meant to live for one step only.
+ */
+public final class TableSnapshot {
+
+    /** The positions of the cells which are not in the table. */
+    private static final int[] NO_POSITIONS = new int[0];
+
+    /** The table the cells are read from. */
+    private final ITestDataTable table;
+
+    /** The number of rows. */
+    private final int rowCount;
+
+    /** The number of columns. */
+    private final int columnCount;
+
+    /** The cell texts by column and row. */
+    private final String[][] columns;
+
+    /** Whether the cells of each row have been read. */
+    private final boolean[] loaded;
+
+    /** The number of rows read. */
+    private int loadedCount;
+
+    /** The positions of the cells by text, or null until the first lookup. */
+    private Map<String, int[]> positions;
+
+    /**
+     * Instantiates a new table snapshot.
+     * 
+     * @param dataTable
+     *            the table
+     */
+    private TableSnapshot(final ITestDataTable dataTable) {
+        this.table = dataTable;
+        this.rowCount = dataTable.getRowCount();
+        this.columnCount = dataTable.getColumnCount();
+        this.columns = new String[columnCount][rowCount];
+        this.loaded = new boolean[rowCount];
+    }
+
+    /**
+     * Takes a snapshot of a table.
+     * 
+     * @param dataTable
+     *            the table
+     * @return the snapshot
+     */
+    public static TableSnapshot of(final ITestDataTable dataTable) {
+        return new TableSnapshot(dataTable);
+    }
+
+    /**
+     * Gets the number of rows.
+     * 
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of columns.
+     * 
+     * @return the column count
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Gets the text of a cell.
+     * 
+     * @param row
+     *            the row index
+     * @param column
+     *            the column index
+     * @return the text, empty for an empty cell
+     * @throws IndexOutOfBoundsException
+     *             if the cell is outside the table
+     */
+    public String getCell(final int row, final int column) {
+        checkIndex(column, columnCount);
+        load(row);
+        return columns[column][row];
+    }
+
+    /**
+     * Gets the texts of the cells of a row.
+     * 
+     * @param row
+     *            the row index
+     * @return the unmodifiable cells of the row
+     * @throws IndexOutOfBoundsException
+     *             if the row is outside the table
+     */
+    public List<String> getRow(final int row) {
+        load(row);
+        return new AbstractList<String>() {
+            @Override
+            public String get(final int column) {
+                checkIndex(column, columnCount);
+                return columns[column][row];
+            }
+
+            @Override
+            public int size() {
+                return columnCount;
+            }
+        };
+    }
+
+    /**
+     * Gets the texts of all the cells, row after row, the same way the
+     * validations flatten the table. All the rows are read.
+     * 
+     * @return the unmodifiable cells
+     */
+    public List<String> getCells() {
+        for (int row = 0; row < rowCount && loadedCount < rowCount; row++) {
+            load(row);
+        }
+        return new AbstractList<String>() {
+            @Override
+            public String get(final int index) {
+                checkIndex(index, rowCount * columnCount);
+                return columns[index % columnCount][index / columnCount];
+            }
+
+            @Override
+            public int size() {
+                return rowCount * columnCount;
+            }
+        };
+    }
+
+    /**
+     * Gets the positions of the cells with a text in the flattened table,
+     * such as the anchors of the RELATIVE validation. All the rows are read
+     * and indexed on the first call.
+     * 
+     * @param text
+     *            the text of the cells
+     * @return the ascending indexes of the cells in {@link #getCells()},
+     *         empty if no cell has the text
+     */
+    public int[] getPositions(final String text) {
+        if (positions == null) {
+            positions = index();
+        }
+        int[] found = positions.get(text);
+        return found == null ? NO_POSITIONS : found.clone();
+    }
+
+    /**
+     * Indexes the positions of all the cells by text. The cells are counted
+     * first, so each text gets an array of the exact size.
+     * 
+     * @return the positions by text
+     */
+    private Map<String, int[]> index() {
+        List<String> cells = getCells();
+        int size = cells.size();
+        Map<String, int[]> counts = new HashMap<String, int[]>();
+        for (int i = 0; i < size; i++) {
+            int[] count = counts.get(cells.get(i));
+            if (count == null) {
+                counts.put(cells.get(i), new int[] {1 });
+            } else {
+                count[0]++;
+            }
+        }
+        Map<String, int[]> cellPositions =
+                new HashMap<String, int[]>(counts.size() * 2);
+        for (Map.Entry<String, int[]> count : counts.entrySet()) {
+            cellPositions.put(count.getKey(), new int[count.getValue()[0]]);
+            count.getValue()[0] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            String cell = cells.get(i);
+            int[] count = counts.get(cell);
+            cellPositions.get(cell)[count[0]++] = i;
+        }
+        return cellPositions;
+    }
+
+    /**
+     * Reads the cells of a row, unless they have been read already.
+     * 
+     * @param row
+     *            the row index
+     */
+    private void load(final int row) {
+        checkIndex(row, rowCount);
+        if (loaded[row]) {
+            return;
+        }
+        for (int column = 0; column < columnCount; column++) {
+            Object cell = table.getCell(row, column);
+            columns[column][row] = cell == null ? "" : cell.toString();
+        }
+        loaded[row] = true;
+        loadedCount++;
+    }
+
+    /**
+     * Checks an index.
+     * 
+     * @param index
+     *            the index
+     * @param size
+     *            the number of items
+     */
+    private static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+                    + size);
+        }
+    }
+}
@@ -12,32 +12,33 @@
 package com.virtusa.isq.rft.utils;
 
 import java.awt.event.KeyEvent;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * The Class KeyCodes. Holds the key codes which will be used across many
  * command in the runtime. Key codes are saved within a hash map and the key
- * represents the actual key combination of the keyboard. The hash map will be
- * initialized at the constructor of the key codes.
+ * represents the actual key combination of the keyboard. The hash map is
+ * built once per JVM and is never modified afterwards.
  */
 public class KeyCodes {
 
     /** The key codes hash map. */
-    private Map<String, int[]> keyCodes;
+    private static final Map<String, int[]> KEY_CODES = init();
 
     /**
-     * Instantiates a new key codes.
+     * Instantiates a new key codes. The instances share the static key code
+     * table.
      */
     public KeyCodes() {
-        init();
     }
 
     /**
      * Inits the key codes which will be used across many command in the
      * runtime. Key codes are saved within a hash map and the key represents the
-     * actual key combination of the keyboard. The hash map will be initialized
-     * at the constructor of the key codes.
+     * actual key combination of the keyboard. The hash map is initialized when
+     * the class is loaded.
      * 
      * For key code for simulating key 'a' pass the String "a" For key code for
      * simulating key 'b' pass the String "a" For key code for simulating key
@@ -48,9 +49,10 @@ public class KeyCodes {
      * simulating key 'shift+\t' pass the String "shift+\t" For key code for
      * simulating key 'ctrl+o' pass the String "ctrl+o"
      * 
+     * @return the unmodifiable key codes hash map
      */
-    private void init() {
-        keyCodes = new HashMap<String, int[]>();
+    private static Map<String, int[]> init() {
+        Map<String, int[]> keyCodes = new HashMap<String, int[]>();
         // key code for key event "a"
         keyCodes.put("a", new int[] {KeyEvent.VK_A});
         // key code for key event "b"
@@ -198,6 +200,7 @@ public class KeyCodes {
         keyCodes.put("pagedown", new int[] {KeyEvent.VK_PAGE_DOWN});
         keyCodes.put("shift+\t", new int[] {KeyEvent.VK_SHIFT, KeyEvent.VK_TAB});
         keyCodes.put("ctrl+o", new int[] {KeyEvent.VK_CONTROL, KeyEvent.VK_O});
+        return Collections.unmodifiableMap(keyCodes);
     }
 
     /**
@@ -206,10 +209,23 @@ public class KeyCodes {
      * 
      * @param character
      *            the character
-     * @return the key codes
+     * @return a copy of the key codes, or null if the key is unknown
      */
     public final int[] getKeyCodes(final String character) {
-        return keyCodes.get(character);
+        return lookup(character);
+    }
+
+    /**
+     * Gets the key codes for the given key combination without creating a
+     * key codes instance.
+     * 
+     * @param character
+     *            the character
+     * @return a copy of the key codes, or null if the key is unknown
+     */
+    public static int[] lookup(final String character) {
+        int[] codes = KEY_CODES.get(character);
+        return codes == null ? null : codes.clone();
     }
 
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.utils;
+
+import java.util.Map;
+
+/**
+ * Reads the runtime settings, such as the timings of the commands, through
+ * layers. A setting is taken from the first layer which has it:
+ * <ol>
+ * <li>the overrides of the page and of the object the command works on, given
+ * in the object map as <code>KEY=value</code> attributes of the locator</li>
+ * <li>the Java system properties, for example
+ * <code>-DKEY_PRESS_INTERVAL=200</code></li>
+ * <li>the environment variables, with the dots of the key replaced by
+ * underscores</li>
+ * <li><code>RUNTIME.properties</code></li>
+ * <li>the default value given by the caller</li>
+ * </ol>
+ * Several keys may be given, most specific first, such as
+ * <code>WAIT_INTERVAL.click</code> and <code>WAIT_INTERVAL</code>; all the
+ * keys are looked up in a layer before the next layer.
+ */
+public final class LayeredConfiguration {
+
+    /**
+     * Instantiates a new layered configuration.
+     */
+    private LayeredConfiguration() {
+    }
+
+    /**
+     * Gets a setting.
+     *
+     * @param keys
+     *            the keys, most specific first
+     * @param overrides
+     *            the page and object overrides, or null
+     * @param defaultValue
+     *            the default value
+     * @return the trimmed value
+     */
+    public static String getString(final String[] keys,
+            final Map<String, String> overrides, final String defaultValue) {
+        String value;
+        if (overrides != null && !overrides.isEmpty()) {
+            for (String key : keys) {
+                value = overrides.get(key);
+                if (isSet(value)) {
+                    return value.trim();
+                }
+            }
+        }
+        for (String key : keys) {
+            value = System.getProperty(key);
+            if (isSet(value)) {
+                return value.trim();
+            }
+        }
+        for (String key : keys) {
+            value = System.getenv(key.replace('.', '_'));
+            if (isSet(value)) {
+                return value.trim();
+            }
+        }
+        RuntimeConfiguration runtime = RuntimeConfiguration.getInstance();
+        for (String key : keys) {
+            value = runtime.getProperty(key);
+            if (isSet(value)) {
+                return value.trim();
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Gets a setting.
+     *
+     * @param key
+     *            the key
+     * @param overrides
+     *            the page and object overrides, or null
+     * @param defaultValue
+     *            the default value
+     * @return the trimmed value
+     */
+    public static String getString(final String key,
+            final Map<String, String> overrides, final String defaultValue) {
+        return getString(new String[] {key }, overrides, defaultValue);
+    }
+
+    /**
+     * Gets a numeric setting, such as a time in milliseconds.
+     *
+     * @param keys
+     *            the keys, most specific first
+     * @param overrides
+     *            the page and object overrides, or null
+     * @param defaultValue
+     *            the value used when the setting is not set or is invalid
+     * @return the value
+     */
+    public static long getLong(final String[] keys,
+            final Map<String, String> overrides, final long defaultValue) {
+        String value = getString(keys, overrides, null);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + keys[0] + " " + value
+                        + ", using " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Gets an int setting, such as a time in milliseconds.
+     *
+     * @param key
+     *            the key
+     * @param overrides
+     *            the page and object overrides, or null
+     * @param defaultValue
+     *            the value used when the setting is not set or is invalid
+     * @return the value
+     */
+    public static int getInt(final String key,
+            final Map<String, String> overrides, final int defaultValue) {
+        return (int) getLong(new String[] {key }, overrides, defaultValue);
+    }
+
+    /**
+     * Gets an int setting without page or object overrides.
+     *
+     * @param key
+     *            the key
+     * @param defaultValue
+     *            the value used when the setting is not set or is invalid
+     * @return the value
+     */
+    public static int getInt(final String key, final int defaultValue) {
+        return getInt(key, null, defaultValue);
+    }
+
+    /**
+     * Checks whether a layer has a value.
+     *
+     * @param value
+     *            the value of the layer
+     * @return true, if the value is not null or blank
+     */
+    private static boolean isSet(final String value) {
+        return value != null && !"".equals(value.trim());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the patterns of <code>checkPattern</code> into regular expressions.
+ * <ul>
+ * <li>regex=expression : a Java regular expression</li>
+ * <li>any other pattern is a VTAF shorthand, where S stands for an upper case
+ * letter, s for a lower case letter and d for a digit; all the other
+ * characters are literal, so <code>SSS-ddd.d</code> matches
+ * <code>ABC-123.4</code> only with a dot</li>
+ * </ul>
+ * The compiled patterns are cached by pattern string, the least recently used
+ * pattern being dropped when the cache is full. The cache may be shared by
+ * several threads.
+ */
+public final class PatternCompiler {
+
+    /** The maximum number of cached patterns. */
+    private static final int CACHE_SIZE = 256;
+
+    /** The initial capacity of the cache. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The load factor of the cache. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** The prefix of the regular expression patterns. */
+    private static final String REGEX_PREFIX = "regex=";
+
+    /** The characters escaped in the literal segments of a shorthand. */
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    /** The compiled patterns in access order. */
+    private static final Map<String, Pattern> CACHE =
+            new LinkedHashMap<String, Pattern>(INITIAL_CAPACITY, LOAD_FACTOR,
+                    true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<String, Pattern> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Instantiates a new pattern compiler.
+     */
+    private PatternCompiler() {
+    }
+
+    /**
+     * Gets the compiled pattern of a pattern string, compiling it on the
+     * first use.
+     * 
+     * @param patternString
+     *            the pattern string, such as <code>SSddd</code> or
+     *            <code>regex=[A-Z]{2}\d{3}</code>
+     * @return the compiled pattern
+     * @throws java.util.regex.PatternSyntaxException
+     *             if the regular expression is invalid
+     */
+    public static Pattern compile(final String patternString) {
+        synchronized (CACHE) {
+            Pattern pattern = CACHE.get(patternString);
+            if (pattern != null) {
+                return pattern;
+            }
+        }
+        Pattern pattern = Pattern.compile(toRegex(patternString));
+        synchronized (CACHE) {
+            CACHE.put(patternString, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Translates a pattern string into a regular expression.
+     * 
+     * @param patternString
+     *            the pattern string
+     * @return the regular expression
+     */
+    static String toRegex(final String patternString) {
+        if (patternString.toLowerCase(Locale.getDefault()).startsWith(
+                REGEX_PREFIX)) {
+            return patternString.substring(REGEX_PREFIX.length());
+        }
+        StringBuilder regex = new StringBuilder(patternString.length() * 2);
+        for (int i = 0; i < patternString.length(); i++) {
+            char c = patternString.charAt(i);
+            if (c == 'S') {
+                regex.append("[A-Z]");
+            } else if (c == 's') {
+                regex.append("[a-z]");
+            } else if (c == 'd') {
+                regex.append("\\d");
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+}
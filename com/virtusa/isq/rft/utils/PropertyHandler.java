@@ -11,24 +11,19 @@
 
 package com.virtusa.isq.rft.utils;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Properties;
 
 /**
  * Provides means of reading property files and get the runtime properties.
+ * The properties are served by the shared {@link RuntimeConfiguration} of the
+ * file, so creating a handler and reading a property do not read the file.
  */
 public class PropertyHandler {
 
     /** The property file name. */
     private String propertyFileName;
 
-    /** The property object. */
-    private Properties props;
-
     /**
      * Instantiates a new property handler.
      * 
@@ -51,40 +46,25 @@ public class PropertyHandler {
     }
 
     /**
-     * Gets the runtime property.
+     * Gets the runtime property from the shared, cached snapshot of the
+     * property file.
      * 
      * @param key
      *            the key
-     * @return the runtime property
+     * @return the runtime property, or an empty string if the property file
+     *         does not exist
      */
     public final String getRuntimeProperty(final String key) {
-
-        FileInputStream fis = null;
-        String value = "";
-
-        try {
-            fis = new FileInputStream(new File(propertyFileName));
-            props = new Properties();
-            props.load(fis);
-            value = props.getProperty(key);
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+        RuntimeConfiguration configuration =
+                RuntimeConfiguration.getInstance(propertyFileName);
+        if (!configuration.exists()) {
+            return "";
         }
-        return value;
+        return configuration.getProperty(key);
     }
 
     /**
-     * Sets the run time property.
+     * Sets the run time property, keeping the other properties of the file.
      * 
      * @param key
      *            the key
@@ -92,34 +72,23 @@ public class PropertyHandler {
      *            the value
      */
     public final void setRuntimeProperty(final String key, final String value) {
-
-        FileOutputStream fos = null;
         try {
-            fos = new FileOutputStream(propertyFileName);
-            props = new Properties();
-            props.setProperty(key, value);
-            props.store(fos, null);
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        } catch (Exception e) {
+            RuntimeConfiguration.getInstance(propertyFileName).setProperty(key,
+                    value);
+        } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            if (fos != null) {
-                try {
-                    fos.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
         }
     }
 
     /**
-     * Gets the property object.
+     * Gets a copy of the properties of the property file.
      * 
      * @return the property object
      */
     public final Properties getPropertyObject() {
+        Properties props = new Properties();
+        props.putAll(RuntimeConfiguration.getInstance(propertyFileName)
+                .getProperties());
         return props;
     }
 }
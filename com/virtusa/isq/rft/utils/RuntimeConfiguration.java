@@ -0,0 +1,441 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+package com.virtusa.isq.rft.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shared runtime configuration, such as <code>RUNTIME.properties</code>. The
+ * file is parsed once and the properties are served from an immutable
+ * snapshot, so reading a property costs no file I/O and takes no lock.<br>
+ * <br>
+ * A background thread watches the directory of the file and publishes a new
+ * snapshot when the file is modified, then notifies the registered
+ * {@link Listener}s. {@link #update(Map)} changes several properties at once
+ * and keeps all the other properties of the file.
+ */
+public final class RuntimeConfiguration {
+
+    /** The default runtime properties file. */
+    public static final String DEFAULT_FILE = "RUNTIME.properties";
+
+    /** The time to wait for the editors to finish writing the file. */
+    private static final int RELOAD_DELAY = 200;
+
+    /** The configurations by absolute file path. */
+    private static final Map<String, RuntimeConfiguration> CONFIGURATIONS =
+            new HashMap<String, RuntimeConfiguration>();
+
+    /** The configurations by file name, as given to getInstance. */
+    private static final ConcurrentMap<String, RuntimeConfiguration> NAMES =
+            new ConcurrentHashMap<String, RuntimeConfiguration>();
+
+    /**
+     * Listener notified when the properties of a configuration change.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a new snapshot of the properties is published.
+         *
+         * @param configuration
+         *            the changed configuration
+         */
+        void configurationChanged(RuntimeConfiguration configuration);
+    }
+
+    /** The properties file. */
+    private final File file;
+
+    /** The listeners. */
+    private final List<Listener> listeners =
+            new CopyOnWriteArrayList<Listener>();
+
+    /** The current snapshot of the properties. */
+    private volatile Map<String, String> properties;
+
+    /** Whether the file existed when it was last read. */
+    private volatile boolean exists;
+
+    /**
+     * Instantiates a new runtime configuration and reads the file.
+     *
+     * @param propertiesFile
+     *            the properties file
+     */
+    private RuntimeConfiguration(final File propertiesFile) {
+        this.file = propertiesFile;
+        reload();
+    }
+
+    /**
+     * Gets the configuration of <code>RUNTIME.properties</code>.
+     *
+     * @return the runtime configuration
+     */
+    public static RuntimeConfiguration getInstance() {
+        return getInstance(DEFAULT_FILE);
+    }
+
+    /**
+     * Gets the configuration of a properties file. The configurations are
+     * shared by all the scripts of the JVM.
+     *
+     * @param fileName
+     *            the properties file name
+     * @return the runtime configuration
+     */
+    public static RuntimeConfiguration getInstance(final String fileName) {
+        RuntimeConfiguration named = NAMES.get(fileName);
+        if (named != null) {
+            return named;
+        }
+        File propertiesFile = new File(fileName).getAbsoluteFile();
+        String path = propertiesFile.getPath();
+        synchronized (CONFIGURATIONS) {
+            RuntimeConfiguration configuration = CONFIGURATIONS.get(path);
+            if (configuration == null) {
+                configuration = new RuntimeConfiguration(propertiesFile);
+                configuration.startWatching();
+                CONFIGURATIONS.put(path, configuration);
+            }
+            NAMES.put(fileName, configuration);
+            return configuration;
+        }
+    }
+
+    /**
+     * Checks whether the properties file existed when it was last read.
+     *
+     * @return true, if the file exists
+     */
+    public boolean exists() {
+        return exists;
+    }
+
+    /**
+     * Gets a property.
+     *
+     * @param key
+     *            the key
+     * @return the value, or null if the property is not set
+     */
+    public String getProperty(final String key) {
+        return properties.get(key);
+    }
+
+    /**
+     * Gets a property, or a default value if the property is not set or is
+     * blank.
+     *
+     * @param key
+     *            the key
+     * @param defaultValue
+     *            the default value
+     * @return the trimmed value
+     */
+    public String getString(final String key, final String defaultValue) {
+        String value = properties.get(key);
+        if (value == null || "".equals(value.trim())) {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    /**
+     * Gets an int property.
+     *
+     * @param key
+     *            the key
+     * @param defaultValue
+     *            the value used when the property is not set or is invalid
+     * @return the value
+     */
+    public int getInt(final String key, final int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    /**
+     * Gets a long property.
+     *
+     * @param key
+     *            the key
+     * @param defaultValue
+     *            the value used when the property is not set or is invalid
+     * @return the value
+     */
+    public long getLong(final String key, final long defaultValue) {
+        String value = getString(key, null);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + key + " " + value
+                        + ", using " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Gets a boolean property.
+     *
+     * @param key
+     *            the key
+     * @param defaultValue
+     *            the value used when the property is not set
+     * @return true, if the value is true ignoring the case
+     */
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Gets the current snapshot of all the properties.
+     *
+     * @return the unmodifiable properties
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Sets a property, keeping the other properties of the file.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value, or null to remove the property
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void setProperty(final String key, final String value)
+            throws IOException {
+        update(Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Changes several properties at once. The file is read again and
+     * rewritten under a lock of <code>&lt;file&gt;.lock</code>, so the
+     * properties set in the meantime, by hand or by another process, are
+     * kept; the new snapshot holds either none or all of the changes.
+     *
+     * @param changes
+     *            the new values by key; a null value removes the property
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public synchronized void update(final Map<String, String> changes)
+            throws IOException {
+        RandomAccessFile lockFile =
+                new RandomAccessFile(file.getPath() + ".lock", "rw");
+        try {
+            FileLock lock = lockFile.getChannel().lock();
+            try {
+                Properties current = read();
+                for (Map.Entry<String, String> change : changes.entrySet()) {
+                    if (change.getValue() == null) {
+                        current.remove(change.getKey());
+                    } else {
+                        current.setProperty(change.getKey(), change
+                                .getValue());
+                    }
+                }
+                File temp = new File(file.getPath() + ".tmp");
+                FileOutputStream out = new FileOutputStream(temp);
+                try {
+                    current.store(out, null);
+                    out.getFD().sync();
+                } finally {
+                    out.close();
+                }
+                Utils.replaceFile(temp, file);
+                publish(current, true);
+            } finally {
+                lock.release();
+            }
+        } finally {
+            lockFile.close();
+        }
+    }
+
+    /**
+     * Registers a listener notified when the properties change.
+     *
+     * @param listener
+     *            the listener
+     */
+    public void addListener(final Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener
+     *            the listener
+     */
+    public void removeListener(final Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the file again and publishes a new snapshot if its properties
+     * have changed. A file which cannot be read keeps the previous snapshot.
+     */
+    public synchronized void reload() {
+        try {
+            publish(read(), file.exists());
+        } catch (IOException e) {
+            System.err.println("Cannot read " + file.getPath()
+                    + ". Actual Error : " + e.getMessage());
+            if (properties == null) {
+                publish(new Properties(), false);
+            }
+        }
+    }
+
+    /**
+     * Reads the properties file.
+     *
+     * @return the properties, empty if the file does not exist
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private Properties read() throws IOException {
+        Properties current = new Properties();
+        if (file.exists()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                current.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Publishes a new snapshot and notifies the listeners, unless the
+     * properties are the same as in the current snapshot.
+     *
+     * @param current
+     *            the properties
+     * @param fileExists
+     *            whether the file exists
+     */
+    private void publish(final Properties current, final boolean fileExists) {
+        Map<String, String> snapshot = new HashMap<String, String>();
+        for (String name : current.stringPropertyNames()) {
+            snapshot.put(name, current.getProperty(name));
+        }
+        exists = fileExists;
+        if (properties != null && properties.equals(snapshot)) {
+            return;
+        }
+        boolean notify = properties != null;
+        properties = Collections.unmodifiableMap(snapshot);
+        if (notify) {
+            for (Listener listener : listeners) {
+                listener.configurationChanged(this);
+            }
+        }
+    }
+
+    /**
+     * Starts the thread watching the directory of the file. The properties
+     * are still served if the directory cannot be watched, but the changes
+     * of the file are then only read by {@link #reload()}.
+     */
+    private void startWatching() {
+        final WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParentFile().toPath().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + file.getPath()
+                    + ", changes will not be reloaded. Actual Error : "
+                    + e.getMessage());
+            return;
+        }
+        Thread watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watchFile(watchService);
+            }
+        }, "RuntimeConfigurationWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Waits for the changes of the directory of the file and reloads the file
+     * when it is one of the changed entries.
+     *
+     * @param watchService
+     *            the watch service of the directory
+     */
+    private void watchFile(final WatchService watchService) {
+        String fileName = file.getName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || fileName.equals(event.context().toString())) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    Utils.pause(RELOAD_DELAY);
+                    reload();
+                }
+                if (!key.reset()) {
+                    System.err.println("Stopped watching " + file.getPath());
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -11,6 +11,11 @@
  
 package com.virtusa.isq.rft.utils;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Utils class for all the utility functions used in the script and helpers.
@@ -31,5 +36,27 @@ public class Utils {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Replaces a file with a temporary file in one step, so a crash leaves
+     * either the old or the new file, never none. The file system is asked
+     * for an atomic move; where it cannot do one, the file is still replaced
+     * without being deleted first.
+     *
+     * @param temp the temporary file holding the new content
+     * @param file the file to replace
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static void replaceFile(final File temp, final File file)
+            throws IOException {
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
     
 }
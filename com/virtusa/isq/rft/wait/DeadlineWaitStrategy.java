@@ -0,0 +1,69 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.wait;
+
+/**
+ * Polls with a fixed interval until a deadline. Unlike
+ * {@link FixedPollWaitStrategy}, the time spent in the attempts themselves
+ * counts against the timeout, so slow searches do not stretch the wait.
+ */
+public class DeadlineWaitStrategy implements IWaitStrategy {
+
+    /** The interval between the attempts in milliseconds. */
+    private final long interval;
+
+    /** The timeout in milliseconds. */
+    private final long timeout;
+
+    /**
+     * Instantiates a new deadline wait strategy.
+     * 
+     * @param pollInterval
+     *            the interval between the attempts in milliseconds
+     * @param timeoutMillis
+     *            the time after which no attempt is made, in milliseconds
+     */
+    public DeadlineWaitStrategy(final long pollInterval,
+            final long timeoutMillis) {
+        this.interval = pollInterval;
+        this.timeout = timeoutMillis;
+    }
+
+    /**
+     * Starts a new wait session.
+     * 
+     * @return the wait session
+     * @see com.virtusa.isq.rft.wait.IWaitStrategy#start()
+     */
+    @Override
+    public final WaitSession start() {
+        return new WaitSession() {
+            @Override
+            protected long nextDelay(final int completedWaits,
+                    final long elapsedTime) {
+                long remaining = timeout - elapsedTime;
+                return remaining > 0 ? Math.min(interval, remaining) : -1;
+            }
+        };
+    }
+
+    /**
+     * Returns a description of the strategy.
+     * 
+     * @return the description
+     */
+    @Override
+    public final String toString() {
+        return "DEADLINE(" + interval + " ms until " + timeout + " ms)";
+    }
+}
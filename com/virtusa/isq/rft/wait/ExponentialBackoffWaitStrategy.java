@@ -0,0 +1,104 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.wait;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Polls quickly at first and doubles the interval after every attempt, up to
+ * a maximum interval and until a deadline. Each delay is randomised by the
+ * jitter factor so that parallel runs do not poll in lock step.
+ */
+public class ExponentialBackoffWaitStrategy implements IWaitStrategy {
+
+    /** The growth factor of the interval. */
+    private static final int MULTIPLIER = 2;
+
+    /** The first interval in milliseconds. */
+    private final long initialInterval;
+
+    /** The maximum interval in milliseconds. */
+    private final long maxInterval;
+
+    /** The timeout in milliseconds. */
+    private final long timeout;
+
+    /** The jitter factor, between 0 and 1. */
+    private final double jitter;
+
+    /**
+     * Instantiates a new exponential backoff wait strategy.
+     * 
+     * @param firstInterval
+     *            the first interval in milliseconds
+     * @param maximumInterval
+     *            the maximum interval in milliseconds
+     * @param timeoutMillis
+     *            the time after which no attempt is made, in milliseconds
+     * @param jitterFactor
+     *            the fraction of each delay which is randomised, between 0
+     *            and 1
+     */
+    public ExponentialBackoffWaitStrategy(final long firstInterval,
+            final long maximumInterval, final long timeoutMillis,
+            final double jitterFactor) {
+        this.initialInterval = Math.max(1, firstInterval);
+        this.maxInterval = Math.max(initialInterval, maximumInterval);
+        this.timeout = timeoutMillis;
+        this.jitter = Math.min(1, Math.max(0, jitterFactor));
+    }
+
+    /**
+     * Starts a new wait session.
+     * 
+     * @return the wait session
+     * @see com.virtusa.isq.rft.wait.IWaitStrategy#start()
+     */
+    @Override
+    public final WaitSession start() {
+        return new WaitSession() {
+
+            private long interval = initialInterval;
+
+            @Override
+            protected long nextDelay(final int completedWaits,
+                    final long elapsedTime) {
+                long remaining = timeout - elapsedTime;
+                if (remaining <= 0) {
+                    return -1;
+                }
+                long delay = interval;
+                if (jitter > 0) {
+                    double spread = delay * jitter;
+                    delay =
+                            Math.round(delay - spread
+                                    + ThreadLocalRandom.current().nextDouble()
+                                    * 2 * spread);
+                }
+                interval = Math.min(maxInterval, interval * MULTIPLIER);
+                return Math.max(0, Math.min(delay, remaining));
+            }
+        };
+    }
+
+    /**
+     * Returns a description of the strategy.
+     * 
+     * @return the description
+     */
+    @Override
+    public final String toString() {
+        return "BACKOFF(" + initialInterval + " to " + maxInterval
+                + " ms until " + timeout + " ms, jitter " + jitter + ")";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.wait;
+
+/**
+ * Polls a fixed number of times with a fixed interval. With the default
+ * values of 12 attempts and 1000 ms this is the historical behaviour of the
+ * runtime; a short interval gives a fast poll.
+ */
+public class FixedPollWaitStrategy implements IWaitStrategy {
+
+    /** The interval between the attempts in milliseconds. */
+    private final long interval;
+
+    /** The maximum number of attempts. */
+    private final int attempts;
+
+    /**
+     * Instantiates a new fixed poll wait strategy.
+     * 
+     * @param pollInterval
+     *            the interval between the attempts in milliseconds
+     * @param maxAttempts
+     *            the maximum number of attempts
+     */
+    public FixedPollWaitStrategy(final long pollInterval, final int maxAttempts) {
+        this.interval = pollInterval;
+        this.attempts = maxAttempts;
+    }
+
+    /**
+     * Starts a new wait session.
+     * 
+     * @return the wait session
+     * @see com.virtusa.isq.rft.wait.IWaitStrategy#start()
+     */
+    @Override
+    public final WaitSession start() {
+        return new WaitSession() {
+            @Override
+            protected long nextDelay(final int completedWaits,
+                    final long elapsedTime) {
+                return completedWaits + 1 < attempts ? interval : -1;
+            }
+        };
+    }
+
+    /**
+     * Returns a description of the strategy.
+     * 
+     * @return the description
+     */
+    @Override
+    public final String toString() {
+        return "FIXED(" + interval + " ms x " + attempts + ")";
+    }
+}
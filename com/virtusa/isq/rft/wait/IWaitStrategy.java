@@ -0,0 +1,27 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.wait;
+
+/**
+ * Decides how long the runtime waits between the attempts of a command, such
+ * as the retries of an element search.
+ */
+public interface IWaitStrategy {
+
+    /**
+     * Starts a new wait session for one command.
+     * 
+     * @return the wait session
+     */
+    WaitSession start();
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.wait;
+
+/**
+ * The retry policy of a command: how the failed actions on a found object are
+ * retried, and the time budget of the whole command.
+ * 
+ * @see WaitStrategyFactory#getRetryPolicy(String)
+ */
+public final class RetryPolicy {
+
+    /** The strategy deciding the pauses between the action retries. */
+    private final IWaitStrategy retryStrategy;
+
+    /** The time budget of the command in milliseconds, 0 if unlimited. */
+    private final long timeout;
+
+    /**
+     * Instantiates a new retry policy.
+     * 
+     * @param strategy
+     *            the strategy deciding the pauses between the action retries
+     * @param commandTimeout
+     *            the time budget of the command in milliseconds, or 0 for no
+     *            limit
+     */
+    public RetryPolicy(final IWaitStrategy strategy, final long commandTimeout) {
+        this.retryStrategy = strategy;
+        this.timeout = commandTimeout;
+    }
+
+    /**
+     * Gets the strategy deciding the pauses between the action retries.
+     * 
+     * @return the retry strategy
+     */
+    public IWaitStrategy getRetryStrategy() {
+        return retryStrategy;
+    }
+
+    /**
+     * Gets the time budget of the command.
+     * 
+     * @return the timeout in milliseconds, 0 if unlimited
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Checks if the given time exceeds the budget of the command.
+     * 
+     * @param elapsedTime
+     *            the time spent in the command in milliseconds
+     * @return true, if the command has run out of time
+     */
+    public boolean isExpired(final long elapsedTime) {
+        return timeout > 0 && elapsedTime >= timeout;
+    }
+
+    /**
+     * Returns a description of the policy.
+     * 
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return "retry " + retryStrategy
+                + (timeout > 0 ? ", timeout " + timeout + " ms" : "");
+    }
+}
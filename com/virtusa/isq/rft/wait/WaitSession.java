@@ -0,0 +1,99 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.wait;
+
+import java.util.concurrent.TimeUnit;
+
+import com.virtusa.isq.rft.utils.Utils;
+
+/**
+ * The waits of one command. The command makes an attempt, and while the
+ * attempt fails calls {@link #awaitNextAttempt()} which pauses for the delay
+ * chosen by the strategy, or returns false when no attempt is left.
+ * 
+ * <pre>
+ * WaitSession session = strategy.start();
+ * do {
+ *     result = attempt();
+ * } while (!isDone(result) &amp;&amp; session.awaitNextAttempt());
+ * </pre>
+ */
+public abstract class WaitSession {
+
+    /** The start time of the session in nanoseconds. */
+    private final long startTime = System.nanoTime();
+
+    /** The number of completed waits. */
+    private int waitCount;
+
+    /** The total time spent waiting in milliseconds. */
+    private long waitedTime;
+
+    /**
+     * Waits before the next attempt.
+     * 
+     * @return true, if a next attempt should be made
+     */
+    public final boolean awaitNextAttempt() {
+        long delay = nextDelay(waitCount, getElapsedTime());
+        if (delay < 0) {
+            return false;
+        }
+        if (delay > 0) {
+            Utils.pause((int) delay);
+            waitedTime += delay;
+        }
+        waitCount++;
+        return true;
+    }
+
+    /**
+     * Gets the delay before the next attempt.
+     * 
+     * @param completedWaits
+     *            the number of waits already done in this session
+     * @param elapsedTime
+     *            the time since the session started in milliseconds,
+     *            including the time spent in the attempts
+     * @return the delay in milliseconds, or a negative value if no attempt
+     *         is left
+     */
+    protected abstract long nextDelay(int completedWaits, long elapsedTime);
+
+    /**
+     * Gets the time since the session started.
+     * 
+     * @return the elapsed time in milliseconds
+     */
+    public final long getElapsedTime() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Gets the time spent waiting between the attempts.
+     * 
+     * @return the waited time in milliseconds
+     */
+    public final long getWaitedTime() {
+        return waitedTime;
+    }
+
+    /**
+     * Gets the number of waits done.
+     * 
+     * @return the wait count
+     */
+    public final int getWaitCount() {
+        return waitCount;
+    }
+}
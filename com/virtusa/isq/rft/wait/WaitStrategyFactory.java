@@ -0,0 +1,305 @@
+/*
+ * Copyright 2004 ThoughtWorks, Inc. Licensed under the Apache License, Version
+ * 2.0 (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+
+
+package com.virtusa.isq.rft.wait;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.virtusa.isq.rft.utils.LayeredConfiguration;
+import com.virtusa.isq.rft.utils.RuntimeConfiguration;
+
+/**
+ * Creates the wait strategy of each command from the runtime properties. Every
+ * key can be given for all the commands, or for one command by appending the
+ * command name, for example <code>WAIT_STRATEGY.checkElementPresent</code>.
+ * <ul>
+ * <li>WAIT_STRATEGY : FIXED (default), DEADLINE or BACKOFF</li>
+ * <li>WAIT_INTERVAL : the poll interval, or the first interval of BACKOFF, in
+ * milliseconds</li>
+ * <li>WAIT_RETRY_COUNT : the number of attempts of FIXED</li>
+ * <li>WAIT_TIMEOUT : the timeout of DEADLINE and BACKOFF in milliseconds</li>
+ * <li>WAIT_MAX_INTERVAL : the maximum interval of BACKOFF in milliseconds</li>
+ * <li>WAIT_JITTER : the jitter factor of BACKOFF, between 0 and 1</li>
+ * </ul>
+ * The retries of a failed action on a found object are configured the same
+ * way with the RETRY_STRATEGY, RETRY_INTERVAL, RETRY_COUNT, RETRY_TIMEOUT,
+ * RETRY_MAX_INTERVAL and RETRY_JITTER keys, and the time budget of a whole
+ * command with COMMAND_TIMEOUT in milliseconds (0, the default, for no
+ * limit).<br>
+ * <br>
+ * The keys are read through the {@link LayeredConfiguration}, so they can also
+ * be given as system properties or environment variables, and for one page or
+ * object in the object map. The strategies are created again when the runtime
+ * properties change.
+ */
+public final class WaitStrategyFactory {
+
+    /** The fixed poll strategy name. */
+    public static final String FIXED = "FIXED";
+
+    /** The deadline poll strategy name. */
+    public static final String DEADLINE = "DEADLINE";
+
+    /** The exponential backoff strategy name. */
+    public static final String BACKOFF = "BACKOFF";
+
+    /** The default poll interval of FIXED in milliseconds. */
+    public static final int DEFAULT_INTERVAL = 1000;
+
+    /** The default number of attempts of FIXED. */
+    public static final int DEFAULT_RETRY_COUNT = 12;
+
+    /** The default poll interval of DEADLINE in milliseconds. */
+    private static final int DEFAULT_DEADLINE_INTERVAL = 250;
+
+    /** The default first interval of BACKOFF in milliseconds. */
+    private static final int DEFAULT_BACKOFF_INTERVAL = 50;
+
+    /** The default timeout in milliseconds. */
+    private static final int DEFAULT_TIMEOUT =
+            DEFAULT_INTERVAL * DEFAULT_RETRY_COUNT;
+
+    /** The default interval between the action retries in milliseconds. */
+    public static final int DEFAULT_RETRY_INTERVAL = 100;
+
+    /** The wait property prefix. */
+    private static final String WAIT = "WAIT";
+
+    /** The retry property prefix. */
+    private static final String RETRY = "RETRY";
+
+    /** The default jitter factor of BACKOFF. */
+    private static final double DEFAULT_JITTER = 0.2;
+
+    /** The strategies created so far, by command. */
+    private static final Map<String, IWaitStrategy> STRATEGIES =
+            new HashMap<String, IWaitStrategy>();
+
+    /** The retry policies created so far, by command. */
+    private static final Map<String, RetryPolicy> POLICIES =
+            new HashMap<String, RetryPolicy>();
+
+    static {
+        RuntimeConfiguration.getInstance().addListener(
+                new RuntimeConfiguration.Listener() {
+                    @Override
+                    public void configurationChanged(
+                            final RuntimeConfiguration configuration) {
+                        clear();
+                    }
+                });
+    }
+
+    /**
+     * Instantiates a new wait strategy factory.
+     */
+    private WaitStrategyFactory() {
+    }
+
+    /**
+     * Drops the strategies and policies created so far, so that they are
+     * created from the current runtime properties on the next use.
+     */
+    private static synchronized void clear() {
+        STRATEGIES.clear();
+        POLICIES.clear();
+    }
+
+    /**
+     * Gets the wait strategy configured for the given command.
+     * 
+     * @param command
+     *            the command name, such as click or checkElementPresent
+     * @return the wait strategy
+     */
+    public static IWaitStrategy getStrategy(final String command) {
+        return getStrategy(command, null);
+    }
+
+    /**
+     * Gets the wait strategy configured for the given command on an object.
+     * 
+     * @param command
+     *            the command name, such as click or checkElementPresent
+     * @param overrides
+     *            the settings of the object and its page, or null
+     * @return the wait strategy
+     */
+    public static synchronized IWaitStrategy getStrategy(final String command,
+            final Map<String, String> overrides) {
+        if (overrides != null && !overrides.isEmpty()) {
+            return createStrategy(overrides, WAIT, "WAIT_RETRY_COUNT",
+                    command, DEFAULT_INTERVAL);
+        }
+        IWaitStrategy strategy = STRATEGIES.get(command);
+        if (strategy == null) {
+            strategy =
+                    createStrategy(null, WAIT, "WAIT_RETRY_COUNT", command,
+                            DEFAULT_INTERVAL);
+            STRATEGIES.put(command, strategy);
+        }
+        return strategy;
+    }
+
+    /**
+     * Gets the retry policy configured for the given command.
+     * 
+     * @param command
+     *            the command name, such as click or checkElementPresent
+     * @return the retry policy
+     */
+    public static RetryPolicy getRetryPolicy(final String command) {
+        return getRetryPolicy(command, null);
+    }
+
+    /**
+     * Gets the retry policy configured for the given command on an object.
+     * 
+     * @param command
+     *            the command name, such as click or checkElementPresent
+     * @param overrides
+     *            the settings of the object and its page, or null
+     * @return the retry policy
+     */
+    public static synchronized RetryPolicy getRetryPolicy(
+            final String command, final Map<String, String> overrides) {
+        if (overrides != null && !overrides.isEmpty()) {
+            return createRetryPolicy(overrides, command);
+        }
+        RetryPolicy policy = POLICIES.get(command);
+        if (policy == null) {
+            policy = createRetryPolicy(null, command);
+            POLICIES.put(command, policy);
+        }
+        return policy;
+    }
+
+    /**
+     * Creates the retry policy configured for the given command.
+     * 
+     * @param overrides
+     *            the settings of the object and its page, or null
+     * @param command
+     *            the command name
+     * @return the retry policy
+     */
+    private static RetryPolicy createRetryPolicy(
+            final Map<String, String> overrides, final String command) {
+        long timeout = 0;
+        try {
+            timeout = getLong(overrides, "COMMAND_TIMEOUT", command, 0);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid command timeout for the command "
+                    + command + ", using no limit. Actual Error : "
+                    + e.getMessage());
+        }
+        return new RetryPolicy(createStrategy(overrides, RETRY, "RETRY_COUNT",
+                command, DEFAULT_RETRY_INTERVAL), timeout);
+    }
+
+    /**
+     * Creates the strategy configured for the given command.
+     * 
+     * @param overrides
+     *            the settings of the object and its page, or null
+     * @param prefix
+     *            the property prefix, WAIT or RETRY
+     * @param countKey
+     *            the key of the number of attempts of FIXED
+     * @param command
+     *            the command name
+     * @param defaultInterval
+     *            the default poll interval of FIXED in milliseconds
+     * @return the wait strategy
+     */
+    private static IWaitStrategy createStrategy(
+            final Map<String, String> overrides, final String prefix,
+            final String countKey, final String command,
+            final int defaultInterval) {
+        String name =
+                getProperty(overrides, prefix + "_STRATEGY", command, FIXED)
+                        .toUpperCase(Locale.US);
+        try {
+            if (DEADLINE.equals(name)) {
+                return new DeadlineWaitStrategy(getLong(overrides, prefix
+                        + "_INTERVAL", command, DEFAULT_DEADLINE_INTERVAL),
+                        getLong(overrides, prefix + "_TIMEOUT", command,
+                                DEFAULT_TIMEOUT));
+            } else if (BACKOFF.equals(name)) {
+                return new ExponentialBackoffWaitStrategy(getLong(overrides,
+                        prefix + "_INTERVAL", command,
+                        DEFAULT_BACKOFF_INTERVAL), getLong(overrides, prefix
+                        + "_MAX_INTERVAL", command, DEFAULT_INTERVAL),
+                        getLong(overrides, prefix + "_TIMEOUT", command,
+                                DEFAULT_TIMEOUT),
+                        Double.parseDouble(getProperty(overrides, prefix
+                                + "_JITTER", command,
+                                String.valueOf(DEFAULT_JITTER))));
+            } else if (!FIXED.equals(name)) {
+                System.err.println("Unknown " + prefix.toLowerCase(Locale.US)
+                        + " strategy " + name + " for the command " + command
+                        + ", using the fixed poll.");
+            }
+            return new FixedPollWaitStrategy(getLong(overrides, prefix
+                    + "_INTERVAL", command, defaultInterval), (int) getLong(
+                    overrides, countKey, command, DEFAULT_RETRY_COUNT));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid " + prefix.toLowerCase(Locale.US)
+                    + " configuration for the command " + command
+                    + ", using the fixed poll. Actual Error : "
+                    + e.getMessage());
+            return new FixedPollWaitStrategy(defaultInterval,
+                    DEFAULT_RETRY_COUNT);
+        }
+    }
+
+    /**
+     * Gets a numeric wait property.
+     * 
+     * @param overrides
+     *            the settings of the object and its page, or null
+     * @param key
+     *            the property key
+     * @param command
+     *            the command name
+     * @param defaultValue
+     *            the default value
+     * @return the property value
+     */
+    private static long getLong(final Map<String, String> overrides,
+            final String key, final String command, final long defaultValue) {
+        return Long.parseLong(getProperty(overrides, key, command,
+                String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Gets a wait property, the command specific value taking precedence
+     * over the general one.
+     * 
+     * @param overrides
+     *            the settings of the object and its page, or null
+     * @param key
+     *            the property key
+     * @param command
+     *            the command name
+     * @param defaultValue
+     *            the default value
+     * @return the property value
+     */
+    private static String getProperty(final Map<String, String> overrides,
+            final String key, final String command, final String defaultValue) {
+        return LayeredConfiguration.getString(new String[] {
+                key + "." + command, key }, overrides, defaultValue);
+    }
+}